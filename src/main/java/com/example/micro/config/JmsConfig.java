@@ -1,19 +1,27 @@
 package com.example.micro.config;
 
+import com.example.micro.messaging.PayloadMappers;
+import com.example.micro.messaging.WorkloadMessageConverter;
 import jakarta.jms.ConnectionFactory;
 import jakarta.jms.Session;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQPrefetchPolicy;
 import org.apache.activemq.RedeliveryPolicy;
+import org.apache.activemq.broker.BrokerPlugin;
+import org.apache.activemq.broker.BrokerService;
 import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.plugin.StatisticsBrokerPlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.config.AbstractJmsListenerContainerFactory;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.connection.CachingConnectionFactory;
@@ -36,7 +44,18 @@ public class JmsConfig {
     private static final Logger logger = LoggerFactory.getLogger(JmsConfig.class);
 
     public static final String WORKLOAD_QUEUE = "workload-queue";
+    public static final String WORKLOAD_BACKFILL_QUEUE = "workload-backfill-queue";
     public static final String WORKLOAD_DLQ = "workload-dlq";
+    public static final String WORKLOAD_EVENTS_TOPIC = "workload-events";
+    public static final String TYPE_ID_PROPERTY = "_type";
+
+    /**
+     * Lifecycle phase of every listener container, and so of the JmsListenerEndpointRegistry,
+     * which takes its phase from them. Set explicitly so IngestDrainCoordinator can run in the
+     * phase above and drain before the registry stops the containers; still above the web
+     * server's graceful shutdown phase.
+     */
+    public static final int LISTENER_CONTAINER_PHASE = SmartLifecycle.DEFAULT_PHASE - 512;
 
     @Value("${spring.activemq.broker-url}")
     private String brokerUrl;
@@ -53,6 +72,38 @@ public class JmsConfig {
     @Value("${spring.jms.listener.max-concurrency:5}")
     private int maxConcurrency;
 
+    @Value("${workload.ingest.backfill.concurrency:1}")
+    private String backfillConcurrency;
+
+    @Value("${workload.jms.listener.container-type:default}")
+    private String containerType;
+
+    @Value("${workload.jms.listener.ack-mode:transacted}")
+    private String ackMode;
+
+    @Value("${workload.jms.listener.cache-level:auto}")
+    private String cacheLevel;
+
+    @Value("${workload.jms.listener.receive-timeout-ms:1000}")
+    private long receiveTimeoutMs;
+
+    // Both drain further messages from the listener session; see JmsListenerSettings.supportsBatchDrain
+    @Value("${workload.ingest.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    @Value("${workload.ingest.staged.enabled:false}")
+    private boolean stagedEnabled;
+
+    // Messages the broker dispatches to a consumer ahead of acknowledgement
+    @Value("${workload.jms.prefetch.queue:1000}")
+    private int queuePrefetch;
+
+    @Value("${workload.jms.message-format:json}")
+    private String messageFormat;
+
+    @Value("${workload.dlq.store.concurrency:1}")
+    private String deadLetterConcurrency;
+
     @Bean
     public Queue workloadQueue() {
         return new ActiveMQQueue(WORKLOAD_QUEUE);
@@ -68,27 +119,95 @@ public class JmsConfig {
     public JmsListenerContainerFactory<?> jmsListenerContainerFactory(
             ConnectionFactory connectionFactory,
             DefaultJmsListenerContainerFactoryConfigurer configurer) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
-
         // Configure for horizontal scaling with multiple concurrent consumers
-        factory.setConcurrency(concurrency + "-" + maxConcurrency);
-
-        // Use transactions for better message handling
-        factory.setSessionTransacted(true);
+        JmsListenerSettings settings = listenerSettings(concurrency + "-" + maxConcurrency);
+        checkBatchDrain(settings);
+        AbstractJmsListenerContainerFactory<?> factory = createContainerFactory(settings, connectionFactory, configurer);
 
         // Configure error handling with logging
         factory.setErrorHandler(t -> {
             logger.error("Error in JMS message processing: {}", t.getMessage(), t);
         });
 
-        // Set destination resolver
-        factory.setDestinationResolver(new DynamicDestinationResolver());
+        logger.info("Workload listener container: {}", settings);
+        return factory;
+    }
 
-        configurer.configure(factory, connectionFactory);
+    /**
+     * Container factory for the backfill lane: few consumers, so historical loads
+     * cannot take MongoDB capacity away from live updates
+     */
+    @Bean
+    public JmsListenerContainerFactory<?> backfillListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            DefaultJmsListenerContainerFactoryConfigurer configurer) {
+        JmsListenerSettings settings = listenerSettings(backfillConcurrency);
+        checkBatchDrain(settings);
+        AbstractJmsListenerContainerFactory<?> factory = createContainerFactory(settings, connectionFactory, configurer);
+        factory.setErrorHandler(t -> {
+            logger.error("Error in JMS backfill message processing: {}", t.getMessage(), t);
+        });
+        return factory;
+    }
+
+    /**
+     * Container factory for the Dead Letter Queue listener. It always drains its batches with
+     * receive() on a transacted polling container, whatever workload.jms.listener.* says, so
+     * a failed dead_letters insert rolls the drained messages back instead of losing them.
+     */
+    @Bean
+    public JmsListenerContainerFactory<?> deadLetterListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            DefaultJmsListenerContainerFactoryConfigurer configurer) {
+        JmsListenerSettings settings = new JmsListenerSettings()
+                .setCacheLevelName(cacheLevel)
+                .setReceiveTimeoutMs(receiveTimeoutMs)
+                .setConcurrency(deadLetterConcurrency);
+        AbstractJmsListenerContainerFactory<?> factory = createContainerFactory(settings, connectionFactory, configurer);
+        factory.setErrorHandler(t -> {
+            logger.error("Error in JMS Dead Letter Queue processing: {}", t.getMessage(), t);
+        });
         return factory;
     }
 
+    public JmsListenerSettings listenerSettings(String concurrency) {
+        return new JmsListenerSettings()
+                .setContainerType(containerType)
+                .setAckMode(ackMode)
+                .setCacheLevelName(cacheLevel)
+                .setReceiveTimeoutMs(receiveTimeoutMs)
+                .setConcurrency(concurrency);
+    }
+
+    /**
+     * Fails startup for settings under which coalescing or the staged pipeline would lose or
+     * dead-letter every message, instead of finding out from the Dead Letter Queue
+     */
+    private void checkBatchDrain(JmsListenerSettings settings) {
+        if ((coalescingEnabled || stagedEnabled) && !settings.supportsBatchDrain()) {
+            throw new IllegalStateException("workload.ingest.coalescing.enabled and workload.ingest.staged.enabled "
+                    + "need workload.jms.listener.container-type=default and ack-mode=transacted, not " + settings);
+        }
+    }
+
+    private AbstractJmsListenerContainerFactory<?> createContainerFactory(
+            JmsListenerSettings settings, ConnectionFactory connectionFactory,
+            DefaultJmsListenerContainerFactoryConfigurer configurer) {
+        AbstractJmsListenerContainerFactory<?> factory = settings.createFactory();
+
+        if (factory instanceof DefaultJmsListenerContainerFactory dmlc) {
+            configurer.configure(dmlc, connectionFactory);
+            // Boot's configurer sets its own ack mode, concurrency and timeouts; ours win
+            settings.applyTo(dmlc);
+        } else {
+            factory.setConnectionFactory(connectionFactory);
+        }
 
+        // Set destination resolver
+        factory.setDestinationResolver(new DynamicDestinationResolver());
+        factory.setPhase(LISTENER_CONTAINER_PHASE);
+        return factory;
+    }
 
     @Bean
     public ActiveMQConnectionFactory connectionFactory() {
@@ -100,6 +219,10 @@ public class JmsConfig {
             factory.setPassword(password);
         }
 
+        ActiveMQPrefetchPolicy prefetchPolicy = new ActiveMQPrefetchPolicy();
+        prefetchPolicy.setQueuePrefetch(queuePrefetch);
+        factory.setPrefetchPolicy(prefetchPolicy);
+
         factory.setTrustAllPackages(false);
         factory.setTrustedPackages(List.of(
                 "com.example.micro.messaging",
@@ -153,6 +276,9 @@ public class JmsConfig {
         @Value("${spring.activemq.prod.password}")
         private String prodPassword;
 
+        @Value("${workload.jms.prefetch.queue:1000}")
+        private int queuePrefetch;
+
         @Bean
         public ActiveMQConnectionFactory connectionFactory() {
             logger.info("Initializing Production ActiveMQ connection factory");
@@ -161,6 +287,11 @@ public class JmsConfig {
             factory.setBrokerURL(prodBrokerUrl);
             factory.setUserName(prodUsername);
             factory.setPassword(prodPassword);
+
+            ActiveMQPrefetchPolicy prefetchPolicy = new ActiveMQPrefetchPolicy();
+            prefetchPolicy.setQueuePrefetch(queuePrefetch);
+            factory.setPrefetchPolicy(prefetchPolicy);
+
             factory.setTrustAllPackages(false);
             factory.setTrustedPackages(List.of(
                     "com.example.micro.messaging",
@@ -186,6 +317,7 @@ public class JmsConfig {
             factory.setConnectionFactory(connectionFactory);
             factory.setConcurrency("3-10"); // Higher concurrency for production
             factory.setSessionTransacted(true);
+            factory.setPhase(LISTENER_CONTAINER_PHASE);
 
             // Configure error handling
             factory.setErrorHandler(t -> {
@@ -225,10 +357,58 @@ public class JmsConfig {
         }
     }
 
+    // Embedded broker profile: ActiveMQ runs in this JVM and is reached over vm://,
+    // for local runs, listener throughput measurements and load tests without Docker
+    @Configuration
+    @Profile("embedded")
+    public static class EmbeddedBrokerConfig {
+
+        private static final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerConfig.class);
+
+        @Value("${workload.jms.embedded.broker-name:workload-embedded}")
+        private String brokerName;
+
+        @Value("${workload.jms.embedded.persistent:false}")
+        private boolean persistent;
+
+        @Value("${workload.jms.embedded.data-directory:target/activemq-data}")
+        private String dataDirectory;
+
+        // Optional extra connector, e.g. tcp://0.0.0.0:61616, for producers outside this JVM
+        @Value("${workload.jms.embedded.transport-connector:}")
+        private String transportConnector;
+
+        @Bean(destroyMethod = "stop")
+        public BrokerService embeddedBroker() throws Exception {
+            logger.info("Starting embedded ActiveMQ broker '{}' (persistent={})", brokerName, persistent);
+
+            BrokerService broker = new BrokerService();
+            broker.setBrokerName(brokerName);
+            broker.setPersistent(persistent);
+            broker.setDataDirectory(dataDirectory);
+            broker.setUseJmx(false);
+            broker.setSchedulerSupport(false);
+            // Spring stops the broker after the listener containers
+            broker.setUseShutdownHook(false);
+            // Answers the queue statistics requests of QueueMetricsCollector
+            broker.setPlugins(new BrokerPlugin[]{new StatisticsBrokerPlugin()});
+
+            if (transportConnector != null && !transportConnector.isEmpty()) {
+                broker.addConnector(transportConnector);
+            }
+
+            // Started here, so it is running before any connection factory or listener uses it
+            broker.start();
+            broker.waitUntilStarted();
+            return broker;
+        }
+    }
+
     @Bean
     public MessageConverter jacksonJmsMessageConverter() {
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
         converter.setTargetType(MessageType.TEXT);
+        converter.setObjectMapper(PayloadMappers.json());
 
         // Add type mappings to handle messages from GymCRM
         Map<String, Class<?>> typeIdMappings = new HashMap<>();
@@ -236,8 +416,13 @@ public class JmsConfig {
                 com.example.micro.messaging.WorkloadMessage.class);
 
         converter.setTypeIdMappings(typeIdMappings);
-        converter.setTypeIdPropertyName("_type");
+        converter.setTypeIdPropertyName(TYPE_ID_PROPERTY);
+
+        // Smile BytesMessages are read whenever they arrive; writing them is opt-in
+        boolean binaryOutbound = WorkloadMessageConverter.FORMAT_SMILE.equals(messageFormat);
+        logger.info("Outbound JMS message format: {}", binaryOutbound
+                ? WorkloadMessageConverter.FORMAT_SMILE : WorkloadMessageConverter.FORMAT_JSON);
 
-        return converter;
+        return new WorkloadMessageConverter(converter, TYPE_ID_PROPERTY, typeIdMappings, binaryOutbound);
     }
 }
\ No newline at end of file
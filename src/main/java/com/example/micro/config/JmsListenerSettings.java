@@ -0,0 +1,153 @@
+package com.example.micro.config;
+
+import jakarta.jms.Session;
+import org.springframework.jms.config.AbstractJmsListenerContainerFactory;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.config.SimpleJmsListenerContainerFactory;
+import org.springframework.jms.listener.SimpleMessageListenerContainer;
+
+import java.util.Locale;
+
+/**
+ * Listener container settings shared by the application's container factories and the
+ * JMS settings benchmark, so measured combinations are exactly what production runs.
+ */
+public class JmsListenerSettings {
+
+    public enum ContainerType {
+        // DefaultMessageListenerContainer: consumer threads poll with receive(timeout)
+        DEFAULT,
+        // SimpleMessageListenerContainer: the ActiveMQ session thread pushes messages to the listener
+        SIMPLE
+    }
+
+    public enum AckMode {
+        // Only mode where a Dead Letter Queue send commits atomically with the consumption
+        TRANSACTED(Session.SESSION_TRANSACTED),
+        CLIENT(Session.CLIENT_ACKNOWLEDGE),
+        AUTO(Session.AUTO_ACKNOWLEDGE),
+        DUPS_OK(Session.DUPS_OK_ACKNOWLEDGE);
+
+        private final int sessionMode;
+
+        AckMode(int sessionMode) {
+            this.sessionMode = sessionMode;
+        }
+
+        public int getSessionMode() {
+            return sessionMode;
+        }
+    }
+
+    private ContainerType containerType = ContainerType.DEFAULT;
+    private AckMode ackMode = AckMode.TRANSACTED;
+    private String cacheLevelName = "CACHE_AUTO";
+    private long receiveTimeoutMs = 1000;
+    private String concurrency = "1";
+
+    /**
+     * Creates a container factory for these settings. The caller adds the connection
+     * factory, error handler and destination resolver.
+     */
+    public AbstractJmsListenerContainerFactory<?> createFactory() {
+        if (containerType == ContainerType.SIMPLE) {
+            // Push-based: a fixed number of consumers, no polling and no cache level
+            int consumers = simpleConsumerCount();
+            SimpleJmsListenerContainerFactory factory = new SimpleJmsListenerContainerFactory() {
+                @Override
+                protected void initializeContainer(SimpleMessageListenerContainer container) {
+                    container.setConcurrentConsumers(consumers);
+                }
+            };
+            factory.setSessionTransacted(ackMode == AckMode.TRANSACTED);
+            factory.setSessionAcknowledgeMode(ackMode.getSessionMode());
+            return factory;
+        }
+
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        applyTo(factory);
+        return factory;
+    }
+
+    /**
+     * Applies these settings to a polling container factory, e.g. after Spring Boot's
+     * configurer has set its defaults
+     */
+    public void applyTo(DefaultJmsListenerContainerFactory factory) {
+        factory.setCacheLevelName(cacheLevelName);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setConcurrency(concurrency);
+        factory.setSessionTransacted(ackMode == AckMode.TRANSACTED);
+        factory.setSessionAcknowledgeMode(ackMode.getSessionMode());
+    }
+
+    /**
+     * Whether the listener may drain further messages from its session with receive(), as
+     * coalescing and the staged ingest pipeline do. The push-based container sets a
+     * MessageListener on the session, which forbids synchronous receives, and only a
+     * transacted session rolls drained messages back for redelivery on failure.
+     */
+    public boolean supportsBatchDrain() {
+        return containerType == ContainerType.DEFAULT && ackMode == AckMode.TRANSACTED;
+    }
+
+    /**
+     * SimpleMessageListenerContainer takes a fixed consumer count: the upper bound of "min-max"
+     */
+    private int simpleConsumerCount() {
+        int dash = concurrency.indexOf('-');
+        return Integer.parseInt(dash >= 0 ? concurrency.substring(dash + 1) : concurrency);
+    }
+
+    public ContainerType getContainerType() {
+        return containerType;
+    }
+
+    public JmsListenerSettings setContainerType(String containerType) {
+        this.containerType = ContainerType.valueOf(containerType.trim().toUpperCase(Locale.ROOT));
+        return this;
+    }
+
+    public AckMode getAckMode() {
+        return ackMode;
+    }
+
+    public JmsListenerSettings setAckMode(String ackMode) {
+        this.ackMode = AckMode.valueOf(ackMode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        return this;
+    }
+
+    public String getCacheLevelName() {
+        return cacheLevelName;
+    }
+
+    public JmsListenerSettings setCacheLevelName(String cacheLevelName) {
+        String name = cacheLevelName.trim().toUpperCase(Locale.ROOT);
+        this.cacheLevelName = name.startsWith("CACHE_") ? name : "CACHE_" + name;
+        return this;
+    }
+
+    public long getReceiveTimeoutMs() {
+        return receiveTimeoutMs;
+    }
+
+    public JmsListenerSettings setReceiveTimeoutMs(long receiveTimeoutMs) {
+        this.receiveTimeoutMs = receiveTimeoutMs;
+        return this;
+    }
+
+    public String getConcurrency() {
+        return concurrency;
+    }
+
+    public JmsListenerSettings setConcurrency(String concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return containerType + "/" + ackMode + "/" + cacheLevelName + "/concurrency=" + concurrency
+                + "/receiveTimeout=" + receiveTimeoutMs + "ms";
+    }
+}
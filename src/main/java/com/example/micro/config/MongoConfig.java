@@ -1,7 +1,19 @@
 package com.example.micro.config;
 
+import com.example.micro.metrics.MongoPoolWaitListener;
+import com.example.micro.metrics.MongoSlowCommandListener;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,28 +21,147 @@ import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableMongoRepositories(basePackages = "com.example.micro.repository")
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
     @Value("${spring.data.mongodb.uri:mongodb://localhost:27017/workload}")
     private String mongoUri;
 
     @Value("${spring.data.mongodb.database:workload}")
     private String databaseName;
 
+    @Value("${workload.mongo.pool.min-size:5}")
+    private int poolMinSize;
+
+    @Value("${workload.mongo.pool.max-size:20}")
+    private int poolMaxSize;
+
+    @Value("${workload.mongo.pool.max-wait-ms:2000}")
+    private long poolMaxWaitMs;
+
+    @Value("${workload.mongo.pool.max-idle-ms:300000}")
+    private long poolMaxIdleMs;
+
+    @Value("${workload.mongo.pool.warm-up:true}")
+    private boolean poolWarmUp;
+
+    @Value("${workload.mongo.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${workload.mongo.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    private final MeterRegistry meterRegistry;
+    private final MongoSlowCommandListener slowCommandListener;
+    private final MongoPoolWaitListener poolWaitListener;
+
+    @Autowired
+    public MongoConfig(MeterRegistry meterRegistry, MongoSlowCommandListener slowCommandListener,
+                       MongoPoolWaitListener poolWaitListener) {
+        this.meterRegistry = meterRegistry;
+        this.slowCommandListener = slowCommandListener;
+        this.poolWaitListener = poolWaitListener;
+    }
+
     @Override
     protected String getDatabaseName() {
         return databaseName;
     }
 
+    /**
+     * Command latency goes to mongodb.driver.commands, tagged by command and collection;
+     * commands slower than workload.mongo.slow-command.threshold-ms are also logged.
+     * Pool size, checked-out connections and wait-queue size go to mongodb.driver.pool.*,
+     * check-out wait time to workload.mongo.pool.wait. The workload.mongo.* pool and timeout
+     * properties override the same options in the connection string.
+     */
     @Override
     public MongoClient mongoClient() {
-        return MongoClients.create(mongoUri);
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoUri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(poolMinSize)
+                        .maxSize(poolMaxSize)
+                        .maxWaitTime(poolMaxWaitMs, TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(poolMaxIdleMs, TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry))
+                        .addConnectionPoolListener(poolWaitListener))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                        .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS))
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .addCommandListener(slowCommandListener)
+                .build();
+        MongoClient client = MongoClients.create(settings);
+        if (poolWarmUp && poolMinSize > 0) {
+            warmUp(client);
+        }
+        return client;
     }
 
     @Bean
     public MongoTemplate mongoTemplate() {
         return new MongoTemplate(mongoClient(), getDatabaseName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens min-size connections before the JMS listeners start, so the first messages do
+     * not pay for connection setup. Runs min-size concurrent pings, each holding its own
+     * connection; MongoDB being unavailable is logged, not fatal.
+     */
+    private void warmUp(MongoClient client) {
+        MongoDatabase database = client.getDatabase(databaseName);
+        ExecutorService executor = Executors.newFixedThreadPool(poolMinSize, runnable -> {
+            Thread thread = new Thread(runnable, "mongo-pool-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Callable<Document>> pings = new ArrayList<>(poolMinSize);
+        for (int i = 0; i < poolMinSize; i++) {
+            pings.add(() -> database.runCommand(new Document("ping", 1)));
+        }
+
+        long started = System.nanoTime();
+        int warmed = 0;
+        String failure = null;
+        try {
+            for (Future<Document> ping : executor.invokeAll(pings, connectTimeoutMs + poolMaxWaitMs,
+                    TimeUnit.MILLISECONDS)) {
+                try {
+                    ping.get();
+                    warmed++;
+                } catch (CancellationException e) {
+                    failure = "timed out";
+                } catch (ExecutionException e) {
+                    failure = e.getCause().getMessage();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "interrupted";
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure == null) {
+            logger.info("Warmed up {} MongoDB connections in {} ms", warmed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } else {
+            logger.warn("Warmed up {} of {} MongoDB connections, the rest open on demand: {}",
+                    warmed, poolMinSize, failure);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.micro.config;
+
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.document.TrainerWorkloadDocument;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared with @CompoundIndex and @Indexed on the document classes.
+ * Spring Data's automatic index creation is off by default and MongoConfig builds its own
+ * MongoTemplate, so without this the annotations are never applied. ensureIndex is a no-op
+ * for indexes that already exist; MongoDB being unavailable is logged, not fatal.
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(TrainerWorkloadDocument.class, DeadLetterDocument.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        for (Class<?> documentClass : INDEXED_DOCUMENTS) {
+            try {
+                IndexResolver resolver = new MongoPersistentEntityIndexResolver(
+                        mongoTemplate.getConverter().getMappingContext());
+                IndexOperations indexOps = mongoTemplate.indexOps(documentClass);
+                resolver.resolveIndexFor(documentClass).forEach(indexOps::ensureIndex);
+            } catch (Exception e) {
+                logger.warn("Could not create indexes for {}, queries on it may scan the collection: {}",
+                        documentClass.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.micro.controller;
+
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.dto.DeadLetterCountResponse;
+import com.example.micro.dto.RedriveJobResponse;
+import com.example.micro.dto.RedriveRequest;
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.service.DeadLetterRedriveService;
+import com.example.micro.service.DeadLetterService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+public class DeadLetterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final DeadLetterService deadLetterService;
+    private final DeadLetterRedriveService redriveService;
+
+    @Autowired
+    public DeadLetterController(DeadLetterService deadLetterService, DeadLetterRedriveService redriveService) {
+        this.deadLetterService = deadLetterService;
+        this.redriveService = redriveService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> findDeadLetters(
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        logger.info("Searching dead letters: reason={}, username={}, from={}, to={}", reason, username, from, to);
+
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body("Error: page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        try {
+            List<DeadLetterDocument> deadLetters =
+                    deadLetterService.findDeadLetters(reason, username, from, to, page, size);
+            return ResponseEntity.ok(deadLetters);
+        } catch (Exception e) {
+            logger.error("Error searching dead letters: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/counts/reason")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> countByReason(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        logger.info("Counting dead letters by reason: from={}, to={}", from, to);
+
+        try {
+            List<DeadLetterCountResponse> counts = deadLetterService.countByReason(from, to);
+            return ResponseEntity.ok(counts);
+        } catch (Exception e) {
+            logger.error("Error counting dead letters by reason: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/counts/code")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> countByErrorCode(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        logger.info("Counting dead letters by error code: from={}, to={}", from, to);
+
+        try {
+            List<DeadLetterCountResponse> counts = deadLetterService.countByErrorCode(from, to);
+            return ResponseEntity.ok(counts);
+        } catch (Exception e) {
+            logger.error("Error counting dead letters by error code: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/counts/trainer")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> countByTrainer(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        logger.info("Counting dead letters by trainer: from={}, to={}", from, to);
+
+        try {
+            List<DeadLetterCountResponse> counts = deadLetterService.countByTrainer(from, to);
+            return ResponseEntity.ok(counts);
+        } catch (Exception e) {
+            logger.error("Error counting dead letters by trainer: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/counts/time")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> countByTimeBucket(
+            @RequestParam(defaultValue = "HOUR") DeadLetterService.TimeBucket bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        logger.info("Counting dead letters by {}: from={}, to={}", bucket, from, to);
+
+        try {
+            List<DeadLetterCountResponse> counts = deadLetterService.countByTimeBucket(bucket, from, to);
+            return ResponseEntity.ok(counts);
+        } catch (Exception e) {
+            logger.error("Error counting dead letters by time bucket: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/redrive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startRedrive(@Valid @RequestBody RedriveRequest request) {
+        logger.info("Starting dead letter redrive: reason={}, from={}, to={}, rate={}",
+                request.getReason(), request.getFrom(), request.getTo(), request.getRatePerSecond());
+
+        try {
+            RedriveJobResponse job = redriveService.startRedrive(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            logger.error("Error starting dead letter redrive: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/redrive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<RedriveJobResponse>> getRedriveJobs() {
+        return ResponseEntity.ok(redriveService.getJobs());
+    }
+
+    @GetMapping("/redrive/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRedriveJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(redriveService.getJob(jobId));
+        } catch (ResourceNotFoundException e) {
+            logger.warn("Redrive job not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/redrive/{jobId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> cancelRedriveJob(@PathVariable String jobId) {
+        logger.info("Cancelling dead letter redrive job: {}", jobId);
+
+        try {
+            return ResponseEntity.ok(redriveService.cancel(jobId));
+        } catch (ResourceNotFoundException e) {
+            logger.warn("Redrive job not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
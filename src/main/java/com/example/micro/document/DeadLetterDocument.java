@@ -0,0 +1,191 @@
+package com.example.micro.document;
+
+import com.example.micro.messaging.WorkloadMessage;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A message that ended up on the workload Dead Letter Queue, kept for failure analysis.
+ */
+@Document(collection = "dead_letters")
+@CompoundIndexes({
+        @CompoundIndex(name = "reason_received_idx", def = "{'errorReason': 1, 'receivedAt': -1}"),
+        @CompoundIndex(name = "username_received_idx", def = "{'username': 1, 'receivedAt': -1}")
+})
+public class DeadLetterDocument {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String originalTransactionId;
+
+    private String jmsMessageId;
+    private String username;
+    private int year;
+    private int month;
+    private String messageType;
+
+    // Failure classification set by the workload listener, null when dead-lettered by the broker
+    private String errorCode;
+    private String errorReason;
+    private Instant errorTimestamp;
+
+    @Indexed
+    private Instant receivedAt;
+
+    // Original payload, or the raw body when it could not be converted
+    private WorkloadMessage message;
+    private String rawPayload;
+    // content.format of the raw body (json or smile), and base64 when it came from a BytesMessage
+    private String rawPayloadFormat;
+    private String rawPayloadEncoding;
+
+    // Set once the message has been sent back to the workload queue
+    private String redriveJobId;
+    private Instant redrivenAt;
+
+    public DeadLetterDocument() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOriginalTransactionId() {
+        return originalTransactionId;
+    }
+
+    public void setOriginalTransactionId(String originalTransactionId) {
+        this.originalTransactionId = originalTransactionId;
+    }
+
+    public String getJmsMessageId() {
+        return jmsMessageId;
+    }
+
+    public void setJmsMessageId(String jmsMessageId) {
+        this.jmsMessageId = jmsMessageId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(String messageType) {
+        this.messageType = messageType;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorReason() {
+        return errorReason;
+    }
+
+    public void setErrorReason(String errorReason) {
+        this.errorReason = errorReason;
+    }
+
+    public Instant getErrorTimestamp() {
+        return errorTimestamp;
+    }
+
+    public void setErrorTimestamp(Instant errorTimestamp) {
+        this.errorTimestamp = errorTimestamp;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public WorkloadMessage getMessage() {
+        return message;
+    }
+
+    public void setMessage(WorkloadMessage message) {
+        this.message = message;
+    }
+
+    public String getRawPayload() {
+        return rawPayload;
+    }
+
+    public void setRawPayload(String rawPayload) {
+        this.rawPayload = rawPayload;
+    }
+
+    public String getRawPayloadFormat() {
+        return rawPayloadFormat;
+    }
+
+    public void setRawPayloadFormat(String rawPayloadFormat) {
+        this.rawPayloadFormat = rawPayloadFormat;
+    }
+
+    public String getRawPayloadEncoding() {
+        return rawPayloadEncoding;
+    }
+
+    public void setRawPayloadEncoding(String rawPayloadEncoding) {
+        this.rawPayloadEncoding = rawPayloadEncoding;
+    }
+
+    public String getRedriveJobId() {
+        return redriveJobId;
+    }
+
+    public void setRedriveJobId(String redriveJobId) {
+        this.redriveJobId = redriveJobId;
+    }
+
+    public Instant getRedrivenAt() {
+        return redrivenAt;
+    }
+
+    public void setRedrivenAt(Instant redrivenAt) {
+        this.redrivenAt = redrivenAt;
+    }
+}
@@ -1,16 +1,22 @@
 package com.example.micro.document;
 
+import com.example.micro.messaging.WorkloadChangeEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "trainer_workloads")
 @CompoundIndexes({
-        @CompoundIndex(name = "fullname_idx", def = "{'firstName': 1, 'lastName': 1}")
+        @CompoundIndex(name = "fullname_idx", def = "{'firstName': 1, 'lastName': 1}"),
+        @CompoundIndex(name = "outbox_pending_idx", def = "{'outbox.sequence': 1}", sparse = true),
+        @CompoundIndex(name = "relay_lock_idx", def = "{'relayLockOwner': 1}", sparse = true)
 })
 public class TrainerWorkloadDocument {
 
@@ -21,6 +27,28 @@ public class TrainerWorkloadDocument {
     private boolean isActive;
     private List<YearSummary> years = new ArrayList<>();
 
+    // Change events not yet published by WorkloadOutboxRelay; written together with the
+    // workload itself so an update and its event are stored atomically
+    @JsonIgnore
+    private long outboxSequence;
+
+    @JsonIgnore
+    private List<WorkloadChangeEvent> outbox = new ArrayList<>();
+
+    // Lease of the WorkloadOutboxRelay instance publishing this outbox, so replicas do not
+    // send the same events concurrently; an expired lease can be claimed by another relay
+    @JsonIgnore
+    private String relayLockOwner;
+
+    @JsonIgnore
+    private Instant relayLockedUntil;
+
+    // Saves based on a stale read fail instead of reusing an outbox sequence. The relay leaves
+    // it alone, so its removals do not fail the versioned bulk replaces of WorkloadService
+    @Version
+    @JsonIgnore
+    private Long version;
+
     // Nested document for Year Summary
     public static class YearSummary {
         private int year;
@@ -117,4 +145,44 @@ public class TrainerWorkloadDocument {
     public void setYears(List<YearSummary> years) {
         this.years = years != null ? years : new ArrayList<>();
     }
-}
\ No newline at end of file
+
+    public long getOutboxSequence() {
+        return outboxSequence;
+    }
+
+    public void setOutboxSequence(long outboxSequence) {
+        this.outboxSequence = outboxSequence;
+    }
+
+    public List<WorkloadChangeEvent> getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(List<WorkloadChangeEvent> outbox) {
+        this.outbox = outbox != null ? outbox : new ArrayList<>();
+    }
+
+    public String getRelayLockOwner() {
+        return relayLockOwner;
+    }
+
+    public void setRelayLockOwner(String relayLockOwner) {
+        this.relayLockOwner = relayLockOwner;
+    }
+
+    public Instant getRelayLockedUntil() {
+        return relayLockedUntil;
+    }
+
+    public void setRelayLockedUntil(Instant relayLockedUntil) {
+        this.relayLockedUntil = relayLockedUntil;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
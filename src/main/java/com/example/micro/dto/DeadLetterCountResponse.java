@@ -0,0 +1,37 @@
+package com.example.micro.dto;
+
+/**
+ * Response object for one group of a dead-letter aggregate (reason, trainer or time bucket)
+ */
+public class DeadLetterCountResponse {
+
+    private String key;
+    private long count;
+
+    // No-argument constructor
+    public DeadLetterCountResponse() {
+    }
+
+    // All-args constructor
+    public DeadLetterCountResponse(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    // Getters and setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.micro.dto;
+
+import jakarta.validation.constraints.Positive;
+
+import java.time.Instant;
+
+/**
+ * Request object for redriving dead-lettered messages back to the workload queue.
+ * Null filters match all dead letters that have not been redriven yet.
+ */
+public class RedriveRequest {
+
+    private String reason;
+    private Instant from;
+    private Instant to;
+
+    @Positive(message = "Rate must be positive")
+    private Integer ratePerSecond;
+
+    // No-argument constructor
+    public RedriveRequest() {
+    }
+
+    // All-args constructor
+    public RedriveRequest(String reason, Instant from, Instant to, Integer ratePerSecond) {
+        this.reason = reason;
+        this.from = from;
+        this.to = to;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    // Getters and setters
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public Integer getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(Integer ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+}
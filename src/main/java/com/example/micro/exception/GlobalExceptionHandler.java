@@ -1,7 +1,9 @@
 package com.example.micro.exception;
 
+import com.example.micro.metrics.WorkloadMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -17,6 +19,13 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final WorkloadMetrics metrics;
+
+    @Autowired
+    public GlobalExceptionHandler(WorkloadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
         logger.error("Resource not found: {}", ex.getMessage());
@@ -67,6 +76,7 @@ public class GlobalExceptionHandler {
         });
 
         logger.error("Validation error: {}", errors);
+        metrics.validationFailed("api");
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
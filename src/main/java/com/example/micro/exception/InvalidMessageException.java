@@ -0,0 +1,15 @@
+package com.example.micro.exception;
+
+/**
+ * Exception thrown when a message can never be processed, whatever the number of retries
+ */
+public class InvalidMessageException extends RuntimeException {
+
+    public InvalidMessageException(String message) {
+        super(message);
+    }
+
+    public InvalidMessageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
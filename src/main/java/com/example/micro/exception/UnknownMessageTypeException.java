@@ -0,0 +1,11 @@
+package com.example.micro.exception;
+
+/**
+ * Exception thrown when a message has a type this service does not handle
+ */
+public class UnknownMessageTypeException extends InvalidMessageException {
+
+    public UnknownMessageTypeException(String message) {
+        super(message);
+    }
+}
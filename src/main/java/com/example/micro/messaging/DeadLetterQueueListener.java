@@ -1,41 +1,148 @@
 package com.example.micro.messaging;
 
 import com.example.micro.config.JmsConfig;
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.service.DeadLetterService;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 
 /**
  * Listener for messages that were sent to the Dead Letter Queue
- * due to processing errors.
+ * due to processing errors. Messages are stored in the dead_letters
+ * collection in batches, committed together with the JMS session.
+ * The batch is drained with receive(), so the listener runs on its own transacted
+ * polling container factory.
  */
 @Component
 public class DeadLetterQueueListener {
 
+    // rawPayloadEncoding of BytesMessage bodies
+    public static final String RAW_PAYLOAD_BASE64 = "base64";
+
     private static final Logger logger = LoggerFactory.getLogger(DeadLetterQueueListener.class);
 
-    @JmsListener(destination = JmsConfig.WORKLOAD_DLQ)
-    public void processDeadLetterMessage(
-            @Payload WorkloadMessage message,
-            @Header(name = "error.reason", defaultValue = "Unknown") String errorReason,
-            @Header(name = "original.transaction.id", defaultValue = "N/A") String originalTransactionId,
-            @Header(name = "error.timestamp", defaultValue = "0") String errorTimestamp) {
+    // Set by the broker when it moves a message to the DLQ after exhausting redeliveries
+    private static final String BROKER_FAILURE_CAUSE = "dlqDeliveryFailureCause";
+
+    private final DeadLetterService deadLetterService;
+    private final SessionBatchReceiver batchReceiver;
+    private final MessageConverter messageConverter;
+    private final IngestInFlightTracker inFlightTracker;
+
+    @Value("${workload.dlq.store.batch-size:50}")
+    private int batchSize;
+
+    @Value("${workload.dlq.store.batch-window-ms:250}")
+    private long batchWindowMs;
+
+    @Autowired
+    public DeadLetterQueueListener(DeadLetterService deadLetterService,
+                                   SessionBatchReceiver batchReceiver,
+                                   MessageConverter messageConverter,
+                                   IngestInFlightTracker inFlightTracker) {
+        this.deadLetterService = deadLetterService;
+        this.batchReceiver = batchReceiver;
+        this.messageConverter = messageConverter;
+        this.inFlightTracker = inFlightTracker;
+    }
+
+    @JmsListener(
+            destination = JmsConfig.WORKLOAD_DLQ,
+            containerFactory = "deadLetterListenerContainerFactory"
+    )
+    public void processDeadLetterMessage(Message jmsMessage, Session session) throws JMSException {
+        List<Message> messages = new ArrayList<>();
+        messages.add(jmsMessage);
+
+        // In flight until the container commits, so a shutdown drain waits for the insert
+        inFlightTracker.batchStarted();
+        try {
+            List<Message> drained = batchReceiver.receiveMore(session, JmsConfig.WORKLOAD_DLQ,
+                    batchSize - 1, batchWindowMs);
+            messages.addAll(drained);
+            inFlightTracker.messagesAdded(drained.size());
+            storeBatch(messages);
+        } finally {
+            inFlightTracker.batchFinished(messages.size());
+        }
+    }
+
+    private void storeBatch(List<Message> messages) throws JMSException {
+        List<DeadLetterDocument> deadLetters = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            deadLetters.add(toDeadLetter(message));
+        }
+
+        // A failed insert rolls back the whole batch so it is redelivered
+        deadLetterService.saveBatch(deadLetters);
+        logger.info("Stored {} Dead Letter Queue messages", deadLetters.size());
+    }
+
+    private DeadLetterDocument toDeadLetter(Message jmsMessage) throws JMSException {
+        String errorReason = jmsMessage.getStringProperty("error.reason");
+        if (errorReason == null) {
+            errorReason = jmsMessage.getStringProperty(BROKER_FAILURE_CAUSE);
+        }
+        if (errorReason == null) {
+            errorReason = "Unknown";
+        }
+
+        String originalTransactionId = jmsMessage.getStringProperty("original.transaction.id");
+        String errorTimestamp = jmsMessage.getStringProperty("error.timestamp");
+
+        DeadLetterDocument deadLetter = new DeadLetterDocument();
+        deadLetter.setJmsMessageId(jmsMessage.getJMSMessageID());
+        deadLetter.setErrorCode(jmsMessage.getStringProperty("error.code"));
+        deadLetter.setErrorReason(errorReason);
+        deadLetter.setReceivedAt(Instant.now());
+
+        try {
+            WorkloadMessage message = (WorkloadMessage) messageConverter.fromMessage(jmsMessage);
+            deadLetter.setMessage(message);
+            deadLetter.setUsername(message.getUsername());
+            deadLetter.setYear(message.getYear());
+            deadLetter.setMonth(message.getMonth());
+            if (message.getMessageType() != null) {
+                deadLetter.setMessageType(message.getMessageType().name());
+            }
+            if (originalTransactionId == null) {
+                originalTransactionId = message.getTransactionId();
+            }
+            logger.warn("Processing Dead Letter Queue message: {}", message);
+        } catch (Exception e) {
+            // Keep the raw body so unreadable messages can still be inspected
+            logger.warn("Could not convert Dead Letter Queue message {}: {}",
+                    jmsMessage.getJMSMessageID(), e.getMessage());
+            keepRawPayload(jmsMessage, deadLetter);
+        }
+
+        deadLetter.setOriginalTransactionId(originalTransactionId);
 
-        logger.warn("Processing Dead Letter Queue message: {}", message);
         logger.warn("Error reason: {}", errorReason);
         logger.warn("Original transaction ID: {}", originalTransactionId);
 
         // Convert timestamp to readable format if available
-        if (!"0".equals(errorTimestamp)) {
+        if (errorTimestamp != null) {
             try {
                 long timestamp = Long.parseLong(errorTimestamp);
+                deadLetter.setErrorTimestamp(Instant.ofEpochMilli(timestamp));
                 LocalDateTime dateTime = LocalDateTime.ofInstant(
                         Instant.ofEpochMilli(timestamp),
                         ZoneId.systemDefault());
@@ -45,10 +152,26 @@ public class DeadLetterQueueListener {
             }
         }
 
-        // Additional processing could include:
-        // 1. Storing the error in a database for analysis
-        // 2. Sending notifications to administrators
-        // 3. Implementing a retry mechanism for specific errors
-        // 4. Forwarding to a specialized error handler service
+        return deadLetter;
+    }
+
+    /**
+     * Stores the body of a message that could not be converted: text as is, Smile and
+     * other binary bodies Base64-encoded, together with the content.format property
+     */
+    private void keepRawPayload(Message jmsMessage, DeadLetterDocument deadLetter) throws JMSException {
+        if (jmsMessage instanceof TextMessage textMessage) {
+            deadLetter.setRawPayload(textMessage.getText());
+        } else if (jmsMessage instanceof BytesMessage bytesMessage) {
+            // The failed conversion may already have read part of the body
+            bytesMessage.reset();
+            byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(body);
+            deadLetter.setRawPayload(Base64.getEncoder().encodeToString(body));
+            deadLetter.setRawPayloadEncoding(RAW_PAYLOAD_BASE64);
+        } else {
+            return;
+        }
+        deadLetter.setRawPayloadFormat(jmsMessage.getStringProperty(WorkloadMessageConverter.FORMAT_PROPERTY));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.example.micro.messaging;
+
+import com.example.micro.service.WorkloadService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses the JMS listener containers while the WorkloadService circuit breaker
+ * is open (too many failed or slow MongoDB calls) and resumes them gradually,
+ * one consumer at a time, once the breaker lets calls through again.
+ * With the store-and-forward journal enabled, messages are parked instead during an
+ * outage, and the containers are paused while IngestJournalReplayer drains the journal.
+ */
+@Component
+public class IngestBackpressureController {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestBackpressureController.class);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final JmsListenerEndpointRegistry endpointRegistry;
+
+    @Value("${workload.ingest.backpressure.enabled:true}")
+    private boolean enabled;
+
+    // The journal parks messages during outages, so the breaker does not pause consumption
+    @Value("${workload.ingest.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${workload.ingest.backpressure.ramp-up-interval-ms:5000}")
+    private long rampUpIntervalMs;
+
+    // Consumer limits the containers were configured with, captured on first pause
+    private final Map<DefaultMessageListenerContainer, int[]> configuredConcurrency = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ingest-backpressure");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledFuture<?> rampUpTask;
+    private volatile boolean paused;
+    private volatile boolean disabled;
+    private volatile boolean pausedForReplay;
+
+    @Autowired
+    public IngestBackpressureController(CircuitBreakerRegistry circuitBreakerRegistry,
+                                        JmsListenerEndpointRegistry endpointRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.endpointRegistry = endpointRegistry;
+    }
+
+    @PostConstruct
+    public void registerStateListener() {
+        if (!enabled) {
+            logger.info("Ingest backpressure is disabled");
+            return;
+        }
+        if (journalEnabled) {
+            logger.info("Ingest backpressure follows journal replay while the store-and-forward journal is enabled");
+            return;
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER);
+        circuitBreaker.getEventPublisher().onStateTransition(this::onStateTransition);
+        logger.info("Ingest backpressure attached to circuit breaker: {}", circuitBreaker.getName());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void onStateTransition(CircuitBreakerOnStateTransitionEvent event) {
+        CircuitBreaker.State toState = event.getStateTransition().getToState();
+        logger.info("Circuit breaker {} transitioned: {}", event.getCircuitBreakerName(), event.getStateTransition());
+
+        switch (toState) {
+            case OPEN:
+            case FORCED_OPEN:
+                pause();
+                break;
+            case HALF_OPEN:
+            case CLOSED:
+                resume();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Stops every listener container so no further messages are pulled from the broker.
+     */
+    public synchronized void pause() {
+        stopContainers();
+        logger.warn("Ingest paused: MongoDB is failing or slow");
+    }
+
+    /**
+     * Stops consumption while parked messages are replayed, so new messages wait on the
+     * broker instead of parking behind the backlog and keeping the journal from emptying
+     */
+    public synchronized void pauseForReplay() {
+        if (!enabled || disabled || paused) {
+            return;
+        }
+        stopContainers();
+        pausedForReplay = true;
+        logger.warn("Ingest paused while parked messages are replayed");
+    }
+
+    /**
+     * Resumes consumption paused by pauseForReplay once the journal is empty
+     */
+    public synchronized void replayFinished() {
+        if (pausedForReplay) {
+            pausedForReplay = false;
+            resume();
+        }
+    }
+
+    private void stopContainers() {
+        cancelRampUp();
+
+        for (MessageListenerContainer container : endpointRegistry.getListenerContainers()) {
+            if (container instanceof DefaultMessageListenerContainer dmlc) {
+                configuredConcurrency.computeIfAbsent(dmlc, c ->
+                        new int[]{c.getConcurrentConsumers(), c.getMaxConcurrentConsumers()});
+            }
+            if (container.isRunning()) {
+                container.stop();
+            }
+        }
+
+        paused = true;
+    }
+
+    /**
+     * Restarts the listener containers with a single consumer and adds one consumer
+     * per ramp-up interval until the configured concurrency is reached again.
+     */
+    public synchronized void resume() {
+        if (!paused || disabled) {
+            return;
+        }
+
+        for (MessageListenerContainer container : endpointRegistry.getListenerContainers()) {
+            if (container instanceof DefaultMessageListenerContainer dmlc) {
+                dmlc.setConcurrentConsumers(1);
+                dmlc.setMaxConcurrentConsumers(1);
+            }
+            if (!container.isRunning()) {
+                container.start();
+            }
+        }
+
+        paused = false;
+        logger.info("Ingest resumed with a single consumer per container");
+
+        cancelRampUp();
+        rampUpTask = scheduler.scheduleWithFixedDelay(
+                this::rampUp, rampUpIntervalMs, rampUpIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops reacting to the circuit breaker, so containers stopped for shutdown stay stopped
+     */
+    public synchronized void disable() {
+        disabled = true;
+        cancelRampUp();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    synchronized void rampUp() {
+        if (paused) {
+            cancelRampUp();
+            return;
+        }
+
+        boolean fullyRestored = true;
+        for (Map.Entry<DefaultMessageListenerContainer, int[]> entry : configuredConcurrency.entrySet()) {
+            DefaultMessageListenerContainer container = entry.getKey();
+            int targetConsumers = entry.getValue()[0];
+            int targetMaxConsumers = entry.getValue()[1];
+
+            int maxConsumers = Math.min(container.getMaxConcurrentConsumers() + 1, targetMaxConsumers);
+            container.setMaxConcurrentConsumers(maxConsumers);
+            container.setConcurrentConsumers(Math.min(maxConsumers, targetConsumers));
+
+            if (maxConsumers < targetMaxConsumers) {
+                fullyRestored = false;
+            }
+        }
+
+        if (fullyRestored) {
+            logger.info("Ingest concurrency fully restored");
+            cancelRampUp();
+        }
+    }
+
+    private void cancelRampUp() {
+        if (rampUpTask != null) {
+            rampUpTask.cancel(false);
+            rampUpTask = null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.micro.messaging;
+
+import com.example.micro.config.JmsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.serviceregistry.EurekaAutoServiceRegistration;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shuts ingest down without rolling back in-flight JMS transactions:
+ * 1. stops the listener containers, so no further messages are received,
+ * 2. waits up to drain-timeout-ms for in-flight batches to be written and committed,
+ * 3. flushes the pending outbox events,
+ * 4. deregisters the instance from Eureka.
+ * Runs in the phase just above JmsConfig.LISTENER_CONTAINER_PHASE, so it stops before the
+ * JmsListenerEndpointRegistry stops the containers, and before the web server shuts down.
+ */
+@Component
+public class IngestDrainCoordinator implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestDrainCoordinator.class);
+
+    public enum State {
+        RUNNING,
+        DRAINING,
+        DRAINED,
+        // The deadline passed with batches still in flight; they roll back and are redelivered
+        DRAIN_TIMED_OUT
+    }
+
+    private final JmsListenerEndpointRegistry endpointRegistry;
+    private final IngestInFlightTracker inFlightTracker;
+    private final IngestBackpressureController backpressureController;
+    private final ObjectProvider<WorkloadOutboxRelay> outboxRelay;
+    private final ObjectProvider<EurekaAutoServiceRegistration> eurekaRegistration;
+
+    @Value("${workload.shutdown.drain-timeout-ms:20000}")
+    private long drainTimeoutMs;
+
+    @Value("${workload.shutdown.outbox-flush-timeout-ms:5000}")
+    private long outboxFlushTimeoutMs;
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean running;
+
+    @Autowired
+    public IngestDrainCoordinator(JmsListenerEndpointRegistry endpointRegistry,
+                                  IngestInFlightTracker inFlightTracker,
+                                  IngestBackpressureController backpressureController,
+                                  ObjectProvider<WorkloadOutboxRelay> outboxRelay,
+                                  ObjectProvider<EurekaAutoServiceRegistration> eurekaRegistration) {
+        this.endpointRegistry = endpointRegistry;
+        this.inFlightTracker = inFlightTracker;
+        this.backpressureController = backpressureController;
+        this.outboxRelay = outboxRelay;
+        this.eurekaRegistration = eurekaRegistration;
+    }
+
+    @Override
+    public void start() {
+        state = State.RUNNING;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        drain();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return JmsConfig.LISTENER_CONTAINER_PHASE + 1;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    void drain() {
+        state = State.DRAINING;
+        long start = System.currentTimeMillis();
+        logger.info("Draining ingest: {} batch(es), {} message(s) in flight",
+                inFlightTracker.getInFlightBatches(), inFlightTracker.getInFlightMessages());
+
+        // Stop consumption; the backpressure controller must not restart the containers
+        backpressureController.disable();
+        for (MessageListenerContainer container : endpointRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+            }
+        }
+
+        boolean drained;
+        try {
+            drained = inFlightTracker.awaitIdle(drainTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drained = false;
+        }
+
+        if (drained) {
+            state = State.DRAINED;
+            logger.info("In-flight batches committed after {} ms", System.currentTimeMillis() - start);
+        } else {
+            state = State.DRAIN_TIMED_OUT;
+            logger.warn("Drain timed out after {} ms with {} batch(es) still in flight; they will be redelivered",
+                    drainTimeoutMs, inFlightTracker.getInFlightBatches());
+        }
+
+        WorkloadOutboxRelay relay = outboxRelay.getIfAvailable();
+        if (relay != null) {
+            relay.flush(outboxFlushTimeoutMs);
+        }
+
+        EurekaAutoServiceRegistration registration = eurekaRegistration.getIfAvailable();
+        if (registration != null && registration.isRunning()) {
+            registration.stop();
+            logger.info("Deregistered from Eureka");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.micro.messaging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/ingestinflight) showing the in-flight ingest work
+ * and the shutdown drain state.
+ */
+@Component
+@Endpoint(id = "ingestinflight")
+public class IngestInFlightEndpoint {
+
+    private final IngestInFlightTracker inFlightTracker;
+    private final IngestLaneScheduler laneScheduler;
+    private final IngestDrainCoordinator drainCoordinator;
+
+    @Autowired
+    public IngestInFlightEndpoint(IngestInFlightTracker inFlightTracker,
+                                  IngestLaneScheduler laneScheduler,
+                                  IngestDrainCoordinator drainCoordinator) {
+        this.inFlightTracker = inFlightTracker;
+        this.laneScheduler = laneScheduler;
+        this.drainCoordinator = drainCoordinator;
+    }
+
+    @ReadOperation
+    public Map<String, Object> inFlight() {
+        Map<String, Object> inFlight = new LinkedHashMap<>();
+        inFlight.put("state", drainCoordinator.getState());
+        inFlight.put("batches", inFlightTracker.getInFlightBatches());
+        inFlight.put("messages", inFlightTracker.getInFlightMessages());
+        inFlight.put("liveBatches", laneScheduler.getLiveInFlight());
+        return inFlight;
+    }
+}
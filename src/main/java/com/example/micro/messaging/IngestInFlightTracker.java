@@ -0,0 +1,81 @@
+package com.example.micro.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the JMS listener invocations (batches) and messages currently being processed
+ * on both ingest lanes and the Dead Letter Queue listener. A batch stays in flight until
+ * its transaction commits or rolls back.
+ */
+@Component
+public class IngestInFlightTracker {
+
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+    private final Object idle = new Object();
+
+    @Autowired
+    public IngestInFlightTracker(MeterRegistry meterRegistry) {
+        Gauge.builder("workload.ingest.in.flight.batches", batches, AtomicInteger::get)
+                .description("JMS listener invocations currently being processed")
+                .register(meterRegistry);
+        Gauge.builder("workload.ingest.in.flight.messages", messages, AtomicInteger::get)
+                .description("Received messages whose transaction has not completed yet")
+                .register(meterRegistry);
+    }
+
+    public void batchStarted() {
+        batches.incrementAndGet();
+        messages.incrementAndGet();
+    }
+
+    /**
+     * Adds messages drained into the current batch after it started
+     */
+    public void messagesAdded(int count) {
+        messages.addAndGet(count);
+    }
+
+    public void batchFinished(int messageCount) {
+        messages.addAndGet(-messageCount);
+        if (batches.decrementAndGet() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    public int getInFlightBatches() {
+        return batches.get();
+    }
+
+    public int getInFlightMessages() {
+        return messages.get();
+    }
+
+    /**
+     * Waits until no batch is in flight
+     *
+     * @return false if batches were still in flight when the timeout elapsed
+     */
+    public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (idle) {
+            long remaining;
+            while (batches.get() > 0) {
+                remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.micro.messaging;
+
+import com.example.micro.exception.MessageProcessingException;
+import jakarta.jms.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A message travelling through the staged ingest pipeline. The listener that
+ * submitted it waits on its result before committing the JMS session.
+ */
+public class IngestItem {
+
+    public enum Status {
+        WRITTEN,
+        // A newer message for the same trainer-month was written instead
+        SUPERSEDED,
+        // A DELETE for a workload that no longer exists
+        NOT_FOUND,
+        FAILED_PERMANENTLY
+    }
+
+    private final long sequence;
+    private final Message jmsMessage;
+    private final CompletableFuture<Status> result = new CompletableFuture<>();
+    private final List<IngestItem> superseded = new ArrayList<>();
+
+    // Taken by the write stage before writing, or by cancel; whichever comes first wins
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private volatile WorkloadMessage message;
+    private volatile MessageFailureClassifier.FailureReason failureReason;
+    private volatile String failureDescription;
+
+    // When the item was put into the ring buffer of its current stage
+    private volatile long enqueuedNanos;
+
+    public IngestItem(long sequence, Message jmsMessage) {
+        this.sequence = sequence;
+        this.jmsMessage = jmsMessage;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Message getJmsMessage() {
+        return jmsMessage;
+    }
+
+    public CompletableFuture<Status> getResult() {
+        return result;
+    }
+
+    public WorkloadMessage getMessage() {
+        return message;
+    }
+
+    public void setMessage(WorkloadMessage message) {
+        this.message = message;
+    }
+
+    public MessageFailureClassifier.FailureReason getFailureReason() {
+        return failureReason;
+    }
+
+    public String getFailureDescription() {
+        return failureDescription;
+    }
+
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    public void setEnqueuedNanos(long enqueuedNanos) {
+        this.enqueuedNanos = enqueuedNanos;
+    }
+
+    List<IngestItem> getSuperseded() {
+        return superseded;
+    }
+
+    /**
+     * Stops this item from being written, if the write stage has not taken it yet. The
+     * listener cancels items it stops waiting for, so nothing is written after a rollback.
+     *
+     * @return false if the item is being or has been written; wait on its result instead
+     */
+    public boolean cancel() {
+        if (!claimed.compareAndSet(false, true)) {
+            return false;
+        }
+        result.cancel(false);
+        return true;
+    }
+
+    /**
+     * @return false if the item was cancelled and must not be written
+     */
+    boolean claimForWrite() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    /**
+     * Completes this item and every item it superseded
+     */
+    void complete(Status status) {
+        result.complete(status);
+        for (IngestItem item : superseded) {
+            item.result.complete(Status.SUPERSEDED);
+        }
+    }
+
+    void failPermanently(MessageFailureClassifier.FailureReason reason, String description) {
+        this.failureReason = reason;
+        this.failureDescription = description;
+        result.complete(Status.FAILED_PERMANENTLY);
+
+        // The superseded messages were not written either; retry them on their own
+        for (IngestItem item : superseded) {
+            item.result.completeExceptionally(new MessageProcessingException(
+                    "Superseding message failed permanently: " + description));
+        }
+    }
+
+    /**
+     * Fails this item and every item it superseded, so all of them are retried
+     */
+    void failTransiently(Throwable failure) {
+        result.completeExceptionally(failure);
+        for (IngestItem item : superseded) {
+            item.result.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.micro.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal where workload messages are parked while MongoDB is
+ * unavailable, so they can be acknowledged to the broker instead of being redelivered
+ * into the Dead Letter Queue. IngestJournalReplayer writes them to MongoDB in order
+ * once the circuit breaker lets calls through again.
+ *
+ * The journal is one memory-mapped file used as a ring buffer:
+ * [long replay position] followed by records of [int length][int crc32][Smile payload],
+ * terminated by a zero length. When a record does not fit before the end of the file, a
+ * wrap marker (length -1) sends the writer back to the start, into the space already
+ * replayed, so the journal keeps taking messages while older ones are being replayed.
+ * Every append and every replay step is forced to disk. Records after a torn write fail
+ * the CRC check and are dropped on startup.
+ */
+@Component
+public class IngestJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestJournal.class);
+
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int WRAP = -1;
+
+    private final ObjectMapper smileMapper = PayloadMappers.smile();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${workload.ingest.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${workload.ingest.journal.directory:./data/ingest-journal}")
+    private String directory;
+
+    @Value("${workload.ingest.journal.size-mb:64}")
+    private int sizeMb;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long replayPosition;
+    private long writePosition;
+    private int pending;
+
+    @Autowired
+    public IngestJournal(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            logger.info("Store-and-forward ingest journal is disabled");
+            return;
+        }
+
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            channel = FileChannel.open(dir.resolve("ingest.journal"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) sizeMb * 1024 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ingest journal in " + directory, e);
+        }
+
+        recover();
+
+        Gauge.builder("workload.ingest.journal.pending", this, IngestJournal::getPending)
+                .description("Messages parked in the local journal waiting for replay")
+                .register(meterRegistry);
+        Gauge.builder("workload.ingest.journal.used.bytes", this, journal -> journal.getUsedBytes())
+                .description("Bytes used in the local journal file")
+                .register(meterRegistry);
+        logger.info("Ingest journal opened in {} ({} MB), {} message(s) pending replay",
+                directory, sizeMb, pending);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isEmpty() {
+        return pending == 0;
+    }
+
+    public synchronized int getPending() {
+        return pending;
+    }
+
+    public synchronized long getUsedBytes() {
+        if (writePosition >= replayPosition) {
+            return writePosition - replayPosition;
+        }
+        return buffer.capacity() - replayPosition + writePosition - HEADER_SIZE;
+    }
+
+    /**
+     * Appends a message and forces it to disk
+     *
+     * @return false if the journal is full
+     */
+    public synchronized boolean append(WorkloadMessage message) {
+        byte[] payload;
+        try {
+            payload = smileMapper.writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize message for the ingest journal", e);
+        }
+
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        boolean wrapped = writePosition < replayPosition;
+        // Room for the record and the terminator after it, short of the oldest pending record
+        long limit = wrapped ? replayPosition : buffer.capacity();
+
+        if (writePosition + recordSize + Integer.BYTES <= limit) {
+            writeRecord((int) writePosition, payload);
+            writePosition += recordSize;
+        } else if (!wrapped && HEADER_SIZE + recordSize + Integer.BYTES <= replayPosition) {
+            writeRecord(HEADER_SIZE, payload);
+            buffer.force();
+            // Written last, so until it is on disk the journal still ends where it did
+            buffer.putInt((int) writePosition, WRAP);
+            writePosition = HEADER_SIZE + recordSize;
+        } else {
+            logger.error("Ingest journal is full ({} MB), cannot park message {}", sizeMb, message.getTransactionId());
+            return false;
+        }
+        buffer.force();
+
+        pending++;
+        return true;
+    }
+
+    /**
+     * @return The oldest message not yet replayed, or null if there is none
+     */
+    public synchronized WorkloadMessage peek() {
+        if (pending == 0) {
+            return null;
+        }
+        byte[] payload = readPayload(replayPosition);
+        try {
+            return smileMapper.readValue(payload, WorkloadMessage.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt ingest journal record at " + replayPosition, e);
+        }
+    }
+
+    /**
+     * Marks the oldest message as replayed, freeing its space for new messages. Once
+     * everything is replayed the file is reused from the start.
+     */
+    public synchronized void advance() {
+        if (pending == 0) {
+            return;
+        }
+        replayPosition += RECORD_HEADER_SIZE + buffer.getInt((int) replayPosition);
+        pending--;
+
+        if (pending == 0) {
+            replayPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+            buffer.putInt(HEADER_SIZE, 0);
+        } else if (buffer.getInt((int) replayPosition) == WRAP) {
+            replayPosition = HEADER_SIZE;
+        }
+        buffer.putLong(0, replayPosition);
+        buffer.force();
+    }
+
+    private void recover() {
+        replayPosition = buffer.getLong(0);
+        if (replayPosition < HEADER_SIZE || replayPosition >= buffer.capacity()) {
+            replayPosition = HEADER_SIZE;
+        }
+
+        long position = replayPosition;
+        long limit = buffer.capacity();
+        pending = 0;
+        while (position + Integer.BYTES <= limit) {
+            int length = buffer.getInt((int) position);
+            if (length == WRAP && limit == buffer.capacity()) {
+                // The rest of the journal is at the start of the file, up to the replay position
+                position = HEADER_SIZE;
+                limit = replayPosition;
+                continue;
+            }
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > limit) {
+                break;
+            }
+            if (buffer.getInt((int) position + Integer.BYTES) != crc(readPayload(position))) {
+                logger.warn("Dropping torn ingest journal record at offset {}", position);
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+            pending++;
+        }
+        writePosition = position;
+        if (writePosition + Integer.BYTES <= limit) {
+            buffer.putInt((int) writePosition, 0);
+        }
+    }
+
+    private void writeRecord(int position, byte[] payload) {
+        buffer.putInt(position + RECORD_HEADER_SIZE + payload.length, 0);
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position + Integer.BYTES, crc(payload));
+        // Written last, so a torn record reads as the end of the journal
+        buffer.putInt(position, payload.length);
+    }
+
+    private byte[] readPayload(long position) {
+        int length = buffer.getInt((int) position);
+        byte[] payload = new byte[length];
+        buffer.get((int) position + RECORD_HEADER_SIZE, payload);
+        return payload;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.micro.messaging;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.metrics.WorkloadMetrics;
+import com.example.micro.service.WorkloadIngestPipeline;
+import com.example.micro.service.WorkloadService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the messages parked in the ingest journal to MongoDB in the order they were
+ * parked, once the WorkloadService circuit breaker is no longer open.
+ * Stops at the first transient failure and retries on the next run, so a message is
+ * only removed from the journal after it has been written, or sent to the Dead Letter
+ * Queue if it can never be written. The listener containers stay paused until the
+ * journal is empty, so new messages do not keep parking behind the backlog.
+ */
+@Component
+public class IngestJournalReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestJournalReplayer.class);
+
+    private final IngestJournal journal;
+    private final WorkloadIngestPipeline ingestPipeline;
+    private final MessageFailureClassifier failureClassifier;
+    private final CircuitBreaker circuitBreaker;
+    private final IngestBackpressureController backpressure;
+    private final JmsTemplate jmsTemplate;
+    private final WorkloadMetrics metrics;
+
+    @Value("${workload.ingest.journal.replay-interval-ms:1000}")
+    private long replayIntervalMs;
+
+    // A single replay thread keeps the journal order
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ingest-journal-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public IngestJournalReplayer(IngestJournal journal,
+                                 WorkloadIngestPipeline ingestPipeline,
+                                 MessageFailureClassifier failureClassifier,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 IngestBackpressureController backpressure,
+                                 JmsTemplate jmsTemplate,
+                                 WorkloadMetrics metrics) {
+        this.journal = journal;
+        this.ingestPipeline = ingestPipeline;
+        this.failureClassifier = failureClassifier;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER);
+        this.backpressure = backpressure;
+        this.jmsTemplate = jmsTemplate;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::replayPending, replayIntervalMs, replayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void replayPending() {
+        try {
+            int replayed = replay();
+            if (replayed > 0) {
+                logger.info("Replayed {} parked message(s) from the ingest journal, {} remaining",
+                        replayed, journal.getPending());
+            }
+        } catch (Exception e) {
+            logger.warn("Ingest journal replay stopped, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes parked messages until the journal is empty or a write fails transiently
+     *
+     * @return The number of messages removed from the journal
+     */
+    public int replay() {
+        if (!isMongoAvailable() || journal.isEmpty()) {
+            return 0;
+        }
+        backpressure.pauseForReplay();
+
+        int replayed = 0;
+
+        while (!Thread.currentThread().isInterrupted() && isMongoAvailable()) {
+            WorkloadMessage message = journal.peek();
+            if (message == null) {
+                break;
+            }
+
+            MDC.put("transactionId", message.getTransactionId());
+            try {
+                circuitBreaker.executeRunnable(() -> ingestPipeline.ingest(message));
+            } catch (ResourceNotFoundException e) {
+                logger.warn("Resource not found while replaying message: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                MessageFailureClassifier.FailureReason reason = failureClassifier.classify(e);
+                if (!reason.isPermanent()) {
+                    throw e;
+                }
+                logger.error("Permanent {} failure replaying parked message, not retrying: {}", reason, e.getMessage());
+                sendToDeadLetterQueue(message, reason, e.getMessage());
+            } finally {
+                MDC.clear();
+            }
+
+            journal.advance();
+            replayed++;
+        }
+
+        if (journal.isEmpty()) {
+            backpressure.replayFinished();
+        }
+        return replayed;
+    }
+
+    /**
+     * Sends a parked message that can never be written to the Dead Letter Queue, with the
+     * same error properties the listener sets. If the send fails the message stays parked.
+     */
+    private void sendToDeadLetterQueue(WorkloadMessage message, MessageFailureClassifier.FailureReason reason,
+                                       String description) {
+        jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_DLQ, message, deadLetter -> {
+            if (message.getTransactionId() != null) {
+                deadLetter.setStringProperty("original.transaction.id", message.getTransactionId());
+            }
+            deadLetter.setStringProperty("error.code", reason.name());
+            deadLetter.setStringProperty("error.reason", description);
+            deadLetter.setStringProperty("error.timestamp", String.valueOf(System.currentTimeMillis()));
+            return deadLetter;
+        });
+        metrics.deadLettered(reason.name());
+        logger.info("Parked message {} sent to Dead Letter Queue (DLQ)", message.getTransactionId());
+    }
+
+    private boolean isMongoAvailable() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+}
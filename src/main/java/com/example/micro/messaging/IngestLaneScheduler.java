@@ -0,0 +1,125 @@
+package com.example.micro.messaging;
+
+import com.example.micro.exception.MessageProcessingException;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives the live ingest lane (workload-queue) priority over the backfill lane
+ * (workload-backfill-queue) for MongoDB capacity.
+ * A backfill message waits while live messages are in flight, at most max-yield-ms, so
+ * under constant live load backfill still advances at roughly one message per consumer
+ * per max-yield-ms. Backfill is additionally capped at max-rate-per-second, counting every
+ * message a backfill consumer drains into its batch.
+ */
+@Component
+public class IngestLaneScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestLaneScheduler.class);
+
+    private final AtomicInteger liveInFlight = new AtomicInteger();
+    private final Object liveIdle = new Object();
+    private final Timer yieldTimer;
+
+    @Value("${workload.ingest.backfill.max-yield-ms:500}")
+    private long maxYieldMs;
+
+    // 0 disables the cap
+    @Value("${workload.ingest.backfill.max-rate-per-second:50}")
+    private int maxRatePerSecond;
+
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    public IngestLaneScheduler(MeterRegistry meterRegistry) {
+        Gauge.builder("workload.ingest.live.in.flight", liveInFlight, AtomicInteger::get)
+                .description("Live lane messages currently being processed")
+                .register(meterRegistry);
+        this.yieldTimer = Timer.builder("workload.ingest.backfill.yield")
+                .description("Time backfill messages waited for the live lane")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (maxRatePerSecond > 0) {
+            rateLimiter = RateLimiter.of("ingest-backfill", RateLimiterConfig.custom()
+                    .limitForPeriod(maxRatePerSecond)
+                    .limitRefreshPeriod(Duration.ofSeconds(1))
+                    .timeoutDuration(Duration.ofSeconds(1))
+                    .build());
+        }
+        logger.info("Backfill lane: max yield {} ms, max rate {}/s", maxYieldMs,
+                maxRatePerSecond > 0 ? maxRatePerSecond : "unlimited");
+    }
+
+    public void liveStarted() {
+        liveInFlight.incrementAndGet();
+    }
+
+    public void liveFinished() {
+        if (liveInFlight.decrementAndGet() == 0) {
+            synchronized (liveIdle) {
+                liveIdle.notifyAll();
+            }
+        }
+    }
+
+    public int getLiveInFlight() {
+        return liveInFlight.get();
+    }
+
+    /**
+     * Blocks a backfill consumer until the live lane is idle (or max-yield-ms has passed)
+     * and the backfill rate allows another message
+     */
+    public void awaitBackfillTurn() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxYieldMs);
+
+        try {
+            synchronized (liveIdle) {
+                long remaining;
+                while (liveInFlight.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(liveIdle, remaining);
+                }
+            }
+
+            awaitBackfillPermits(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageProcessingException("Interrupted waiting for the backfill lane", e);
+        } finally {
+            yieldTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Blocks until the backfill rate allows the given number of further messages, e.g.
+     * the messages a backfill consumer drained into its batch
+     */
+    public void awaitBackfillPermits(int messages) {
+        int remaining = messages;
+        while (rateLimiter != null && remaining > 0) {
+            // A single request for more permits than one period grants would never succeed
+            int permits = Math.min(remaining, maxRatePerSecond);
+            while (!rateLimiter.acquirePermission(permits)) {
+                logger.debug("Backfill lane at its rate limit, waiting");
+            }
+            remaining -= permits;
+        }
+    }
+}
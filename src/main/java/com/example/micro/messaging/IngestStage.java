@@ -0,0 +1,187 @@
+package com.example.micro.messaging;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * One stage of the staged ingest pipeline: a set of ring buffers (partitions), each drained
+ * by its own worker threads in batches of up to maxBatch items.
+ * Items with the same partition key always land in the same partition, which keeps them in order
+ * when a partition has a single worker.
+ * Publishes per-stage occupancy, capacity, wait time, processing time and batch size metrics,
+ * all tagged with the stage name.
+ */
+public class IngestStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestStage.class);
+
+    // Idle workers back off from spinning to parking up to this long
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final List<IngestRingBuffer<IngestItem>> partitions = new ArrayList<>();
+    private final int threadsPerPartition;
+    private final int maxBatch;
+    private final Consumer<List<IngestItem>> handler;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer waitTimer;
+    private final Timer processTimer;
+    private final DistributionSummary batchSize;
+
+    private volatile boolean running;
+
+    /**
+     * @param name Stage name, used for thread names and the stage metric tag
+     * @param partitionCount Number of ring buffers
+     * @param threadsPerPartition Worker threads draining each ring buffer
+     * @param capacity Slots per ring buffer
+     * @param maxBatch Maximum items handed to the handler at once
+     * @param handler Processes a batch of items; must not throw
+     */
+    public IngestStage(String name, int partitionCount, int threadsPerPartition, int capacity, int maxBatch,
+                       Consumer<List<IngestItem>> handler, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.threadsPerPartition = threadsPerPartition;
+        this.maxBatch = maxBatch;
+        this.handler = handler;
+
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new IngestRingBuffer<>(capacity));
+        }
+
+        Gauge.builder("workload.ingest.stage.occupancy", this, IngestStage::occupancy)
+                .description("Items waiting in the stage's ring buffers")
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("workload.ingest.stage.capacity", this, IngestStage::capacity)
+                .description("Total slots of the stage's ring buffers")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("workload.ingest.stage.wait")
+                .description("Time items spend in the stage's ring buffer")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("workload.ingest.stage.process")
+                .description("Time the stage spends handling one batch")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("workload.ingest.stage.batch.size")
+                .description("Items handled per batch")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        for (int p = 0; p < partitions.size(); p++) {
+            for (int t = 0; t < threadsPerPartition; t++) {
+                IngestRingBuffer<IngestItem> ring = partitions.get(p);
+                String threadName = "ingest-" + name + "-" + p + "-" + t;
+                Thread worker = new Thread(() -> work(ring), threadName);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+        logger.info("Started ingest stage {} with {} partition(s) x {} thread(s)",
+                name, partitions.size(), threadsPerPartition);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Puts an item into the partition for its key, waiting while that ring buffer is full.
+     * Blocking here is the pipeline's backpressure towards the JMS listener.
+     */
+    public void put(IngestItem item, int partitionKey) {
+        IngestRingBuffer<IngestItem> ring = partitions.get(Math.floorMod(partitionKey, partitions.size()));
+        item.setEnqueuedNanos(System.nanoTime());
+
+        long parkNanos = 1_000;
+        while (!ring.offer(item)) {
+            if (!running) {
+                throw new IllegalStateException("Ingest stage " + name + " is not running");
+            }
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+    }
+
+    public void put(IngestItem item) {
+        put(item, 0);
+    }
+
+    private void work(IngestRingBuffer<IngestItem> ring) {
+        List<IngestItem> batch = new ArrayList<>(maxBatch);
+        int idleRounds = 0;
+
+        while (running) {
+            IngestItem item;
+            while (batch.size() < maxBatch && (item = ring.poll()) != null) {
+                waitTimer.record(System.nanoTime() - item.getEnqueuedNanos(), TimeUnit.NANOSECONDS);
+                batch.add(item);
+            }
+
+            if (batch.isEmpty()) {
+                idle(idleRounds++);
+                continue;
+            }
+            idleRounds = 0;
+
+            long start = System.nanoTime();
+            try {
+                handler.accept(batch);
+            } catch (Exception e) {
+                // Handlers complete their items themselves; this only guards the worker thread
+                logger.error("Unexpected error in ingest stage {}: {}", name, e.getMessage(), e);
+                batch.forEach(failed -> failed.failTransiently(e));
+            }
+            processTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void idle(int idleRounds) {
+        if (idleRounds < 100) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(Math.min(1_000L << Math.min(idleRounds - 100, 10), MAX_PARK_NANOS));
+        }
+    }
+
+    private double occupancy() {
+        return partitions.stream().mapToInt(IngestRingBuffer::size).sum();
+    }
+
+    private double capacity() {
+        return partitions.stream().mapToInt(IngestRingBuffer::capacity).sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.micro.messaging;
+
+import com.example.micro.exception.InvalidMessageException;
+import com.example.micro.exception.UnknownMessageTypeException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a message processing failure is permanent, so the message goes
+ * straight to the Dead Letter Queue, or transient, so the JMS session is rolled back
+ * and the broker's redelivery policy retries it.
+ */
+@Component
+public class MessageFailureClassifier {
+
+    public enum FailureReason {
+        MALFORMED_PAYLOAD(true),
+        VALIDATION_FAILED(true),
+        UNKNOWN_MESSAGE_TYPE(true),
+        // Anything not known to be deterministic is retried
+        TRANSIENT_ERROR(false);
+
+        private final boolean permanent;
+
+        FailureReason(boolean permanent) {
+            this.permanent = permanent;
+        }
+
+        public boolean isPermanent() {
+            return permanent;
+        }
+    }
+
+    /**
+     * Classifies a failure by walking its cause chain
+     *
+     * @param failure The exception thrown while processing a message
+     * @return The reason code; its isPermanent() tells whether retrying can help
+     */
+    public FailureReason classify(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnknownMessageTypeException) {
+                return FailureReason.UNKNOWN_MESSAGE_TYPE;
+            }
+            if (cause instanceof InvalidMessageException) {
+                return FailureReason.VALIDATION_FAILED;
+            }
+            if (cause instanceof MessageConversionException
+                    || cause instanceof JsonProcessingException
+                    || cause instanceof ClassCastException) {
+                return FailureReason.MALFORMED_PAYLOAD;
+            }
+        }
+        return FailureReason.TRANSIENT_ERROR;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.micro.messaging;
 
+import com.example.micro.metrics.WorkloadMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -11,6 +13,13 @@ import java.util.List;
 @Component
 public class MessageValidator {
 
+    private final WorkloadMetrics metrics;
+
+    @Autowired
+    public MessageValidator(WorkloadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Validates a WorkloadMessage
      *
@@ -23,6 +32,7 @@ public class MessageValidator {
         // Basic validation
         if (message == null) {
             errors.add("Message is null");
+            metrics.validationFailed("jms");
             return errors;
         }
 
@@ -57,6 +67,9 @@ public class MessageValidator {
             errors.add("Training duration must be positive for CREATE_UPDATE operations");
         }
 
+        if (!errors.isEmpty()) {
+            metrics.validationFailed("jms");
+        }
         return errors;
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.micro.messaging;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Object mappers for JMS and journal payloads. Both formats share the same configuration,
+ * so java.time fields such as WorkloadChangeEvent.occurredAt are written the same way
+ * whether a message goes out as JSON text or as Smile, and fields added by a newer
+ * producer are ignored instead of failing the message.
+ * The mappers are shared and thread-safe; callers must not reconfigure them.
+ */
+public final class PayloadMappers {
+
+    private static final ObjectMapper JSON = configure(new ObjectMapper());
+    private static final ObjectMapper SMILE = configure(new ObjectMapper(new SmileFactory()));
+
+    private PayloadMappers() {
+    }
+
+    /**
+     * @return The mapper for JSON text payloads
+     */
+    public static ObjectMapper json() {
+        return JSON;
+    }
+
+    /**
+     * @return The mapper for binary Smile payloads, used by the JMS converter and the ingest journal
+     */
+    public static ObjectMapper smile() {
+        return SMILE;
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                // Same as the MappingJackson2MessageConverter default
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
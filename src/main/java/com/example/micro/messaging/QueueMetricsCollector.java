@@ -0,0 +1,305 @@
+package com.example.micro.messaging;
+
+import com.example.micro.config.JmsConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.TemporaryQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.stereotype.Component;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes backlog gauges for workload-queue, workload-backfill-queue and workload-dlq:
+ * depth, enqueue and dequeue rates, and the age of the oldest waiting message.
+ * Depth and counters are read from the broker's queue MBeans when jmx-url is set. Otherwise
+ * they come from the broker's statistics plugin (a request to
+ * ActiveMQ.Statistics.Destination.&lt;queue&gt;); when it does not answer they are reported as
+ * NaN and the plugin is probed again every statistics-reprobe-interval-ms, so a broker that
+ * restarts with the plugin is picked up. The oldest age comes from peeking at the head of the queue.
+ */
+@Component
+public class QueueMetricsCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueMetricsCollector.class);
+
+    static final String STATISTICS_DESTINATION_PREFIX = "ActiveMQ.Statistics.Destination.";
+
+    private enum StatisticsPlugin {
+        UNKNOWN,
+        AVAILABLE,
+        ABSENT
+    }
+
+    private final JmsTemplate jmsTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${workload.metrics.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workload.metrics.queue.interval-ms:15000}")
+    private long intervalMs;
+
+    @Value("${workload.metrics.queue.statistics-timeout-ms:2000}")
+    private long statisticsTimeoutMs;
+
+    // e.g. service:jmx:rmi:///jndi/rmi://activemq:1099/jmxrmi; empty uses the statistics plugin
+    @Value("${workload.metrics.queue.jmx-url:}")
+    private String jmxUrl;
+
+    @Value("${workload.metrics.queue.statistics-reprobe-interval-ms:300000}")
+    private long statisticsReprobeIntervalMs;
+
+    // Defaults to the embedded broker's name; that broker runs without JMX, though
+    @Value("${workload.metrics.queue.broker-name:${workload.jms.embedded.broker-name:localhost}}")
+    private String brokerName;
+
+    private final Map<String, QueueStats> stats = new LinkedHashMap<>();
+
+    // Only touched from the collecting thread
+    private StatisticsPlugin statisticsPlugin = StatisticsPlugin.UNKNOWN;
+    private long nextStatisticsProbeMillis;
+    private JMXConnector jmxConnector;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "queue-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public QueueMetricsCollector(JmsTemplate jmsTemplate, MeterRegistry meterRegistry) {
+        this.jmsTemplate = jmsTemplate;
+        this.meterRegistry = meterRegistry;
+
+        for (String queue : List.of(JmsConfig.WORKLOAD_QUEUE, JmsConfig.WORKLOAD_BACKFILL_QUEUE,
+                JmsConfig.WORKLOAD_DLQ)) {
+            QueueStats queueStats = new QueueStats();
+            stats.put(queue, queueStats);
+            registerGauges(queue, queueStats);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Queue metrics collection is disabled");
+            return;
+        }
+
+        scheduler.scheduleWithFixedDelay(this::collect, 0, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Collecting queue metrics for {} every {} ms", stats.keySet(), intervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        closeJmx();
+    }
+
+    /**
+     * Refreshes the gauges of all monitored queues
+     */
+    public synchronized void collect() {
+        stats.forEach((queue, queueStats) -> {
+            try {
+                collect(queue, queueStats);
+            } catch (Exception e) {
+                logger.warn("Could not collect metrics for queue {}: {}", queue, e.getMessage());
+            }
+        });
+    }
+
+    private void collect(String queue, QueueStats queueStats) throws Exception {
+        long now = System.currentTimeMillis();
+
+        if (jmxUrl != null && !jmxUrl.isBlank()) {
+            collectFromJmx(queue, queueStats, now);
+        } else if (statisticsPlugin != StatisticsPlugin.ABSENT || now >= nextStatisticsProbeMillis) {
+            collectFromStatisticsPlugin(queue, queueStats, now);
+        }
+
+        queueStats.oldestAgeSeconds = oldestAgeSeconds(queue, now);
+    }
+
+    private void collectFromJmx(String queue, QueueStats queueStats, long now) throws Exception {
+        ObjectName name = new ObjectName("org.apache.activemq:type=Broker,brokerName=" + brokerName
+                + ",destinationType=Queue,destinationName=" + queue);
+        try {
+            MBeanServerConnection connection = jmxConnection();
+            queueStats.update(now,
+                    (Long) connection.getAttribute(name, "QueueSize"),
+                    (Long) connection.getAttribute(name, "EnqueueCount"),
+                    (Long) connection.getAttribute(name, "DequeueCount"));
+        } catch (InstanceNotFoundException e) {
+            // The broker creates the queue on first use
+            queueStats.update(now, 0, 0, 0);
+        } catch (IOException e) {
+            closeJmx();
+            throw e;
+        }
+    }
+
+    private MBeanServerConnection jmxConnection() throws IOException {
+        if (jmxConnector == null) {
+            jmxConnector = JMXConnectorFactory.connect(new JMXServiceURL(jmxUrl));
+        }
+        return jmxConnector.getMBeanServerConnection();
+    }
+
+    private void closeJmx() {
+        if (jmxConnector != null) {
+            try {
+                jmxConnector.close();
+            } catch (IOException e) {
+                logger.debug("Could not close the broker JMX connection: {}", e.getMessage());
+            }
+            jmxConnector = null;
+        }
+    }
+
+    private void collectFromStatisticsPlugin(String queue, QueueStats queueStats, long now) throws Exception {
+        MapMessage statistics = requestStatistics(queue);
+        if (statistics == null) {
+            if (statisticsPlugin != StatisticsPlugin.AVAILABLE) {
+                // Nothing consumes the requests on a broker without the plugin; pause them until the next probe
+                if (statisticsPlugin == StatisticsPlugin.UNKNOWN) {
+                    logger.info("Broker statistics plugin did not answer; set workload.metrics.queue.jmx-url "
+                            + "for queue depth and rates");
+                }
+                statisticsPlugin = StatisticsPlugin.ABSENT;
+                nextStatisticsProbeMillis = now + statisticsReprobeIntervalMs;
+            }
+            return;
+        }
+        if (statisticsPlugin == StatisticsPlugin.ABSENT) {
+            logger.info("Broker statistics plugin answered; reporting queue depth and rates again");
+        }
+        statisticsPlugin = StatisticsPlugin.AVAILABLE;
+        queueStats.update(now,
+                statistics.getLong("size"),
+                statistics.getLong("enqueueCount"),
+                statistics.getLong("dequeueCount"));
+    }
+
+    /**
+     * Asks the broker's statistics plugin for the destination's counters. The request is
+     * non-persistent and expires with the timeout, so it never lingers on the broker.
+     *
+     * @return The statistics reply, or null if the broker did not answer in time
+     */
+    private MapMessage requestStatistics(String queue) {
+        return jmsTemplate.execute(session -> {
+            TemporaryQueue replyTo = session.createTemporaryQueue();
+            MessageConsumer consumer = session.createConsumer(replyTo);
+            MessageProducer producer = session.createProducer(
+                    session.createQueue(STATISTICS_DESTINATION_PREFIX + queue));
+            try {
+                producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+                producer.setTimeToLive(statisticsTimeoutMs);
+                Message request = session.createMessage();
+                request.setJMSReplyTo(replyTo);
+                producer.send(request);
+                // The template's session is transacted; the request is only delivered on commit
+                JmsUtils.commitIfNecessary(session);
+
+                Message reply = consumer.receive(statisticsTimeoutMs);
+                JmsUtils.commitIfNecessary(session);
+                return reply instanceof MapMessage mapMessage ? mapMessage : null;
+            } finally {
+                producer.close();
+                consumer.close();
+                replyTo.delete();
+            }
+        }, true);
+    }
+
+    /**
+     * Peeks at the head of the queue; a prefetch of 1 keeps the broker from dispatching
+     * more than that one message to the browser
+     */
+    private double oldestAgeSeconds(String queue, long now) {
+        Long oldestTimestamp = jmsTemplate.execute(session -> {
+            QueueBrowser browser = session.createBrowser(session.createQueue(queue + "?consumer.prefetchSize=1"));
+            try {
+                Enumeration<?> messages = browser.getEnumeration();
+                return messages.hasMoreElements() ? ((Message) messages.nextElement()).getJMSTimestamp() : 0L;
+            } finally {
+                browser.close();
+            }
+        }, true);
+        return oldestTimestamp != null && oldestTimestamp > 0
+                ? Math.max(0, now - oldestTimestamp) / 1000.0
+                : 0;
+    }
+
+    private void registerGauges(String queue, QueueStats queueStats) {
+        Gauge.builder("workload.jms.queue.depth", queueStats, s -> s.depth)
+                .description("Messages waiting on the queue")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("workload.jms.queue.enqueue.rate", queueStats, s -> s.enqueueRate)
+                .description("Messages enqueued per second since the previous sample")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("workload.jms.queue.dequeue.rate", queueStats, s -> s.dequeueRate)
+                .description("Messages dequeued per second since the previous sample")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("workload.jms.queue.oldest.age", queueStats, s -> s.oldestAgeSeconds)
+                .description("Age of the oldest message waiting on the queue")
+                .baseUnit("seconds")
+                .tag("queue", queue)
+                .register(meterRegistry);
+    }
+
+    static class QueueStats {
+        // NaN until a source reports them
+        private volatile double depth = Double.NaN;
+        private volatile double enqueueRate = Double.NaN;
+        private volatile double dequeueRate = Double.NaN;
+        private volatile double oldestAgeSeconds;
+        private long lastSampleMillis;
+        private long lastEnqueueCount = -1;
+        private long lastDequeueCount = -1;
+
+        void update(long now, long size, long enqueueCount, long dequeueCount) {
+            depth = size;
+            if (lastEnqueueCount >= 0 && now > lastSampleMillis) {
+                double seconds = (now - lastSampleMillis) / 1000.0;
+                // Counters restart with the broker; treat a drop as a fresh start
+                enqueueRate = Math.max(0, enqueueCount - lastEnqueueCount) / seconds;
+                dequeueRate = Math.max(0, dequeueCount - lastDequeueCount) / seconds;
+            }
+            lastSampleMillis = now;
+            lastEnqueueCount = enqueueCount;
+            lastDequeueCount = dequeueCount;
+        }
+    }
+}
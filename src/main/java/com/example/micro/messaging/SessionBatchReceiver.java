@@ -0,0 +1,60 @@
+package com.example.micro.messaging;
+
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Receives additional messages on a listener's own transacted session, so that a
+ * batch of messages is processed together and committed (or rolled back) together
+ * when the listener method returns.
+ */
+@Component
+public class SessionBatchReceiver {
+
+    /**
+     * Receives up to maxMessages further messages from the destination, waiting
+     * no longer than windowMs in total. The consumer only lives for this call, so it
+     * holds no prefetched messages between batches; ActiveMQ defers closing it until
+     * the session's transaction completes, so received messages still commit or roll
+     * back with the batch.
+     *
+     * @param session The session the listener was invoked with
+     * @param destinationName The queue to receive from
+     * @param maxMessages Maximum number of additional messages
+     * @param windowMs Time to wait for further messages
+     * @return The received messages, possibly empty
+     */
+    public List<Message> receiveMore(Session session, String destinationName,
+                                     int maxMessages, long windowMs) throws JMSException {
+        List<Message> messages = new ArrayList<>();
+        if (maxMessages <= 0) {
+            return messages;
+        }
+
+        // Keep the prefetch small so this consumer doesn't hoard messages from other consumers
+        Destination destination = session.createQueue(destinationName + "?consumer.prefetchSize=" + maxMessages);
+        MessageConsumer consumer = session.createConsumer(destination);
+        try {
+            long deadline = System.currentTimeMillis() + windowMs;
+            while (messages.size() < maxMessages) {
+                long remaining = deadline - System.currentTimeMillis();
+                Message message = remaining > 0 ? consumer.receive(remaining) : consumer.receiveNoWait();
+                if (message == null) {
+                    break;
+                }
+                messages.add(message);
+            }
+        } finally {
+            consumer.close();
+        }
+
+        return messages;
+    }
+}
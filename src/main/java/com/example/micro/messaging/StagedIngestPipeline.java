@@ -0,0 +1,289 @@
+package com.example.micro.messaging;
+
+import com.example.micro.exception.InvalidMessageException;
+import com.example.micro.exception.MessageProcessingException;
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.service.WorkloadIngestPipeline;
+import com.example.micro.service.WorkloadService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingest split into stages connected by bounded lock-free ring buffers:
+ * decode → validate → coalesce → write. Each stage has its own thread count, so the
+ * stage that limits throughput (visible in the workload.ingest.stage.* metrics) can be
+ * scaled on its own.
+ * The JMS listener submits its messages and waits for their results before committing,
+ * so transaction and Dead Letter Queue behaviour are the same as in the serial path.
+ * Writes are partitioned by trainer-month, so updates to one month are written in
+ * arrival order by a single writer thread.
+ */
+@Component
+public class StagedIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(StagedIngestPipeline.class);
+
+    // Per writer thread; only needs to cover how far decode threads can reorder messages
+    private static final int MAX_TRACKED_KEYS = 10_000;
+
+    private final MessageConverter messageConverter;
+    private final MessageValidator messageValidator;
+    private final MessageFailureClassifier failureClassifier;
+    private final WorkloadIngestPipeline ingestPipeline;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${workload.ingest.staged.enabled:false}")
+    private boolean enabled;
+
+    @Value("${workload.ingest.staged.ring-capacity:1024}")
+    private int ringCapacity;
+
+    @Value("${workload.ingest.staged.decode-threads:4}")
+    private int decodeThreads;
+
+    @Value("${workload.ingest.staged.validate-threads:2}")
+    private int validateThreads;
+
+    @Value("${workload.ingest.staged.write-threads:2}")
+    private int writeThreads;
+
+    @Value("${workload.ingest.staged.write-batch-size:32}")
+    private int writeBatchSize;
+
+    @Value("${workload.ingest.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private IngestStage decodeStage;
+    private IngestStage validateStage;
+    private IngestStage coalesceStage;
+    private IngestStage writeStage;
+
+    // Highest sequence written per trainer-month, one map per writer partition
+    private final Map<Integer, Map<String, Long>> lastWritten = new HashMap<>();
+
+    @Autowired
+    public StagedIngestPipeline(MessageConverter messageConverter,
+                                MessageValidator messageValidator,
+                                MessageFailureClassifier failureClassifier,
+                                WorkloadIngestPipeline ingestPipeline,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                MeterRegistry meterRegistry) {
+        this.messageConverter = messageConverter;
+        this.messageValidator = messageValidator;
+        this.failureClassifier = failureClassifier;
+        this.ingestPipeline = ingestPipeline;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Staged ingest pipeline is disabled, messages are processed on the listener thread");
+            return;
+        }
+
+        for (int i = 0; i < writeThreads; i++) {
+            lastWritten.put(i, new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > MAX_TRACKED_KEYS;
+                }
+            });
+        }
+
+        // Built back to front so each stage can hand over to the next
+        writeStage = new IngestStage("write", writeThreads, 1, ringCapacity, writeBatchSize,
+                this::write, meterRegistry);
+        coalesceStage = new IngestStage("coalesce", 1, 1, ringCapacity, ringCapacity,
+                this::coalesce, meterRegistry);
+        validateStage = new IngestStage("validate", 1, validateThreads, ringCapacity, 16,
+                this::validate, meterRegistry);
+        decodeStage = new IngestStage("decode", 1, decodeThreads, ringCapacity, 16,
+                this::decode, meterRegistry);
+
+        writeStage.start();
+        coalesceStage.start();
+        validateStage.start();
+        decodeStage.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (IngestStage stage : new IngestStage[]{decodeStage, validateStage, coalesceStage, writeStage}) {
+            if (stage != null) {
+                stage.stop();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return decodeStage != null && decodeStage.isRunning();
+    }
+
+    /**
+     * Submits received messages in arrival order. Blocks while the decode ring buffer is full.
+     *
+     * @return One item per message; wait on each item's result
+     */
+    public List<IngestItem> submit(List<Message> messages) {
+        List<IngestItem> items = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            IngestItem item = new IngestItem(sequence.incrementAndGet(), message);
+            items.add(item);
+            decodeStage.put(item);
+        }
+        return items;
+    }
+
+    private void decode(List<IngestItem> items) {
+        for (IngestItem item : items) {
+            try {
+                item.setMessage((WorkloadMessage) messageConverter.fromMessage(item.getJmsMessage()));
+                validateStage.put(item);
+            } catch (Exception e) {
+                fail(item, e);
+            }
+        }
+    }
+
+    private void validate(List<IngestItem> items) {
+        for (IngestItem item : items) {
+            try {
+                List<String> validationErrors = messageValidator.validateWorkloadMessage(item.getMessage());
+                if (!validationErrors.isEmpty()) {
+                    throw new InvalidMessageException(String.join("; ", validationErrors));
+                }
+                coalesceStage.put(item);
+            } catch (Exception e) {
+                fail(item, e);
+            }
+        }
+    }
+
+    private void coalesce(List<IngestItem> items) {
+        List<IngestItem> winners = items;
+
+        if (coalescingEnabled) {
+            // Keep the newest message per trainer-month; the others complete with it
+            Map<String, IngestItem> latest = new LinkedHashMap<>();
+            for (IngestItem item : items) {
+                String key = WorkloadMessageCoalescer.key(item.getMessage());
+                IngestItem current = latest.get(key);
+                if (current == null) {
+                    latest.put(key, item);
+                } else if (item.getSequence() > current.getSequence()) {
+                    item.getSuperseded().add(current);
+                    item.getSuperseded().addAll(current.getSuperseded());
+                    current.getSuperseded().clear();
+                    latest.put(key, item);
+                } else {
+                    current.getSuperseded().add(item);
+                }
+            }
+            // Write survivors in the order of their own arrival, not of the first message per key
+            winners = new ArrayList<>(latest.values());
+            winners.sort(Comparator.comparingLong(IngestItem::getSequence));
+        }
+
+        for (IngestItem item : winners) {
+            writeStage.put(item, WorkloadMessageCoalescer.key(item.getMessage()).hashCode());
+        }
+    }
+
+    /**
+     * Writes a writer batch with one ingestAll call, so MongoDB sees one read and one bulk
+     * write per batch instead of a round trip per message
+     */
+    private void write(List<IngestItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<String, Long> written = lastWritten.get(Math.floorMod(
+                WorkloadMessageCoalescer.key(items.get(0).getMessage()).hashCode(), writeThreads));
+
+        // Decode threads may reorder; never let an older message overwrite a newer one
+        List<IngestItem> toWrite = new ArrayList<>(items.size());
+        Map<String, Long> newestInBatch = new HashMap<>();
+        for (IngestItem item : items) {
+            if (!item.claimForWrite()) {
+                // The listener stopped waiting and rolled back; the messages it superseded are retried too
+                item.failTransiently(new MessageProcessingException("Cancelled by the listener before it was written"));
+                continue;
+            }
+            String key = WorkloadMessageCoalescer.key(item.getMessage());
+            Long newest = newestInBatch.getOrDefault(key, written.get(key));
+            if (newest != null && newest > item.getSequence()) {
+                item.complete(IngestItem.Status.SUPERSEDED);
+                continue;
+            }
+            newestInBatch.put(key, item.getSequence());
+            toWrite.add(item);
+        }
+        if (toWrite.isEmpty()) {
+            return;
+        }
+
+        List<RuntimeException> failures;
+        try {
+            List<WorkloadMessage> messages = toWrite.stream().map(IngestItem::getMessage).toList();
+            failures = circuitBreaker.executeSupplier(() -> ingestPipeline.ingestAll(messages));
+        } catch (Exception e) {
+            for (IngestItem item : toWrite) {
+                fail(item, e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < toWrite.size(); i++) {
+            IngestItem item = toWrite.get(i);
+            RuntimeException failure = failures.get(i);
+            MDC.put("transactionId", item.getMessage().getTransactionId());
+            try {
+                if (failure == null) {
+                    written.put(WorkloadMessageCoalescer.key(item.getMessage()), item.getSequence());
+                    item.complete(IngestItem.Status.WRITTEN);
+                } else if (failure instanceof ResourceNotFoundException) {
+                    logger.warn("Resource not found while processing message: {}", failure.getMessage());
+                    written.put(WorkloadMessageCoalescer.key(item.getMessage()), item.getSequence());
+                    item.complete(IngestItem.Status.NOT_FOUND);
+                } else {
+                    fail(item, failure);
+                }
+            } finally {
+                MDC.clear();
+            }
+        }
+    }
+
+    private void fail(IngestItem item, Exception e) {
+        MessageFailureClassifier.FailureReason reason = failureClassifier.classify(e);
+        if (reason.isPermanent()) {
+            item.failPermanently(reason, e.getMessage());
+        } else {
+            item.failTransiently(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.micro.messaging;
+
+import java.time.Instant;
+
+/**
+ * Compact change event published to the workload-events topic whenever a trainer's
+ * workload changes. Events are recorded in the trainer document's outbox and carry a
+ * per-trainer sequence number, so consumers can apply them in order and drop duplicates.
+ */
+public class WorkloadChangeEvent {
+
+    public enum Type {
+        WORKLOAD_UPDATED, WORKLOAD_DELETED
+    }
+
+    private String eventId;
+    private long sequence;
+    private Type type;
+    private String username;
+    private int year;
+    private int month;
+    private int trainingDuration;
+    private boolean active;
+    private String transactionId;
+    private Instant occurredAt;
+
+    // Default constructor for serialization
+    public WorkloadChangeEvent() {
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public int getTrainingDuration() {
+        return trainingDuration;
+    }
+
+    public void setTrainingDuration(int trainingDuration) {
+        this.trainingDuration = trainingDuration;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadChangeEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", username='" + username + '\'' +
+                ", year=" + year +
+                ", month=" + month +
+                ", trainingDuration=" + trainingDuration +
+                '}';
+    }
+}
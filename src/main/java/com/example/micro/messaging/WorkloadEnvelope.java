@@ -0,0 +1,25 @@
+package com.example.micro.messaging;
+
+import jakarta.jms.Message;
+
+/**
+ * A decoded workload message together with the JMS message it arrived in.
+ */
+public class WorkloadEnvelope {
+
+    private final Message jmsMessage;
+    private final WorkloadMessage message;
+
+    public WorkloadEnvelope(Message jmsMessage, WorkloadMessage message) {
+        this.jmsMessage = jmsMessage;
+        this.message = message;
+    }
+
+    public Message getJmsMessage() {
+        return jmsMessage;
+    }
+
+    public WorkloadMessage getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.micro.messaging;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces a batch of workload messages to the latest one per trainer-month.
+ * Month totals are absolute and a DELETE removes the month, so only the last
+ * message for a (username, year, month) determines the stored state.
+ * Survivors keep the position of their last arrival, so trainer fields such as the
+ * name are still applied newest-last when a trainer has several months in the batch.
+ */
+@Component
+public class WorkloadMessageCoalescer {
+
+    /**
+     * @param envelopes Valid messages in arrival order
+     * @return The latest message for each (username, year, month), in the order they arrived
+     */
+    public List<WorkloadEnvelope> coalesce(List<WorkloadEnvelope> envelopes) {
+        Map<String, WorkloadEnvelope> latest = new LinkedHashMap<>();
+        for (WorkloadEnvelope envelope : envelopes) {
+            String key = key(envelope.getMessage());
+            // put() alone would keep the position of the first message for this key
+            latest.remove(key);
+            latest.put(key, envelope);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    public static String key(WorkloadMessage message) {
+        return message.getUsername() + "|" + message.getYear() + "|" + message.getMonth();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.micro.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Message converter that reads and writes payloads either as JSON text (through the
+ * wrapped JSON converter) or as compact binary Smile in a BytesMessage.
+ * The format of an incoming message is taken from its content.format property, so
+ * JSON producers such as gymCRM keep working while others switch to Smile.
+ */
+public class WorkloadMessageConverter implements MessageConverter {
+
+    public static final String FORMAT_PROPERTY = "content.format";
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_SMILE = "smile";
+
+    private final MessageConverter jsonConverter;
+    private final ObjectMapper smileMapper = PayloadMappers.smile();
+    private final String typeIdPropertyName;
+    private final Map<String, Class<?>> typeIdMappings;
+    private final Map<Class<?>, String> classIdMappings = new HashMap<>();
+    private final boolean binaryOutbound;
+
+    /**
+     * @param jsonConverter Converter used for JSON text messages
+     * @param typeIdPropertyName Message property carrying the payload type id
+     * @param typeIdMappings Type ids accepted for Smile payloads
+     * @param binaryOutbound Whether outgoing messages are written as Smile
+     */
+    public WorkloadMessageConverter(MessageConverter jsonConverter, String typeIdPropertyName,
+                                    Map<String, Class<?>> typeIdMappings, boolean binaryOutbound) {
+        this.jsonConverter = jsonConverter;
+        this.typeIdPropertyName = typeIdPropertyName;
+        this.typeIdMappings = Map.copyOf(typeIdMappings);
+        this.binaryOutbound = binaryOutbound;
+        typeIdMappings.forEach((typeId, clazz) -> classIdMappings.putIfAbsent(clazz, typeId));
+    }
+
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        if (!binaryOutbound) {
+            return jsonConverter.toMessage(object, session);
+        }
+
+        try {
+            BytesMessage message = session.createBytesMessage();
+            message.writeBytes(smileMapper.writeValueAsBytes(object));
+            message.setStringProperty(FORMAT_PROPERTY, FORMAT_SMILE);
+            message.setStringProperty(typeIdPropertyName,
+                    classIdMappings.getOrDefault(object.getClass(), object.getClass().getName()));
+            return message;
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not write Smile payload: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        if (!(message instanceof BytesMessage bytesMessage)
+                || !FORMAT_SMILE.equals(message.getStringProperty(FORMAT_PROPERTY))) {
+            return jsonConverter.fromMessage(message);
+        }
+
+        String typeId = message.getStringProperty(typeIdPropertyName);
+        Class<?> targetType = typeIdMappings.get(typeId);
+        if (targetType == null) {
+            throw new MessageConversionException("Unknown payload type id: " + typeId);
+        }
+
+        byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(bytes);
+
+        try {
+            return smileMapper.readValue(bytes, targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not read Smile payload: " + e.getMessage(), e);
+        }
+    }
+}
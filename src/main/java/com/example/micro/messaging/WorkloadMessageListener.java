@@ -1,227 +1,479 @@
 package com.example.micro.messaging;
 
 import com.example.micro.config.JmsConfig;
+import com.example.micro.exception.InvalidMessageException;
 import com.example.micro.exception.MessageProcessingException;
 import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.metrics.WorkloadMetrics;
+import com.example.micro.service.WorkloadIngestPipeline;
 import com.example.micro.service.WorkloadService;
-import com.example.micro.service.WorkloadService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.jms.core.JmsTemplate;
-import org.springframework.messaging.MessageHeaders;
-import org.springframework.messaging.handler.annotation.Headers;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component
 public class WorkloadMessageListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkloadMessageListener.class);
 
-    private final WorkloadService workloadService;
-    private final WorkloadService workloadMongoService;
-    private final JmsTemplate jmsTemplate;
+    private final WorkloadIngestPipeline ingestPipeline;
+    private final MessageConverter messageConverter;
     private final MessageValidator messageValidator;
+    private final MessageFailureClassifier failureClassifier;
+    private final SessionBatchReceiver batchReceiver;
+    private final WorkloadMessageCoalescer coalescer;
+    private final StagedIngestPipeline stagedPipeline;
+    private final IngestLaneScheduler laneScheduler;
+    private final IngestInFlightTracker inFlightTracker;
+    private final IngestJournal journal;
+    private final CircuitBreaker circuitBreaker;
+    private final WorkloadMetrics metrics;
+    private final Timer endToEndTimer;
+
+    @Value("${workload.ingest.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    @Value("${workload.ingest.coalescing.window-ms:500}")
+    private long coalescingWindowMs;
+
+    @Value("${workload.ingest.coalescing.max-batch:100}")
+    private int coalescingMaxBatch;
+
+    @Value("${workload.ingest.staged.listener-batch-size:32}")
+    private int stagedBatchSize;
+
+    @Value("${workload.ingest.staged.listener-window-ms:20}")
+    private long stagedWindowMs;
+
+    @Value("${workload.ingest.staged.completion-timeout-ms:30000}")
+    private long stagedCompletionTimeoutMs;
 
     @Autowired
     public WorkloadMessageListener(
-            WorkloadService workloadService,
-            WorkloadService workloadMongoService,
-            JmsTemplate jmsTemplate,
-            MessageValidator messageValidator) {
-        this.workloadService = workloadService;
-        this.workloadMongoService = workloadMongoService;
-        this.jmsTemplate = jmsTemplate;
+            WorkloadIngestPipeline ingestPipeline,
+            MessageConverter messageConverter,
+            MessageValidator messageValidator,
+            MessageFailureClassifier failureClassifier,
+            SessionBatchReceiver batchReceiver,
+            WorkloadMessageCoalescer coalescer,
+            StagedIngestPipeline stagedPipeline,
+            IngestLaneScheduler laneScheduler,
+            IngestInFlightTracker inFlightTracker,
+            IngestJournal journal,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            WorkloadMetrics metrics,
+            MeterRegistry meterRegistry) {
+        this.ingestPipeline = ingestPipeline;
+        this.messageConverter = messageConverter;
         this.messageValidator = messageValidator;
+        this.failureClassifier = failureClassifier;
+        this.batchReceiver = batchReceiver;
+        this.coalescer = coalescer;
+        this.stagedPipeline = stagedPipeline;
+        this.laneScheduler = laneScheduler;
+        this.inFlightTracker = inFlightTracker;
+        this.journal = journal;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER);
+        this.metrics = metrics;
+        this.endToEndTimer = Timer.builder("workload.ingest.end.to.end")
+                .description("Time from the JMS send timestamp until the message is written to MongoDB")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
      * Processes incoming workload messages from the workload queue.
      * Uses concurrent consumers for horizontal scaling.
+     * Permanent failures are sent to the Dead Letter Queue in the listener's own
+     * transaction; transient failures roll the session back so the broker redelivers.
+     * With coalescing enabled, further messages are drained for a short window and only
+     * the latest one per trainer-month is written; the rest are acknowledged in the same commit.
+     * With the staged pipeline running, the work is handed to its stages and this thread
+     * only waits for the results, sends Dead Letter Queue messages and commits.
      *
-     * @param message The workload message to process
-     * @param headers Message headers
      * @param jmsMessage The raw JMS message
+     * @param session The transacted session the message was received on
      */
-   /* @JmsListener(
+    @JmsListener(
             destination = JmsConfig.WORKLOAD_QUEUE,
             containerFactory = "jmsListenerContainerFactory"
-    ) */
-    public void processWorkloadMessage(
-            @Payload WorkloadMessage message,
-            @Headers MessageHeaders headers,
-            Message jmsMessage) {
+    )
+    public void processWorkloadMessage(Message jmsMessage, Session session) throws JMSException {
+        laneScheduler.liveStarted();
+        try {
+            process(jmsMessage, session, JmsConfig.WORKLOAD_QUEUE);
+        } finally {
+            laneScheduler.liveFinished();
+        }
+    }
 
-        String transactionId = message.getTransactionId();
-        MDC.put("transactionId", transactionId);
+    /**
+     * Processes historical workload messages from the backfill queue. Each message first
+     * yields to in-flight live messages, so live updates keep priority for MongoDB.
+     *
+     * @param jmsMessage The raw JMS message
+     * @param session The transacted session the message was received on
+     */
+    @JmsListener(
+            destination = JmsConfig.WORKLOAD_BACKFILL_QUEUE,
+            containerFactory = "backfillListenerContainerFactory"
+    )
+    public void processBackfillMessage(Message jmsMessage, Session session) throws JMSException {
+        laneScheduler.awaitBackfillTurn();
+        process(jmsMessage, session, JmsConfig.WORKLOAD_BACKFILL_QUEUE);
+    }
 
-        logger.info("Received workload message with transaction ID: {}", transactionId);
-        logger.debug("Message details: {}", message);
-        logger.debug("Message headers: {}", headers);
+    private void process(Message jmsMessage, Session session, String queue) throws JMSException {
+        List<Message> batch = new ArrayList<>();
+        batch.add(jmsMessage);
 
+        // In flight until this method returns and the container commits or rolls back
+        inFlightTracker.batchStarted();
+        long startNanos = System.nanoTime();
         try {
-            // Validate message
-            if (!validateMessage(message)) {
-                return;
+            processBatch(batch, session, queue, startNanos);
+        } finally {
+            inFlightTracker.batchFinished(batch.size());
+        }
+    }
+
+    private void processBatch(List<Message> batch, Session session, String queue,
+                              long startNanos) throws JMSException {
+
+        // While messages are parked in the journal they are handled on this thread, in order
+        if (stagedPipeline.isRunning() && !shouldPark()) {
+            int maxBatch = coalescingEnabled ? coalescingMaxBatch : stagedBatchSize;
+            long windowMs = coalescingEnabled ? coalescingWindowMs : stagedWindowMs;
+            drainMore(batch, session, queue, maxBatch - 1, windowMs);
+            processStaged(batch, session, startNanos);
+            return;
+        }
+
+        if (coalescingEnabled) {
+            drainMore(batch, session, queue, coalescingMaxBatch - 1, coalescingWindowMs);
+        }
+
+        List<WorkloadEnvelope> valid = new ArrayList<>(batch.size());
+        for (Message received : batch) {
+            WorkloadEnvelope envelope = decodeAndValidate(received, session, startNanos);
+            if (envelope != null) {
+                valid.add(envelope);
             }
+        }
 
-            // Process message for relational database
-            processMessageForRelationalDB(message);
+        List<WorkloadEnvelope> toWrite = coalescingEnabled ? coalescer.coalesce(valid) : valid;
+        if (toWrite.size() < valid.size()) {
+            logger.debug("Coalesced {} workload messages into {} writes", valid.size(), toWrite.size());
+            Set<WorkloadEnvelope> written = Collections.newSetFromMap(new IdentityHashMap<>());
+            written.addAll(toWrite);
+            for (WorkloadEnvelope envelope : valid) {
+                if (!written.contains(envelope)) {
+                    metrics.recordMessage(envelope.getMessage(), "superseded", startNanos);
+                }
+            }
+        }
 
-            // Process message for MongoDB
-            workloadMongoService.processWorkloadMessage(message);
+        for (WorkloadEnvelope envelope : toWrite) {
+            write(envelope, session, startNanos);
+        }
+    }
 
-            // Acknowledge message on successful processing
-            acknowledgeMessage(jmsMessage, transactionId);
-        } catch (Exception e) {
-            handleProcessingException(e, message);
-        } finally {
-            MDC.clear();
+    /**
+     * Drains further messages into the batch on the listener's session. A backfill batch only
+     * grows while the live lane is idle, and every drained message counts against the backfill rate.
+     */
+    private void drainMore(List<Message> batch, Session session, String queue,
+                           int maxMessages, long windowMs) throws JMSException {
+        boolean backfill = JmsConfig.WORKLOAD_BACKFILL_QUEUE.equals(queue);
+        if (backfill && laneScheduler.getLiveInFlight() > 0) {
+            return;
+        }
+        List<Message> drained = batchReceiver.receiveMore(session, queue, maxMessages, windowMs);
+        batch.addAll(drained);
+        inFlightTracker.messagesAdded(drained.size());
+        if (backfill) {
+            laneScheduler.awaitBackfillPermits(drained.size());
         }
     }
 
-    private boolean validateMessage(WorkloadMessage message) {
-        List<String> validationErrors = messageValidator.validateWorkloadMessage(message);
-        if (!validationErrors.isEmpty()) {
-            String errorReason = String.join("; ", validationErrors);
-            logger.warn("Message validation failed: {}", errorReason);
-            handleInvalidMessage(message, errorReason);
-            return false;
+    /**
+     * Waits for an item until the deadline. An item still pending then is cancelled, so it is not
+     * written after the rollback; one the write stage already took is waited for until it is written.
+     */
+    private IngestItem.Status awaitResult(IngestItem item, long deadline)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        try {
+            return item.getResult().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (item.cancel()) {
+                throw e;
+            }
+            return item.getResult().get();
         }
-        return true;
     }
 
-    private void processMessageForRelationalDB(WorkloadMessage message) {
-        logger.info("Processing message for relational database: trainer={}, period={}/{}",
-                message.getUsername(), message.getYear(), message.getMonth());
+    private void processStaged(List<Message> batch, Session session, long startNanos) throws JMSException {
+        List<IngestItem> items = stagedPipeline.submit(batch);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stagedCompletionTimeoutMs);
+        RuntimeException transientFailure = null;
 
-        try {
-            // Process message based on type
-            switch (message.getMessageType()) {
-                case CREATE_UPDATE:
-                    processCreateUpdateMessage(message);
-                    break;
-                case DELETE:
-                    processDeleteMessage(message);
-                    break;
-                default:
-                    handleInvalidMessage(message, "Unknown message type: " + message.getMessageType());
-                    break;
+        // Wait for every item, so nothing from this batch is still in flight after a rollback
+        for (IngestItem item : items) {
+            IngestItem.Status status;
+            try {
+                status = awaitResult(item, deadline);
+            } catch (ExecutionException e) {
+                metrics.recordMessage(item.getMessage(), "retry", startNanos);
+                if (transientFailure == null) {
+                    transientFailure = e.getCause() instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new MessageProcessingException("Processing error: " + e.getCause().getMessage(), e.getCause());
+                }
+                continue;
+            } catch (TimeoutException e) {
+                metrics.recordMessage(item.getMessage(), "retry", startNanos);
+                if (transientFailure == null) {
+                    transientFailure = new MessageProcessingException("Timed out waiting for the staged ingest pipeline");
+                }
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Rolling back; whatever the write stage has not taken yet must not be written
+                items.forEach(IngestItem::cancel);
+                throw new MessageProcessingException("Interrupted waiting for the staged ingest pipeline", e);
             }
-        } catch (Exception e) {
-            logger.error("Error processing message for relational database: {}", e.getMessage(), e);
-            throw e;
+
+            if (status == IngestItem.Status.WRITTEN) {
+                recordEndToEnd(item.getJmsMessage());
+                metrics.recordMessage(item.getMessage(), WorkloadMetrics.OUTCOME_SUCCESS, startNanos);
+            } else if (status == IngestItem.Status.FAILED_PERMANENTLY) {
+                logger.error("Permanent {} failure, not retrying: {}", item.getFailureReason(), item.getFailureDescription());
+                sendToDeadLetterQueue(item.getJmsMessage(), item.getMessage(), session,
+                        item.getFailureReason(), item.getFailureDescription(), startNanos);
+            } else {
+                metrics.recordMessage(item.getMessage(),
+                        status == IngestItem.Status.NOT_FOUND ? WorkloadMetrics.OUTCOME_NOT_FOUND : "superseded",
+                        startNanos);
+            }
+        }
+
+        if (transientFailure != null) {
+            // Roll back the whole batch so the redelivery policy retries it
+            logger.warn("Transient error in staged ingest, rolling back for redelivery: {}",
+                    transientFailure.getMessage());
+            throw transientFailure;
         }
     }
 
     /**
-     * Processes a message to create or update a workload record
-     *
-     * @param message The message containing workload information
-     * @throws MessageProcessingException If processing fails
+     * @return The decoded message, or null if it failed permanently and was dead-lettered
      */
-    private void processCreateUpdateMessage(WorkloadMessage message) throws MessageProcessingException {
-        logger.info("Processing CREATE/UPDATE workload for trainer: {}, period: {}/{}",
-                message.getUsername(), message.getYear(), message.getMonth());
+    private WorkloadEnvelope decodeAndValidate(Message jmsMessage, Session session,
+                                               long startNanos) throws JMSException {
+        WorkloadMessage message = null;
+
+        try {
+            // Decode the payload ourselves so malformed messages can be classified
+            message = (WorkloadMessage) messageConverter.fromMessage(jmsMessage);
 
+            MDC.put("transactionId", message.getTransactionId());
+            logger.info("Received workload message with transaction ID: {}", message.getTransactionId());
+            logger.debug("Message details: {}", message);
+
+            // Validate message
+            validateMessage(message);
+            return new WorkloadEnvelope(jmsMessage, message);
+        } catch (Exception e) {
+            handleProcessingException(e, jmsMessage, message, session, startNanos);
+            return null;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void write(WorkloadEnvelope envelope, Session session, long startNanos) throws JMSException {
+        WorkloadMessage message = envelope.getMessage();
+        String transactionId = message.getTransactionId();
+
+        if (shouldPark()) {
+            if (!park(message)) {
+                metrics.recordMessage(message, "retry", startNanos);
+                throw new MessageProcessingException("Ingest journal is full, leaving message on the broker");
+            }
+            metrics.recordMessage(message, "parked", startNanos);
+            return;
+        }
+
+        MDC.put("transactionId", transactionId);
         try {
-            // Update or create workload
-            workloadService.updateOrCreateWorkload(
-                    message.getUsername(),
-                    message.getYear(),
-                    message.getMonth(),
-                    message.getFirstName(),
-                    message.getLastName(),
-                    message.isActive(),
-                    message.getTrainingDuration()
-            );
-
-            logger.info("Workload created/updated successfully for trainer: {}", message.getUsername());
+            // Store writes go through the circuit breaker so failing or slow MongoDB calls
+            // trip it and IngestBackpressureController pauses the listener containers
+            circuitBreaker.executeRunnable(() -> ingestPipeline.ingest(message));
+            recordEndToEnd(envelope.getJmsMessage());
+            metrics.recordMessage(message, WorkloadMetrics.OUTCOME_SUCCESS, startNanos);
+
+            logger.info("Message processed successfully, transaction ID: {}", transactionId);
+        } catch (ResourceNotFoundException e) {
+            // Handle resource not found - this is a "business" exception, not a system error
+            logger.warn("Resource not found while processing message: {}", e.getMessage());
+            metrics.recordMessage(message, WorkloadMetrics.OUTCOME_NOT_FOUND, startNanos);
         } catch (Exception e) {
-            logger.error("Failed to create/update workload: {}", e.getMessage(), e);
-            throw new MessageProcessingException("Failed to create/update workload: " + e.getMessage(), e);
+            // Park instead of rolling back, so an outage does not exhaust redeliveries
+            if (journal.isEnabled() && !failureClassifier.classify(e).isPermanent() && park(message)) {
+                metrics.recordMessage(message, "parked", startNanos);
+                return;
+            }
+            handleProcessingException(e, envelope.getJmsMessage(), message, session, startNanos);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Whether messages go to the ingest journal instead of MongoDB: while MongoDB is
+     * unavailable, and while older messages are still parked so ordering is kept
+     */
+    private boolean shouldPark() {
+        if (!journal.isEnabled()) {
+            return false;
         }
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return !journal.isEmpty()
+                || state == CircuitBreaker.State.OPEN
+                || state == CircuitBreaker.State.FORCED_OPEN;
     }
 
     /**
-     * Processes a message to delete a workload record
+     * Parks a message in the ingest journal; the JMS transaction then commits as if it was written
      *
-     * @param message The message containing workload information
-     * @throws ResourceNotFoundException If the workload does not exist
+     * @return false if the journal is full
      */
-    private void processDeleteMessage(WorkloadMessage message) {
-        logger.info("Processing DELETE workload for trainer: {}, period: {}/{}",
-                message.getUsername(), message.getYear(), message.getMonth());
+    private boolean park(WorkloadMessage message) {
+        if (!journal.append(message)) {
+            return false;
+        }
+        logger.warn("MongoDB unavailable, parked message {} in the ingest journal ({} pending)",
+                message.getTransactionId(), journal.getPending());
+        return true;
+    }
 
-        try {
-            workloadService.deleteWorkload(
-                    message.getUsername(),
-                    message.getYear(),
-                    message.getMonth()
-            );
-            logger.info("Workload deleted successfully for trainer: {}", message.getUsername());
-        } catch (ResourceNotFoundException e) {
-            logger.warn("Workload not found for deletion: {}", e.getMessage());
-            // This is not considered an error - the resource is already gone
-        } catch (Exception e) {
-            logger.error("Unexpected error during workload deletion: {}", e.getMessage(), e);
-            throw new MessageProcessingException("Failed to delete workload: " + e.getMessage(), e);
+    private void recordEndToEnd(Message jmsMessage) throws JMSException {
+        long sentAt = jmsMessage.getJMSTimestamp();
+        // Producers may disable timestamps, leaving 0
+        if (sentAt > 0) {
+            endToEndTimer.record(Math.max(0, System.currentTimeMillis() - sentAt), TimeUnit.MILLISECONDS);
         }
     }
 
-    private void acknowledgeMessage(Message jmsMessage, String transactionId) {
-        try {
-            jmsMessage.acknowledge();
-            logger.info("Message processed successfully, transaction ID: {}", transactionId);
-        } catch (JMSException e) {
-            logger.error("Error acknowledging message: {}", e.getMessage(), e);
+    private void validateMessage(WorkloadMessage message) {
+        List<String> validationErrors = messageValidator.validateWorkloadMessage(message);
+        if (!validationErrors.isEmpty()) {
+            throw new InvalidMessageException(String.join("; ", validationErrors));
         }
     }
 
-    private void handleProcessingException(Exception e, WorkloadMessage message) {
-        if (e instanceof ResourceNotFoundException) {
-            // Handle resource not found - this is a "business" exception, not a system error
-            logger.warn("Resource not found while processing message: {}", e.getMessage());
-            // No need to send to DLQ - it's an expected scenario
-        } else if (e instanceof MessageProcessingException) {
-            // Handle specific message processing exceptions
-            logger.error("Message processing failed: {}", e.getMessage(), e);
-            handleInvalidMessage(message, "Processing error: " + e.getMessage());
-        } else {
-            // Handle unexpected exceptions
-            logger.error("Unexpected error while processing message: {}", e.getMessage(), e);
-            handleInvalidMessage(message, "Unexpected error: " + e.getMessage());
+    private void handleProcessingException(Exception e, Message jmsMessage, WorkloadMessage message,
+                                           Session session, long startNanos) throws JMSException {
+        MessageFailureClassifier.FailureReason reason = failureClassifier.classify(e);
+
+        if (!reason.isPermanent()) {
+            metrics.recordMessage(message, "retry", startNanos);
+            // Roll back so the redelivery policy retries, e.g. while MongoDB is timing out
+            logger.warn("Transient error while processing message, rolling back for redelivery: {}",
+                    e.getMessage());
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new MessageProcessingException("Processing error: " + e.getMessage(), e);
         }
+
+        logger.error("Permanent {} failure, not retrying: {}", reason, e.getMessage());
+        sendToDeadLetterQueue(jmsMessage, message, session, reason, e.getMessage(), startNanos);
     }
 
     /**
-     * Handles invalid messages by sending them to the Dead Letter Queue
-     * with appropriate error information.
+     * Sends a message that can never be processed to the Dead Letter Queue on the
+     * listener's session, so the send commits together with the consumption.
      *
-     * @param message The invalid message
-     * @param reason The reason why the message is invalid
+     * @param jmsMessage The message as received
+     * @param message The decoded message, or null if it could not be decoded
+     * @param session The listener's transacted session
+     * @param reason The failure reason code
+     * @param description Why the message failed
+     * @param startNanos When the listener invocation started, for the message timer
      */
-    private void handleInvalidMessage(WorkloadMessage message, String reason) {
-        logger.error("Invalid message received: {}. Reason: {}", message, reason);
+    private void sendToDeadLetterQueue(Message jmsMessage, WorkloadMessage message, Session session,
+                                       MessageFailureClassifier.FailureReason reason,
+                                       String description, long startNanos) throws JMSException {
+        Message deadLetter = message != null
+                ? messageConverter.toMessage(message, session)
+                : copyUndecodedMessage(jmsMessage, session);
 
-        // Send to Dead Letter Queue
+        String transactionId = message != null ? message.getTransactionId() : null;
+        if (transactionId != null) {
+            deadLetter.setStringProperty("original.transaction.id", transactionId);
+        }
+        deadLetter.setStringProperty("error.code", reason.name());
+        deadLetter.setStringProperty("error.reason", description);
+        deadLetter.setStringProperty("error.timestamp", String.valueOf(System.currentTimeMillis()));
+
+        MessageProducer producer = session.createProducer(session.createQueue(JmsConfig.WORKLOAD_DLQ));
         try {
-            jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_DLQ, message, m -> {
-                m.setStringProperty("error.reason", reason);
-                m.setStringProperty("original.transaction.id", message.getTransactionId());
-                m.setStringProperty("error.timestamp", String.valueOf(System.currentTimeMillis()));
-                return m;
-            });
-            logger.info("Message sent to Dead Letter Queue (DLQ): {}", message.getTransactionId());
-        } catch (Exception e) {
-            logger.error("Failed to send message to DLQ: {}", e.getMessage(), e);
+            producer.send(deadLetter);
+        } finally {
+            producer.close();
+        }
+        metrics.deadLettered(reason.name());
+        metrics.recordMessage(message, "dead_lettered", startNanos);
+        logger.info("Message sent to Dead Letter Queue (DLQ): {}", jmsMessage.getJMSMessageID());
+    }
+
+    private Message copyUndecodedMessage(Message jmsMessage, Session session) throws JMSException {
+        Message copy;
+        if (jmsMessage instanceof TextMessage textMessage) {
+            copy = session.createTextMessage(textMessage.getText());
+        } else if (jmsMessage instanceof BytesMessage bytesMessage) {
+            byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.reset();
+            bytesMessage.readBytes(body);
+            BytesMessage bytesCopy = session.createBytesMessage();
+            bytesCopy.writeBytes(body);
+            copy = bytesCopy;
+        } else {
+            copy = session.createMessage();
+        }
+
+        // Keep the properties needed to read the payload again
+        for (String property : List.of(JmsConfig.TYPE_ID_PROPERTY, WorkloadMessageConverter.FORMAT_PROPERTY)) {
+            String value = jmsMessage.getStringProperty(property);
+            if (value != null) {
+                copy.setStringProperty(property, value);
+            }
         }
+        return copy;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,243 @@
+package com.example.micro.messaging;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.document.TrainerWorkloadDocument;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the change events recorded in trainer outboxes to the workload-events topic.
+ * A batch of events is sent in one JMS transaction and only removed from the outboxes
+ * after the commit, so delivery is at-least-once; consumers drop duplicates by
+ * (username, sequence). Events of a trainer are sent in sequence order.
+ * <p>
+ * Each batch leases its trainers (relayLockOwner, relayLockedUntil), so relays of several
+ * replicas publish disjoint outboxes. The removal does not change the document version: a
+ * WorkloadService replace read before it may write published events back, which are then
+ * sent again with their original sequence and dropped by consumers.
+ */
+@Component
+public class WorkloadOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadOutboxRelay.class);
+
+    public static final String SEQUENCE_PROPERTY = "event.sequence";
+
+    private final MongoTemplate mongoTemplate;
+    private final JmsTemplate jmsTemplate;
+    private final MessageConverter messageConverter;
+
+    @Value("${workload.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workload.outbox.relay.interval-ms:1000}")
+    private long intervalMs;
+
+    // Number of trainers whose pending events are published per JMS transaction
+    @Value("${workload.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    // A relay that dies mid-batch blocks its trainers until the lease expires
+    @Value("${workload.outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    // One relay thread keeps per-trainer ordering simple
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public WorkloadOutboxRelay(MongoTemplate mongoTemplate, JmsTemplate jmsTemplate,
+                               MessageConverter messageConverter) {
+        this.mongoTemplate = mongoTemplate;
+        this.jmsTemplate = jmsTemplate;
+        this.messageConverter = messageConverter;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Workload outbox relay is disabled");
+            return;
+        }
+
+        scheduler.scheduleWithFixedDelay(this::relayPending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Workload outbox relay publishing to {} every {} ms", JmsConfig.WORKLOAD_EVENTS_TOPIC, intervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Publishes all pending events on the relay thread and waits up to timeoutMs, so
+     * changes committed just before shutdown are not left for the next instance
+     */
+    public void flush(long timeoutMs) {
+        if (!enabled || scheduler.isShutdown()) {
+            return;
+        }
+        try {
+            scheduler.submit(this::relayPending).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Outbox flush did not complete: {}", e.getMessage());
+        }
+    }
+
+    void relayPending() {
+        try {
+            // Keep going while full batches come back, so a backlog drains without waiting
+            while (relayBatch() >= batchSize) {
+                logger.debug("Outbox backlog remaining, publishing next batch");
+            }
+        } catch (Exception e) {
+            // Nothing was removed from the outboxes; the events are sent again next run
+            logger.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the pending events of up to batchSize trainers and removes them from the outboxes
+     *
+     * @return The number of trainers whose events were published
+     */
+    public int relayBatch() {
+        String lockOwner = UUID.randomUUID().toString();
+        List<TrainerWorkloadDocument> trainers = claim(lockOwner);
+        if (trainers.isEmpty()) {
+            return 0;
+        }
+
+        int published;
+        try {
+            published = publish(trainers);
+        } catch (RuntimeException e) {
+            // Nothing was sent; let the next run, of this or another replica, take them at once
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("relayLockOwner").is(lockOwner)),
+                    new Update().unset("relayLockOwner").unset("relayLockedUntil"),
+                    collectionName());
+            throw e;
+        }
+
+        // Only events up to the published sequence are removed; newer ones stay for the next run.
+        // Updates go by collection name so Spring does not increment the version
+        for (TrainerWorkloadDocument trainer : trainers) {
+            long lastSequence = trainer.getOutbox().stream()
+                    .mapToLong(WorkloadChangeEvent::getSequence)
+                    .max()
+                    .orElse(0);
+            Document publishedEvents = new Document("sequence", new Document("$lte", lastSequence));
+            UpdateResult released = mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(trainer.getUsername()).and("relayLockOwner").is(lockOwner)),
+                    new Update().pull("outbox", publishedEvents).unset("relayLockOwner").unset("relayLockedUntil"),
+                    collectionName());
+            if (released.getMatchedCount() == 0) {
+                // The lease expired and another relay holds the trainer now; keep its lease
+                mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(trainer.getUsername())),
+                        new Update().pull("outbox", publishedEvents),
+                        collectionName());
+            }
+        }
+
+        logger.debug("Published {} outbox events for {} trainers", published, trainers.size());
+        return trainers.size();
+    }
+
+    /**
+     * Leases up to batchSize trainers with pending events that no other relay holds
+     *
+     * @return The leased trainers with their outboxes
+     */
+    private List<TrainerWorkloadDocument> claim(String lockOwner) {
+        Instant now = Instant.now();
+        Query candidates = new Query(claimable(now)).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> usernames = mongoTemplate.find(candidates, TrainerWorkloadDocument.class).stream()
+                .map(TrainerWorkloadDocument::getUsername)
+                .toList();
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
+
+        // The filter is repeated, so a trainer another replica leased in the meantime is skipped
+        mongoTemplate.updateMulti(
+                new Query(claimable(now).and("_id").in(usernames)),
+                new Update().set("relayLockOwner", lockOwner).set("relayLockedUntil", now.plusMillis(leaseMs)),
+                collectionName());
+
+        Query leased = new Query(Criteria.where("relayLockOwner").is(lockOwner));
+        leased.fields().include("outbox");
+        return mongoTemplate.find(leased, TrainerWorkloadDocument.class);
+    }
+
+    private Criteria claimable(Instant now) {
+        return Criteria.where("outbox.sequence").exists(true)
+                .orOperator(Criteria.where("relayLockedUntil").is(null), Criteria.where("relayLockedUntil").lt(now));
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(TrainerWorkloadDocument.class);
+    }
+
+    private int publish(List<TrainerWorkloadDocument> trainers) {
+        Integer published = jmsTemplate.execute(session -> {
+            MessageProducer producer = session.createProducer(session.createTopic(JmsConfig.WORKLOAD_EVENTS_TOPIC));
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+
+            int count = 0;
+            try {
+                for (TrainerWorkloadDocument trainer : trainers) {
+                    List<WorkloadChangeEvent> events = trainer.getOutbox().stream()
+                            .sorted(Comparator.comparingLong(WorkloadChangeEvent::getSequence))
+                            .toList();
+                    for (WorkloadChangeEvent event : events) {
+                        Message message = messageConverter.toMessage(event, session);
+                        message.setLongProperty(SEQUENCE_PROPERTY, event.getSequence());
+                        producer.send(message);
+                        count++;
+                    }
+                }
+            } finally {
+                producer.close();
+            }
+
+            // The whole batch becomes visible to subscribers at once
+            JmsUtils.commitIfNecessary(session);
+            return count;
+        }, true);
+
+        return published != null ? published : 0;
+    }
+}
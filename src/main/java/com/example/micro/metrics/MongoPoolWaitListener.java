@@ -0,0 +1,64 @@
+package com.example.micro.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long threads wait to check a connection out of the MongoDB pool. Pool size,
+ * checked-out connections and wait-queue size come from Micrometer's
+ * MongoMetricsConnectionPoolListener. The sync driver checks connections out on the calling
+ * thread, so the start of a check-out is kept in a thread local.
+ */
+@Component
+public class MongoPoolWaitListener implements ConnectionPoolListener {
+
+    private final ThreadLocal<Long> checkOutStarted = new ThreadLocal<>();
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MongoPoolWaitListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("workload.mongo.pool.wait")
+                .description("Time spent waiting to check a connection out of the MongoDB pool")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkOutStarted.set(System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        recordWait();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        recordWait();
+        Counter.builder("workload.mongo.pool.checkout.failures")
+                .description("Failed MongoDB connection check-outs, e.g. wait-queue timeouts")
+                .tag("reason", event.getReason().name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordWait() {
+        Long started = checkOutStarted.get();
+        if (started != null) {
+            checkOutStarted.remove();
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
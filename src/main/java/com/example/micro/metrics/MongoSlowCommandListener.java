@@ -0,0 +1,198 @@
+package com.example.micro.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs MongoDB commands slower than threshold-ms with their collection, the shape of their
+ * filter (field names and operators, values replaced by ?) and a hash of the document key,
+ * so slow operations can be told apart without logging trainer data. Latency histograms
+ * per command and collection come from Micrometer's MongoMetricsCommandListener.
+ */
+@Component
+public class MongoSlowCommandListener implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoSlowCommandListener.class);
+
+    // Commands that carry no filter and are not worth a slow-operation entry
+    private static final Set<String> IGNORED_COMMANDS = Set.of("hello", "isMaster", "ping", "buildInfo",
+            "saslStart", "saslContinue", "endSessions", "getMore", "killCursors");
+
+    @Value("${workload.mongo.slow-command.threshold-ms:100}")
+    private long thresholdMs;
+
+    private final MeterRegistry meterRegistry;
+
+    // Keyed by request id; the command document is only readable inside commandStarted
+    private final Map<Integer, StartedCommand> started = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MongoSlowCommandListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (thresholdMs <= 0 || IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        String commandName = event.getCommandName();
+        BsonValue collection = command.get(commandName);
+        BsonDocument filter = filter(commandName, command);
+        started.put(event.getRequestId(), new StartedCommand(
+                collection != null && collection.isString() ? collection.asString().getValue() : "",
+                filter != null ? shape(filter) : "{}",
+                redactedKey(commandName, command, filter)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.MILLISECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.MILLISECONDS), "failed");
+    }
+
+    private void finished(int requestId, String commandName, long elapsedMs, String status) {
+        StartedCommand command = started.remove(requestId);
+        if (command == null || elapsedMs < thresholdMs) {
+            return;
+        }
+        Counter.builder("workload.mongo.slow.commands")
+                .description("MongoDB commands slower than workload.mongo.slow-command.threshold-ms")
+                .tag("command", commandName)
+                .tag("collection", command.collection)
+                .register(meterRegistry)
+                .increment();
+        logger.warn("Slow MongoDB {} on {}: {} ms, status={}, filter={}, key={}",
+                commandName, command.collection, elapsedMs, status, command.filterShape, command.key);
+    }
+
+    /**
+     * @return The filter of a find, update, delete, findAndModify, count or aggregate $match, or null
+     */
+    private static BsonDocument filter(String commandName, BsonDocument command) {
+        switch (commandName) {
+            case "find":
+                return document(command.get("filter"));
+            case "findAndModify":
+            case "count":
+                return document(command.get("query"));
+            case "update":
+                return document(firstOf(command.get("updates"), "q"));
+            case "delete":
+                return document(firstOf(command.get("deletes"), "q"));
+            case "aggregate":
+                return document(firstOf(command.get("pipeline"), "$match"));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Replaces every value of a filter with ?, keeping field names, operators and nesting
+     */
+    private static String shape(BsonValue value) {
+        if (value.isDocument()) {
+            StringBuilder shape = new StringBuilder("{");
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (shape.length() > 1) {
+                    shape.append(", ");
+                }
+                shape.append(entry.getKey()).append(": ").append(shape(entry.getValue()));
+            }
+            return shape.append('}').toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            // Operator arrays ($and, $or) hold sub-filters; value lists ($in) only their length
+            if (!array.isEmpty() && array.get(0).isDocument()) {
+                StringBuilder shape = new StringBuilder("[");
+                for (BsonValue element : array) {
+                    if (shape.length() > 1) {
+                        shape.append(", ");
+                    }
+                    shape.append(shape(element));
+                }
+                return shape.append(']').toString();
+            }
+            return "[?x" + array.size() + "]";
+        }
+        return "?";
+    }
+
+    private static String redactedKey(String commandName, BsonDocument command, BsonDocument filter) {
+        BsonValue key = null;
+        if (filter != null) {
+            key = filter.containsKey("_id") ? filter.get("_id") : filter.get("username");
+        } else if ("insert".equals(commandName)) {
+            BsonDocument document = document(firstOf(command.get("documents"), null));
+            key = document != null ? document.get("_id") : null;
+        }
+        if (key == null || key.isDocument() || key.isArray()) {
+            return "-";
+        }
+        return hash(key.isString() ? key.asString().getValue() : key.toString());
+    }
+
+    private static BsonValue firstOf(BsonValue array, String field) {
+        if (array == null || !array.isArray() || array.asArray().isEmpty()) {
+            return null;
+        }
+        BsonValue first = array.asArray().get(0);
+        if (field == null) {
+            return first;
+        }
+        return first.isDocument() ? first.asDocument().get(field) : null;
+    }
+
+    private static BsonDocument document(BsonValue value) {
+        return value != null && value.isDocument() ? value.asDocument() : null;
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class StartedCommand {
+
+        private final String collection;
+        private final String filterShape;
+        private final String key;
+
+        StartedCommand(String collection, String filterShape, String key) {
+            this.collection = collection;
+            this.filterShape = filterShape;
+            this.key = key;
+        }
+    }
+}
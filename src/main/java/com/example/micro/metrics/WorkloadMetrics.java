@@ -0,0 +1,130 @@
+package com.example.micro.metrics;
+
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.messaging.WorkloadMessage;
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Custom meters of the workload service. Timers publish percentile histograms, so
+ * percentiles can be aggregated across instances in Prometheus.
+ * <ul>
+ *   <li>workload.service.operation: WorkloadService operations, by operation and outcome</li>
+ *   <li>workload.listener.message: workload queue messages, by message type and outcome</li>
+ *   <li>workload.validation.failures, workload.dlq.sends, workload.not.found and
+ *   workload.mongo.errors counters</li>
+ * </ul>
+ * Controller endpoints are timed by Spring MVC as http.server.requests.
+ */
+@Component
+public class WorkloadMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public WorkloadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a WorkloadService operation and counts its not-found results and MongoDB errors
+     */
+    public <T> T timeOperation(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = call.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } catch (ResourceNotFoundException e) {
+            outcome = OUTCOME_NOT_FOUND;
+            notFound(operation);
+            throw e;
+        } catch (MongoException | DataAccessException e) {
+            mongoError(operation, e);
+            throw e;
+        } finally {
+            Timer.builder("workload.service.operation")
+                    .description("WorkloadService operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void timeOperation(String operation, Runnable call) {
+        timeOperation(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records how long a workload queue message took, from the start of its listener
+     * invocation until it was written, dead-lettered or rolled back
+     *
+     * @param message The decoded message, or null if it could not be decoded
+     */
+    public void recordMessage(WorkloadMessage message, String outcome, long startNanos) {
+        String type = message != null && message.getMessageType() != null
+                ? message.getMessageType().name()
+                : "UNKNOWN";
+        Timer.builder("workload.listener.message")
+                .description("Workload queue messages, from listener invocation to outcome")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param source Where the invalid input came from: jms or api
+     */
+    public void validationFailed(String source) {
+        Counter.builder("workload.validation.failures")
+                .description("Workload messages and API requests rejected by validation")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void deadLettered(String reason) {
+        Counter.builder("workload.dlq.sends")
+                .description("Messages sent to the Dead Letter Queue")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void notFound(String operation) {
+        Counter.builder("workload.not.found")
+                .description("Operations on a trainer or workload that does not exist")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void mongoError(String operation, Exception e) {
+        Counter.builder("workload.mongo.errors")
+                .description("MongoDB errors in WorkloadService operations")
+                .tag("operation", operation)
+                .tag("exception", e.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.micro.repository;
+
+import com.example.micro.document.DeadLetterDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeadLetterRepository extends MongoRepository<DeadLetterDocument, String> {
+
+    // Find all dead letters of one original transaction
+    List<DeadLetterDocument> findByOriginalTransactionId(String originalTransactionId);
+}
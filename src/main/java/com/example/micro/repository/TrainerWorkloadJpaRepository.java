@@ -0,0 +1,12 @@
+package com.example.micro.repository;
+
+import com.example.micro.model.TrainerWorkload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the relational trainer workload projection
+ */
+@Repository
+public interface TrainerWorkloadJpaRepository extends JpaRepository<TrainerWorkload, String> {
+}
@@ -0,0 +1,237 @@
+package com.example.micro.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the core-service instance for a token validation call from the instances registered
+ * in Eureka, so one slow instance does not set the latency of every request.
+ * <ul>
+ *   <li>least-outstanding: the instance with the fewest calls in flight</li>
+ *   <li>latency-weighted: the better of two random instances by average latency times
+ *   (calls in flight + 1)</li>
+ * </ul>
+ * An instance that fails max-failures calls in a row (connection errors, timeouts, 5xx) is
+ * ejected for ejection-ms. Falls back to spring.core.service.url when discovery is disabled
+ * or no instance is registered.
+ */
+@Component
+public class CoreServiceInstanceSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoreServiceInstanceSelector.class);
+
+    // Weight of the newest sample in the latency average
+    private static final double LATENCY_ALPHA = 0.3;
+
+    public enum Strategy {
+        LEAST_OUTSTANDING,
+        LATENCY_WEIGHTED
+    }
+
+    @Value("${spring.core.service.url:http://localhost:8081}")
+    private String coreServiceUrl;
+
+    @Value("${workload.security.core-service.discovery.enabled:true}")
+    private boolean discoveryEnabled;
+
+    @Value("${workload.security.core-service.service-id:spring-core}")
+    private String serviceId;
+
+    @Value("${workload.security.core-service.ejection.max-failures:3}")
+    private int maxFailures;
+
+    @Value("${workload.security.core-service.ejection.ejection-ms:30000}")
+    private long ejectionMs;
+
+    private final DiscoveryClient discoveryClient;
+    private final Strategy strategy;
+    private final Counter ejections;
+
+    // Keyed by instance URI; kept across registry refreshes so statistics survive them
+    private final Map<String, Instance> instances = new ConcurrentHashMap<>();
+    private volatile Instance fallback;
+
+    @Autowired
+    public CoreServiceInstanceSelector(DiscoveryClient discoveryClient,
+                                       @Value("${workload.security.core-service.balancer:least-outstanding}") String balancer,
+                                       MeterRegistry meterRegistry) {
+        this.discoveryClient = discoveryClient;
+        // Parsed once, so a misspelt balancer fails startup instead of every validation call
+        this.strategy = parseStrategy(balancer);
+        this.ejections = Counter.builder("workload.security.core-service.ejections")
+                .description("Core-service instances ejected after consecutive failed validation calls")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return The instance to send the next validation call to; report the outcome with {@link #record}
+     */
+    public Instance choose() {
+        List<Instance> candidates = discoveredInstances();
+        if (candidates.isEmpty()) {
+            return fallbackInstance();
+        }
+
+        long now = System.currentTimeMillis();
+        List<Instance> healthy = new ArrayList<>(candidates.size());
+        for (Instance instance : candidates) {
+            if (instance.ejectedUntil <= now) {
+                healthy.add(instance);
+            }
+        }
+        // Every instance ejected: better to try one than to fail every request
+        if (healthy.isEmpty()) {
+            healthy = candidates;
+        }
+
+        Instance chosen = strategy == Strategy.LATENCY_WEIGHTED
+                ? twoRandomChoices(healthy)
+                : leastOutstanding(healthy);
+        chosen.outstanding.incrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * Reports the outcome of a call to an instance returned by {@link #choose}
+     *
+     * @param failed True if the instance could not answer (connection error, timeout, 5xx);
+     *               a rejected token is not a failure
+     */
+    public void record(Instance instance, long elapsedNanos, boolean failed) {
+        instance.outstanding.decrementAndGet();
+        if (!failed) {
+            instance.consecutiveFailures.set(0);
+            instance.recordLatency(elapsedNanos);
+            return;
+        }
+        if (instance.consecutiveFailures.incrementAndGet() >= maxFailures && instance != fallback) {
+            instance.consecutiveFailures.set(0);
+            instance.ejectedUntil = System.currentTimeMillis() + ejectionMs;
+            ejections.increment();
+            logger.warn("Ejecting core-service instance {} for {} ms after {} consecutive failures",
+                    instance.getBaseUrl(), ejectionMs, maxFailures);
+        }
+    }
+
+    private List<Instance> discoveredInstances() {
+        if (!discoveryEnabled) {
+            return List.of();
+        }
+        List<ServiceInstance> registered;
+        try {
+            registered = discoveryClient.getInstances(serviceId);
+        } catch (Exception e) {
+            logger.debug("Could not look up {} instances: {}", serviceId, e.getMessage());
+            return List.of();
+        }
+
+        List<Instance> current = new ArrayList<>(registered.size());
+        for (ServiceInstance serviceInstance : registered) {
+            String baseUrl = serviceInstance.getUri().toString();
+            current.add(instances.computeIfAbsent(baseUrl, Instance::new));
+        }
+        // Forget instances that left the registry
+        if (instances.size() > current.size()) {
+            instances.values().retainAll(current);
+        }
+        return current;
+    }
+
+    private Instance fallbackInstance() {
+        Instance instance = fallback;
+        if (instance == null || !instance.getBaseUrl().equals(coreServiceUrl)) {
+            instance = new Instance(coreServiceUrl);
+            fallback = instance;
+        }
+        instance.outstanding.incrementAndGet();
+        return instance;
+    }
+
+    private Instance leastOutstanding(List<Instance> candidates) {
+        // Random start, so ties do not all go to the first registered instance
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        Instance best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Instance candidate = candidates.get((offset + i) % candidates.size());
+            if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private Instance twoRandomChoices(List<Instance> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = candidates.get(first);
+        Instance b = candidates.get(second);
+        return a.score() <= b.score() ? a : b;
+    }
+
+    private static Strategy parseStrategy(String balancer) {
+        try {
+            return Strategy.valueOf(balancer.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown workload.security.core-service.balancer '" + balancer
+                    + "', expected least-outstanding or latency-weighted", e);
+        }
+    }
+
+    public static class Instance {
+
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        // Zero until the first success, so new instances get tried
+        private volatile double averageLatencyNanos;
+        private volatile long ejectedUntil;
+
+        public Instance(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isEjected() {
+            return ejectedUntil > System.currentTimeMillis();
+        }
+
+        private synchronized void recordLatency(long elapsedNanos) {
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? elapsedNanos
+                    : LATENCY_ALPHA * elapsedNanos + (1 - LATENCY_ALPHA) * averageLatencyNanos;
+        }
+
+        private double score() {
+            return averageLatencyNanos * (outstanding.get() + 1);
+        }
+    }
+}
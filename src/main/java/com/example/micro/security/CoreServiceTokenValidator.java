@@ -0,0 +1,189 @@
+package com.example.micro.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Validates tokens with the core service's validate endpoint.
+ * Concurrent validations of the same token (a dashboard firing its requests in parallel)
+ * share one in-flight call and its result.
+ * Calls go through the {@value #CIRCUIT_BREAKER} circuit breaker, so an unavailable core
+ * service is not asked again on every request; rejected tokens do not count as failures, and
+ * neither do other 4xx responses or unreadable bodies (ignore-exceptions in application.properties).
+ * Each call goes to the core-service instance picked by {@link CoreServiceInstanceSelector}.
+ */
+@Component
+public class CoreServiceTokenValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoreServiceTokenValidator.class);
+
+    // The resilience4j "default" instance in application.properties
+    public static final String CIRCUIT_BREAKER = "default";
+
+    @Value("${spring.core.service.validate-token-endpoint:/api/auth/validate}")
+    private String validateTokenEndpoint;
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final TokenValidationCache tokenCache;
+    private final CoreServiceInstanceSelector instanceSelector;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter coalesced;
+
+    // Keyed by token hash; a null result means the core service rejected the token
+    private final ConcurrentMap<String, CompletableFuture<ValidatedToken>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CoreServiceTokenValidator(RestTemplate restTemplate, ObjectMapper objectMapper,
+                                     TokenValidationCache tokenCache, CoreServiceInstanceSelector instanceSelector,
+                                     CircuitBreakerRegistry circuitBreakerRegistry, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.tokenCache = tokenCache;
+        this.instanceSelector = instanceSelector;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+        this.coalesced = Counter.builder("workload.security.validation.coalesced")
+                .description("Token validations that joined another request's in-flight core-service call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return The validated token, or null if the core service rejected it
+     * @throws org.springframework.web.client.RestClientException if the core service could not be reached
+     * @throws io.github.resilience4j.circuitbreaker.CallNotPermittedException if the circuit breaker is open
+     */
+    public ValidatedToken validate(String token) {
+        String key = TokenValidationCache.hash(token);
+        CompletableFuture<ValidatedToken> call = new CompletableFuture<>();
+        CompletableFuture<ValidatedToken> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // Rethrow the leader's failure as is, so callers see the same exception types
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            ValidatedToken validated = circuitBreaker.executeSupplier(() -> callCoreService(token));
+            call.complete(validated);
+            return validated;
+        } catch (Throwable e) {
+            // Errors too: requests that joined this call would otherwise wait forever
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Later requests start a new call (or hit the token cache)
+            inFlight.remove(key, call);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private ValidatedToken callCoreService(String token) {
+        // Create headers for request to core service
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + token);
+
+        ResponseEntity<String> coreResponse;
+        CoreServiceInstanceSelector.Instance instance = instanceSelector.choose();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            // Make request to core service to validate token
+            coreResponse = restTemplate.exchange(
+                    instance.getBaseUrl() + validateTokenEndpoint,
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    String.class
+            );
+        } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+            logger.warn("Token rejected by core service: {}", e.getStatusCode());
+            return null;
+        } catch (RestClientException e) {
+            // A 4xx is about the request, not the health of the instance
+            failed = !(e instanceof HttpClientErrorException);
+            throw e;
+        } finally {
+            instanceSelector.record(instance, System.nanoTime() - start, failed);
+        }
+
+        // Check if validation was successful
+        if (coreResponse.getStatusCode() != HttpStatus.OK) {
+            logger.warn("Token validation failed: {}", coreResponse.getStatusCode());
+            return null;
+        }
+
+        try {
+            // Parse the response
+            JsonNode root = objectMapper.readTree(coreResponse.getBody());
+
+            // Extract user information
+            String username = root.path("username").asText();
+            List<String> roles = extractRoles(root);
+
+            return new ValidatedToken(
+                    username,
+                    roles.stream()
+                            .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                            .toList(),
+                    tokenCache.readExpiry(token)
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable token validation response", e);
+        }
+    }
+
+    private List<String> extractRoles(JsonNode root) {
+        JsonNode rolesNode = root.path("roles");
+        if (rolesNode.isArray()) {
+            return objectMapper.convertValue(rolesNode, List.class);
+        } else {
+            String role = root.path("role").asText();
+            if (!role.isEmpty()) {
+                return Collections.singletonList(role);
+            }
+        }
+        // Default role if no roles found
+        return Collections.singletonList("ROLE_USER");
+    }
+}
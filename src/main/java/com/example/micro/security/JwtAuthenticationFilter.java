@@ -1,9 +1,6 @@
 package com.example.micro.security;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -12,25 +9,16 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
@@ -38,21 +26,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Value("${spring.security.jwt.enabled:true}")
     private boolean jwtEnabled;
 
-    @Value("${spring.core.service.url:http://localhost:8081}")
-    private String coreServiceUrl;
-
-    @Value("${spring.core.service.validate-token-endpoint:/api/auth/validate}")
-    private String validateTokenEndpoint;
-
     private final Environment environment;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final CoreServiceTokenValidator coreServiceValidator;
+    private final LocalTokenVerifier localVerifier;
+    private final TokenRevocationChecker revocationChecker;
+    private final TokenValidationCache tokenCache;
+    private final StaleTokenFallback staleFallback;
 
     @Autowired
-    public JwtAuthenticationFilter(Environment environment, RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public JwtAuthenticationFilter(Environment environment, CoreServiceTokenValidator coreServiceValidator,
+                                   LocalTokenVerifier localVerifier, TokenRevocationChecker revocationChecker,
+                                   TokenValidationCache tokenCache, StaleTokenFallback staleFallback) {
         this.environment = environment;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+        this.coreServiceValidator = coreServiceValidator;
+        this.localVerifier = localVerifier;
+        this.revocationChecker = revocationChecker;
+        this.tokenCache = tokenCache;
+        this.staleFallback = staleFallback;
     }
 
     @Override
@@ -81,81 +71,74 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = header.substring(7);
 
         try {
-            // Validate token with spring_core microservice
-            validateTokenWithCoreService(token, response, request, filterChain);
-        } catch (Exception e) {
-            logger.error("Error validating JWT token", e);
-            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-            response.getWriter().write("Invalid JWT token: " + e.getMessage());
-        }
-    }
+            if (localVerifier.isEnabled() && revocationChecker.isRevoked(token)) {
+                rejectToken(response);
+                return;
+            }
 
-    private void validateTokenWithCoreService(String token, HttpServletResponse response,
-                                              HttpServletRequest request, FilterChain filterChain)
-            throws IOException, ServletException {
+            // Repeated requests with the same token skip verification
+            ValidatedToken validated = tokenCache.get(token);
+            if (validated == null) {
+                try {
+                    validated = localVerifier.isEnabled()
+                            ? localVerifier.verify(token)
+                            // Validate token with spring_core microservice
+                            : coreServiceValidator.validate(token);
+                    if (validated == null) {
+                        rejectToken(response);
+                        return;
+                    }
+                    tokenCache.put(token, validated);
+                } catch (RestClientException | CallNotPermittedException e) {
+                    // Core service slow, down or circuit open: accept a recently validated token
+                    validated = staleFallback.serveStale(token);
+                    if (validated == null) {
+                        throw e;
+                    }
+                    logger.debug("Core service unavailable, accepting stale token validation");
+                }
+            }
 
-        try {
-            // Create headers for request to core service
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-
-            // Make request to core service to validate token
-            ResponseEntity<String> coreResponse = restTemplate.exchange(
-                    coreServiceUrl + validateTokenEndpoint,
-                    HttpMethod.GET,
-                    new HttpEntity<>(headers),
-                    String.class
-            );
-
-            // Check if validation was successful
-            if (coreResponse.getStatusCode() == HttpStatus.OK) {
-                // Parse the response
-                JsonNode root = objectMapper.readTree(coreResponse.getBody());
-
-                // Extract user information
-                String username = root.path("username").asText();
-                List<String> roles = extractRoles(root);
-
-                // Create authentication token with user information and roles
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        username,
-                        null,
-                        roles.stream()
-                                .map(SimpleGrantedAuthority::new)
-                                .toList()
-                );
-
-                // Set details like you would have from a real JWT
-                authentication.setDetails(request);
-
-                // Set the authentication in the security context
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                // Continue with the filter chain
-                filterChain.doFilter(request, response);
-            } else {
-                logger.warn("Token validation failed: {}", coreResponse.getStatusCode());
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                response.getWriter().write("Invalid JWT token: authentication failed");
+            if (localVerifier.isEnabled()) {
+                revocationChecker.maybeCheck(token);
             }
+
+            authenticate(validated, request);
+
+            // Continue with the filter chain
+            filterChain.doFilter(request, response);
+        } catch (CallNotPermittedException e) {
+            logger.warn("Core service circuit breaker is open, cannot validate token");
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().write("Error validating token: core service unavailable");
         } catch (RestClientException e) {
             logger.error("Error connecting to core service for token validation", e);
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.getWriter().write("Error validating token: core service unavailable");
+        } catch (Exception e) {
+            logger.error("Error validating JWT token", e);
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            response.getWriter().write("Invalid JWT token: " + e.getMessage());
         }
     }
 
-    private List<String> extractRoles(JsonNode root) {
-        JsonNode rolesNode = root.path("roles");
-        if (rolesNode.isArray()) {
-            return objectMapper.convertValue(rolesNode, List.class);
-        } else {
-            String role = root.path("role").asText();
-            if (!role.isEmpty()) {
-                return Collections.singletonList(role);
-            }
-        }
-        // Default role if no roles found
-        return Collections.singletonList("ROLE_USER");
+    private void rejectToken(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        response.getWriter().write("Invalid JWT token: authentication failed");
+    }
+
+    private void authenticate(ValidatedToken validated, HttpServletRequest request) {
+        // Create authentication token with user information and roles
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                validated.getUsername(),
+                null,
+                validated.getAuthorities()
+        );
+
+        // Set details like you would have from a real JWT
+        authentication.setDetails(request);
+
+        // Set the authentication in the security context
+        SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example.micro.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Verifies tokens in this service with the shared jwt.secret: HMAC signature, expiry
+ * and roles claim, without calling the core service.
+ */
+@Component
+public class LocalTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalTokenVerifier.class);
+
+    private final boolean enabled;
+    private final JwtParser parser;
+
+    @Autowired
+    public LocalTokenVerifier(@Value("${workload.security.validation-mode:remote}") String validationMode,
+                              @Value("${jwt.secret}") String secret,
+                              @Value("${workload.security.jwt.secret-base64:false}") boolean secretBase64,
+                              @Value("${workload.security.jwt.clock-skew-seconds:30}") long clockSkewSeconds) {
+        this.enabled = "local".equalsIgnoreCase(validationMode);
+
+        // Only build the key when used, so a secret too short for HMAC does not break remote mode
+        if (enabled) {
+            byte[] keyBytes = secretBase64 ? Decoders.BASE64.decode(secret) : secret.getBytes(StandardCharsets.UTF_8);
+            this.parser = Jwts.parserBuilder()
+                    .setSigningKey(Keys.hmacShaKeyFor(keyBytes))
+                    .setAllowedClockSkewSeconds(clockSkewSeconds)
+                    .build();
+            logger.info("Tokens are verified locally; the core service is only used for revocation checks");
+        } else {
+            this.parser = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @throws JwtException if the signature is invalid, the token has expired or has no expiry
+     */
+    public ValidatedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiry");
+        }
+
+        String username = claims.get("username", String.class);
+        if (username == null) {
+            username = claims.getSubject();
+        }
+        if (username == null || username.isEmpty()) {
+            throw new JwtException("Token has no subject");
+        }
+
+        List<GrantedAuthority> authorities = extractRoles(claims).stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        return new ValidatedToken(username, authorities, claims.getExpiration().toInstant());
+    }
+
+    // Same claim layout as the core service's validate response
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (roles instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).toList();
+        }
+        Object role = claims.get("role");
+        if (role != null && !role.toString().isEmpty()) {
+            return Collections.singletonList(role.toString());
+        }
+        // Default role if no roles found
+        return Collections.singletonList("ROLE_USER");
+    }
+}
@@ -1,5 +1,16 @@
 package com.example.micro.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -10,12 +21,15 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.util.Arrays;
 import java.util.List;
@@ -25,25 +39,71 @@ import java.util.List;
 @EnableMethodSecurity
 public class SecurityConfig {
 
-    // Define RestTemplate first
+    // Connection pool for core-service calls, closed with the context
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager coreServiceConnectionManager(
+            @Value("${workload.security.http.max-total:50}") int maxTotal,
+            @Value("${workload.security.http.max-per-route:20}") int maxPerRoute,
+            @Value("${workload.security.http.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${workload.security.http.response-timeout-ms:2000}") long responseTimeoutMs,
+            @Value("${workload.security.http.time-to-live-seconds:300}") long timeToLiveSeconds,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        // Re-resolve the core service now and then instead of pinning one address forever
+                        .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "coreService").bindTo(meterRegistry);
+        return connectionManager;
     }
 
-    // Define ObjectMapper
+    // Define RestTemplate first; keep-alive connections from the pool above, with strict timeouts
+    @Bean
+    public RestTemplate restTemplate(
+            PoolingHttpClientConnectionManager coreServiceConnectionManager,
+            @Value("${workload.security.http.connection-request-timeout-ms:500}") long connectionRequestTimeoutMs,
+            @Value("${workload.security.http.response-timeout-ms:2000}") long responseTimeoutMs,
+            @Value("${workload.security.http.idle-eviction-seconds:30}") long idleEvictionSeconds) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(coreServiceConnectionManager)
+                // The pool is a bean of its own and is closed by the context
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Fail fast when the pool is exhausted instead of queueing request threads
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                .build();
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    // Define ObjectMapper; it replaces Boot's, so register java.time support for API responses
     @Bean  
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
     // Now define JwtAuthenticationFilter using the beans above
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter(
-            Environment environment, 
-            RestTemplate restTemplate, 
-            ObjectMapper objectMapper) {
-        return new JwtAuthenticationFilter(environment, restTemplate, objectMapper);
+            Environment environment,
+            CoreServiceTokenValidator coreServiceValidator,
+            LocalTokenVerifier localVerifier,
+            TokenRevocationChecker revocationChecker,
+            TokenValidationCache tokenCache,
+            StaleTokenFallback staleFallback) {
+        return new JwtAuthenticationFilter(environment, coreServiceValidator, localVerifier,
+                revocationChecker, tokenCache, staleFallback);
     }
 
     @Bean
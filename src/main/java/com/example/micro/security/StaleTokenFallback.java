@@ -0,0 +1,112 @@
+package com.example.micro.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stale-while-revalidate for remote token validation: while the core service is slow,
+ * down or behind an open circuit breaker, a token that was validated within the stale
+ * window keeps being accepted, and a background refresh tries the core service again.
+ * A refresh that succeeds renews the cache entry; one that rejects the token evicts it.
+ */
+@Component
+public class StaleTokenFallback {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleTokenFallback.class);
+
+    private final CoreServiceTokenValidator coreServiceValidator;
+    private final TokenValidationCache tokenCache;
+    private final Counter served;
+    private final Counter refreshes;
+
+    // Token hashes with a refresh queued or running, so a burst of requests schedules one refresh
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // Refreshes are dropped, not queued without bound, during a long outage
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), r -> {
+        Thread thread = new Thread(r, "token-stale-refresh");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+
+    @Autowired
+    public StaleTokenFallback(CoreServiceTokenValidator coreServiceValidator,
+                              TokenValidationCache tokenCache,
+                              MeterRegistry meterRegistry) {
+        this.coreServiceValidator = coreServiceValidator;
+        this.tokenCache = tokenCache;
+        this.served = Counter.builder("workload.security.validation.stale")
+                .description("Requests accepted on a stale token validation while the core service was unavailable")
+                .register(meterRegistry);
+        this.refreshes = Counter.builder("workload.security.validation.stale.refreshes")
+                .description("Background core-service refreshes of stale token validations")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return The last known good validation of this token, with a background refresh scheduled,
+     * or null if there is none within the stale window
+     */
+    public ValidatedToken serveStale(String token) {
+        ValidatedToken stale = tokenCache.getStale(token);
+        if (stale == null) {
+            return null;
+        }
+        served.increment();
+        scheduleRefresh(token);
+        return stale;
+    }
+
+    private void scheduleRefresh(String token) {
+        String key = TokenValidationCache.hash(token);
+        if (!pending.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh(token);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            logger.debug("Stale token refresh queue full, skipping refresh");
+        }
+    }
+
+    void refresh(String token) {
+        refreshes.increment();
+        try {
+            ValidatedToken validated = coreServiceValidator.validate(token);
+            if (validated == null) {
+                tokenCache.invalidate(token);
+                logger.warn("Token rejected by core service on refresh; no longer serving it stale");
+            } else {
+                tokenCache.put(token, validated);
+            }
+        } catch (Exception e) {
+            // Still unavailable; the stale entry stays usable until its window ends
+            logger.debug("Stale token refresh failed: {}", e.getMessage());
+        }
+    }
+}
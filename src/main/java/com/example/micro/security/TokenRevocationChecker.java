@@ -0,0 +1,140 @@
+package com.example.micro.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With local token verification, asks the core service about a sample of requests
+ * in the background, so tokens revoked there (logout, disabled user) stop being
+ * accepted here without putting the core service on the request path.
+ * A revoked token is evicted from the token cache and remembered until its exp claim
+ * (plus the accepted clock skew), after which local verification rejects it anyway.
+ * Tokens without an exp claim are remembered for no-exp-ttl-seconds.
+ */
+@Component
+public class TokenRevocationChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationChecker.class);
+
+    private final CoreServiceTokenValidator coreServiceValidator;
+    private final TokenValidationCache tokenCache;
+    // Token hash to the instant from which the token no longer needs to be remembered
+    private final Cache<String, Instant> revoked;
+    private final Duration clockSkew;
+    private final Duration noExpiryTtl;
+    private final Counter checks;
+    private final Counter revocations;
+
+    @Value("${workload.security.revocation.sample-rate:0.05}")
+    private double sampleRate;
+
+    // Checks are dropped, not queued without bound, when the core service is slow
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), r -> {
+        Thread thread = new Thread(r, "token-revocation-check");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+
+    @Autowired
+    public TokenRevocationChecker(CoreServiceTokenValidator coreServiceValidator,
+                                  TokenValidationCache tokenCache,
+                                  @Value("${workload.security.jwt.clock-skew-seconds:30}") long clockSkewSeconds,
+                                  @Value("${workload.security.revocation.no-exp-ttl-seconds:86400}") long noExpiryTtlSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.coreServiceValidator = coreServiceValidator;
+        this.tokenCache = tokenCache;
+        this.clockSkew = Duration.ofSeconds(Math.max(0, clockSkewSeconds));
+        this.noExpiryTtl = Duration.ofSeconds(noExpiryTtlSeconds);
+        // Each entry lives exactly as long as its token could still pass local verification
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new RevokedUntil())
+                .build();
+        this.checks = Counter.builder("workload.security.revocation.checks")
+                .description("Sampled core-service checks of locally verified tokens")
+                .register(meterRegistry);
+        this.revocations = Counter.builder("workload.security.revocation.revoked")
+                .description("Locally verified tokens the core service rejected")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean isRevoked(String token) {
+        return revoked.getIfPresent(TokenValidationCache.hash(token)) != null;
+    }
+
+    /**
+     * Schedules a background core-service check for this token with probability sample-rate
+     */
+    public void maybeCheck(String token) {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        try {
+            executor.execute(() -> check(token));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Revocation check queue full, skipping check");
+        }
+    }
+
+    void check(String token) {
+        checks.increment();
+        try {
+            if (coreServiceValidator.validate(token) == null) {
+                revoke(token);
+            }
+        } catch (Exception e) {
+            // Unknown state; keep accepting the locally verified token
+            logger.warn("Revocation check failed: {}", e.getMessage());
+        }
+    }
+
+    void revoke(String token) {
+        Instant expiresAt = tokenCache.readExpiry(token);
+        Instant revokedUntil = expiresAt != null ? expiresAt.plus(clockSkew) : Instant.now().plus(noExpiryTtl);
+        revoked.put(TokenValidationCache.hash(token), revokedUntil);
+        tokenCache.invalidate(token);
+        revocations.increment();
+        logger.warn("Token revoked by core service; rejecting it from now on");
+    }
+
+    private static class RevokedUntil implements Expiry<String, Instant> {
+
+        @Override
+        public long expireAfterCreate(String key, Instant revokedUntil, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), revokedUntil).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Instant revokedUntil, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, revokedUntil, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Instant revokedUntil, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.micro.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Caches successful token validations so repeated requests with the same bearer token
+ * skip the core-service call and the response parsing.
+ * Entries are keyed by a SHA-256 hash of the token, so raw tokens are never held, and
+ * expire at the token's exp claim or after max-ttl-seconds, whichever comes first.
+ * A validation is also remembered as last known good for stale-window-seconds beyond
+ * max-ttl-seconds (never past exp), for use only while the core service is unavailable.
+ */
+@Component
+public class TokenValidationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenValidationCache.class);
+
+    // Only used to read the exp claim; the signature is checked by whoever validated the token
+    private final ObjectMapper claimsReader = new ObjectMapper();
+    private final Cache<String, ValidatedToken> cache;
+    private final Cache<String, ValidatedToken> lastKnownGood;
+    private final boolean enabled;
+
+    @Autowired
+    public TokenValidationCache(@Value("${workload.security.token-cache.enabled:true}") boolean enabled,
+                                @Value("${workload.security.token-cache.max-size:10000}") long maxSize,
+                                @Value("${workload.security.token-cache.max-ttl-seconds:300}") long maxTtlSeconds,
+                                @Value("${workload.security.token-cache.stale-window-seconds:900}") long staleWindowSeconds,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        Duration maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+        this.lastKnownGood = Caffeine.newBuilder()
+                .maximumSize(staleWindowSeconds > 0 ? maxSize : 0)
+                .expireAfter(new TokenExpiry(maxTtl.plusSeconds(Math.max(0, staleWindowSeconds))))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtValidation");
+    }
+
+    /**
+     * @return The cached validation, or null if the token was not validated recently
+     */
+    public ValidatedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.getIfPresent(hash(token));
+    }
+
+    public void put(String token, ValidatedToken validated) {
+        if (!enabled) {
+            return;
+        }
+        // An already expired token must not be cached at all
+        if (validated.getExpiresAt() != null && !validated.getExpiresAt().isAfter(Instant.now())) {
+            return;
+        }
+        String key = hash(token);
+        cache.put(key, validated);
+        lastKnownGood.put(key, validated);
+    }
+
+    /**
+     * @return The last successful validation of this token if it is within the stale window
+     * and the token has not expired, or null. Only for use while the core service is unavailable.
+     */
+    public ValidatedToken getStale(String token) {
+        if (!enabled) {
+            return null;
+        }
+        return lastKnownGood.getIfPresent(hash(token));
+    }
+
+    public void invalidate(String token) {
+        String key = hash(token);
+        cache.invalidate(key);
+        lastKnownGood.invalidate(key);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Reads the exp claim of a JWT without verifying it
+     *
+     * @return The expiry, or null if the token is not a JWT or has no exp claim
+     */
+    public Instant readExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            JsonNode claims = claimsReader.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode exp = claims.path("exp");
+            return exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (Exception e) {
+            logger.debug("Could not read the exp claim of a token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, ValidatedToken> {
+
+        private final Duration maxTtl;
+
+        TokenExpiry(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, ValidatedToken value, long currentTime) {
+            long ttlNanos = maxTtl.toNanos();
+            if (value.getExpiresAt() != null) {
+                long untilExpiry = Duration.between(Instant.now(), value.getExpiresAt()).toNanos();
+                ttlNanos = Math.min(ttlNanos, Math.max(0, untilExpiry));
+            }
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ValidatedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ValidatedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
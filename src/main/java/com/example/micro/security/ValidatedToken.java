@@ -0,0 +1,36 @@
+package com.example.micro.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The outcome of a successful token validation: everything needed to build the
+ * request's Authentication without calling the core service or parsing its response again.
+ */
+public final class ValidatedToken {
+
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    // Token expiry from its exp claim, or null if the token has none
+    private final Instant expiresAt;
+
+    public ValidatedToken(String username, List<GrantedAuthority> authorities, Instant expiresAt) {
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
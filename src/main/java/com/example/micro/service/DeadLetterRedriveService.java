@@ -0,0 +1,294 @@
+package com.example.micro.service;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.dto.RedriveJobResponse;
+import com.example.micro.dto.RedriveRequest;
+import com.example.micro.exception.ResourceNotFoundException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends dead-lettered workload messages back to the backfill queue at a limited rate.
+ * Jobs run one at a time and wait while the workloadService circuit breaker is not closed,
+ * and the backfill lane yields to live traffic, so a large redrive neither starves live
+ * updates nor overloads MongoDB. Finished jobs are kept for finished-job-retention-ms.
+ */
+@Service
+public class DeadLetterRedriveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterRedriveService.class);
+
+    public enum Status {
+        QUEUED, RUNNING, WAITING_FOR_MONGO, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final DeadLetterService deadLetterService;
+    private final JmsTemplate jmsTemplate;
+    private final CircuitBreaker circuitBreaker;
+
+    @Value("${workload.dlq.redrive.default-rate-per-second:20}")
+    private int defaultRatePerSecond;
+
+    @Value("${workload.dlq.redrive.max-rate-per-second:200}")
+    private int maxRatePerSecond;
+
+    @Value("${workload.dlq.redrive.page-size:100}")
+    private int pageSize;
+
+    @Value("${workload.dlq.redrive.breaker-wait-ms:1000}")
+    private long breakerWaitMs;
+
+    @Value("${workload.dlq.redrive.finished-job-retention-ms:3600000}")
+    private long finishedJobRetentionMs;
+
+    private final Map<String, RedriveJob> jobs = new ConcurrentHashMap<>();
+
+    // A single worker thread so concurrent redrives never add up to more than one job's rate
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dlq-redrive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public DeadLetterRedriveService(DeadLetterService deadLetterService,
+                                    JmsTemplate jmsTemplate,
+                                    CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.deadLetterService = deadLetterService;
+        this.jmsTemplate = jmsTemplate;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a redrive of the dead letters matching the request
+     *
+     * @return The initial state of the job
+     */
+    public RedriveJobResponse startRedrive(RedriveRequest request) {
+        int rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+        rate = Math.min(rate, maxRatePerSecond);
+
+        evictFinishedJobs();
+        RedriveJob job = new RedriveJob(UUID.randomUUID().toString(), request, rate);
+        job.total = deadLetterService.countRedriveCandidates(
+                request.getReason(), request.getFrom(), request.getTo());
+        jobs.put(job.id, job);
+
+        logger.info("Queued DLQ redrive job {}: reason={}, from={}, to={}, rate={}/s, candidates={}",
+                job.id, request.getReason(), request.getFrom(), request.getTo(), rate, job.total);
+
+        executor.submit(() -> run(job));
+        return job.toResponse();
+    }
+
+    public RedriveJobResponse getJob(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    public List<RedriveJobResponse> getJobs() {
+        evictFinishedJobs();
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((RedriveJob job) -> job.createdAt).reversed())
+                .map(RedriveJob::toResponse)
+                .toList();
+    }
+
+    public RedriveJobResponse cancel(String jobId) {
+        RedriveJob job = findJob(jobId);
+        job.cancelled = true;
+        if (job.status == Status.QUEUED) {
+            job.finish(Status.CANCELLED);
+        }
+        logger.info("Cancellation requested for DLQ redrive job {}", jobId);
+        return job.toResponse();
+    }
+
+    /**
+     * Drops jobs that finished more than finished-job-retention-ms ago
+     */
+    private void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minusMillis(finishedJobRetentionMs);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private RedriveJob findJob(String jobId) {
+        RedriveJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Redrive job not found: " + jobId);
+        }
+        return job;
+    }
+
+    void run(RedriveJob job) {
+        if (job.cancelled) {
+            return;
+        }
+
+        MDC.put("transactionId", "redrive-" + job.id);
+        job.status = Status.RUNNING;
+        job.startedAt = Instant.now();
+
+        RateLimiter rateLimiter = RateLimiter.of("dlq-redrive-" + job.id, RateLimiterConfig.custom()
+                .limitForPeriod(job.ratePerSecond)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofSeconds(1))
+                .build());
+
+        try {
+            String lastId = null;
+            while (!job.cancelled) {
+                List<DeadLetterDocument> page = deadLetterService.findRedriveCandidates(
+                        job.request.getReason(), job.request.getFrom(), job.request.getTo(), lastId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                for (DeadLetterDocument deadLetter : page) {
+                    if (job.cancelled) {
+                        break;
+                    }
+                    lastId = deadLetter.getId();
+                    awaitCapacity(job, rateLimiter);
+                    if (!job.cancelled) {
+                        redrive(job, deadLetter);
+                    }
+                }
+            }
+
+            job.finish(job.cancelled ? Status.CANCELLED : Status.COMPLETED);
+            logger.info("DLQ redrive job {} {}: sent={}, skipped={}, failed={}",
+                    job.id, job.status, job.sent.get(), job.skipped.get(), job.failed.get());
+        } catch (Exception e) {
+            job.lastError = e.getMessage();
+            job.finish(Status.FAILED);
+            logger.error("DLQ redrive job {} failed: {}", job.id, e.getMessage(), e);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Blocks until the workloadService breaker is closed and the job's rate allows another message
+     */
+    private void awaitCapacity(RedriveJob job, RateLimiter rateLimiter) throws InterruptedException {
+        while (!job.cancelled) {
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                job.status = Status.WAITING_FOR_MONGO;
+                Thread.sleep(breakerWaitMs);
+                continue;
+            }
+
+            job.status = Status.RUNNING;
+            if (rateLimiter.acquirePermission()) {
+                return;
+            }
+        }
+    }
+
+    private void redrive(RedriveJob job, DeadLetterDocument deadLetter) {
+        if (deadLetter.getMessage() == null) {
+            // Unreadable payloads can't be replayed; they stay in the store for inspection
+            job.skipped.incrementAndGet();
+            return;
+        }
+
+        // Claim first: a crash after the send leaves it marked, never sent twice by a later job
+        if (!deadLetterService.markRedriven(deadLetter.getId(), job.id)) {
+            job.skipped.incrementAndGet();
+            return;
+        }
+
+        try {
+            jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_BACKFILL_QUEUE, deadLetter.getMessage(), m -> {
+                m.setStringProperty("redrive.job.id", job.id);
+                m.setStringProperty("redrive.dead.letter.id", deadLetter.getId());
+                return m;
+            });
+            job.sent.incrementAndGet();
+        } catch (Exception e) {
+            job.failed.incrementAndGet();
+            job.lastError = e.getMessage();
+            logger.error("Failed to redrive dead letter {}: {}", deadLetter.getId(), e.getMessage(), e);
+            releaseClaim(job, deadLetter);
+        }
+    }
+
+    private void releaseClaim(RedriveJob job, DeadLetterDocument deadLetter) {
+        try {
+            deadLetterService.clearRedriven(deadLetter.getId(), job.id);
+        } catch (Exception e) {
+            logger.error("Dead letter {} stays marked as redriven by job {} but was not sent: {}",
+                    deadLetter.getId(), job.id, e.getMessage());
+        }
+    }
+
+    static class RedriveJob {
+        private final String id;
+        private final RedriveRequest request;
+        private final int ratePerSecond;
+        private final Instant createdAt = Instant.now();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile long total;
+        private volatile Status status = Status.QUEUED;
+        private volatile boolean cancelled;
+        private volatile Instant startedAt;
+        private volatile Instant completedAt;
+        private volatile String lastError;
+
+        RedriveJob(String id, RedriveRequest request, int ratePerSecond) {
+            this.id = id;
+            this.request = request;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        void finish(Status finalStatus) {
+            status = finalStatus;
+            completedAt = Instant.now();
+        }
+
+        RedriveJobResponse toResponse() {
+            RedriveJobResponse response = new RedriveJobResponse();
+            response.setJobId(id);
+            response.setStatus(status.name());
+            response.setRatePerSecond(ratePerSecond);
+            response.setTotal(total);
+            response.setSent(sent.get());
+            response.setSkipped(skipped.get());
+            response.setFailed(failed.get());
+            response.setStartedAt(startedAt);
+            response.setCompletedAt(completedAt);
+            response.setLastError(lastError);
+            return response;
+        }
+    }
+}
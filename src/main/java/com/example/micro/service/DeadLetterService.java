@@ -0,0 +1,205 @@
+package com.example.micro.service;
+
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.dto.DeadLetterCountResponse;
+import com.example.micro.repository.DeadLetterRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Stores dead-lettered workload messages and answers failure-analysis queries over them.
+ */
+@Service
+public class DeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+
+    public enum TimeBucket {
+        HOUR("%Y-%m-%dT%H:00"),
+        DAY("%Y-%m-%d");
+
+        private final String format;
+
+        TimeBucket(String format) {
+            this.format = format;
+        }
+    }
+
+    private final DeadLetterRepository deadLetterRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public DeadLetterService(DeadLetterRepository deadLetterRepository, MongoTemplate mongoTemplate) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Stores a batch of dead letters with a single bulk insert
+     */
+    public void saveBatch(List<DeadLetterDocument> deadLetters) {
+        if (deadLetters.isEmpty()) {
+            return;
+        }
+
+        deadLetterRepository.saveAll(deadLetters);
+        logger.debug("MongoDB: Stored {} dead letters", deadLetters.size());
+    }
+
+    /**
+     * Find dead letters matching the given filters, newest first. Null filters are ignored.
+     */
+    public List<DeadLetterDocument> findDeadLetters(String reason, String username,
+                                                    Instant from, Instant to, int page, int size) {
+        Query query = new Query(buildCriteria(reason, username, from, to))
+                .with(Sort.by(Sort.Direction.DESC, "receivedAt"))
+                .skip((long) page * size)
+                .limit(size);
+
+        return mongoTemplate.find(query, DeadLetterDocument.class);
+    }
+
+    /**
+     * Find the next dead letters that have not been redriven yet, in insertion order
+     *
+     * @param afterId Only return dead letters after this id, null to start from the beginning
+     */
+    public List<DeadLetterDocument> findRedriveCandidates(String reason, Instant from, Instant to,
+                                                          String afterId, int limit) {
+        Criteria criteria = buildCriteria(reason, null, from, to).and("redrivenAt").is(null);
+        if (afterId != null) {
+            criteria.and("_id").gt(new ObjectId(afterId));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+
+        return mongoTemplate.find(query, DeadLetterDocument.class);
+    }
+
+    /**
+     * Count dead letters that have not been redriven yet
+     */
+    public long countRedriveCandidates(String reason, Instant from, Instant to) {
+        Criteria criteria = buildCriteria(reason, null, from, to).and("redrivenAt").is(null);
+        return mongoTemplate.count(new Query(criteria), DeadLetterDocument.class);
+    }
+
+    /**
+     * Claim a dead letter for a redrive job before it is sent back, so it is sent at most
+     * once even when several jobs or instances pick it up
+     *
+     * @return false if the dead letter was already redriven
+     */
+    public boolean markRedriven(String id, String redriveJobId) {
+        Query query = new Query(Criteria.where("_id").is(new ObjectId(id)).and("redrivenAt").is(null));
+        Update update = new Update()
+                .set("redriveJobId", redriveJobId)
+                .set("redrivenAt", Instant.now());
+
+        return mongoTemplate.updateFirst(query, update, DeadLetterDocument.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Release a redrive claim after the send failed, so a later job picks the dead letter up again
+     */
+    public void clearRedriven(String id, String redriveJobId) {
+        Query query = new Query(Criteria.where("_id").is(new ObjectId(id)).and("redriveJobId").is(redriveJobId));
+        Update update = new Update()
+                .unset("redriveJobId")
+                .unset("redrivenAt");
+
+        mongoTemplate.updateFirst(query, update, DeadLetterDocument.class);
+    }
+
+    /**
+     * Count dead letters per error reason
+     */
+    public List<DeadLetterCountResponse> countByReason(Instant from, Instant to) {
+        return countBy(Aggregation.group("errorReason").count().as("count"), from, to);
+    }
+
+    /**
+     * Count dead letters per failure classification code
+     */
+    public List<DeadLetterCountResponse> countByErrorCode(Instant from, Instant to) {
+        return countBy(Aggregation.group("errorCode").count().as("count"), from, to);
+    }
+
+    /**
+     * Count dead letters per trainer
+     */
+    public List<DeadLetterCountResponse> countByTrainer(Instant from, Instant to) {
+        return countBy(Aggregation.group("username").count().as("count"), from, to);
+    }
+
+    /**
+     * Count dead letters per hour or day in which they were received
+     */
+    public List<DeadLetterCountResponse> countByTimeBucket(TimeBucket bucket, Instant from, Instant to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(buildCriteria(null, null, from, to)),
+                Aggregation.project()
+                        .and(DateOperators.dateOf("receivedAt").toString(bucket.format)).as("bucket"),
+                Aggregation.group("bucket").count().as("count"),
+                Aggregation.sort(Sort.Direction.ASC, "_id")
+        );
+
+        return toCounts(mongoTemplate.aggregate(aggregation, DeadLetterDocument.class, Document.class));
+    }
+
+    private List<DeadLetterCountResponse> countBy(GroupOperation group, Instant from, Instant to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(buildCriteria(null, null, from, to)),
+                group,
+                Aggregation.sort(Sort.Direction.DESC, "count")
+        );
+
+        return toCounts(mongoTemplate.aggregate(aggregation, DeadLetterDocument.class, Document.class));
+    }
+
+    private List<DeadLetterCountResponse> toCounts(AggregationResults<Document> results) {
+        return results.getMappedResults().stream()
+                .map(doc -> new DeadLetterCountResponse(
+                        String.valueOf(doc.get("_id")),
+                        ((Number) doc.get("count")).longValue()))
+                .toList();
+    }
+
+    private Criteria buildCriteria(String reason, String username, Instant from, Instant to) {
+        Criteria criteria = new Criteria();
+
+        if (reason != null) {
+            criteria.and("errorReason").is(reason);
+        }
+        if (username != null) {
+            criteria.and("username").is(username);
+        }
+        if (from != null && to != null) {
+            criteria.and("receivedAt").gte(from).lt(to);
+        } else if (from != null) {
+            criteria.and("receivedAt").gte(from);
+        } else if (to != null) {
+            criteria.and("receivedAt").lt(to);
+        }
+
+        return criteria;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.micro.service;
+
+import com.example.micro.exception.UnknownMessageTypeException;
+import com.example.micro.messaging.WorkloadMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes workload messages to the MongoDB trainer_workloads collection.
+ * This is the primary store and always runs first.
+ */
+@Component
+@Order(1)
+public class MongoWorkloadSink implements WorkloadSink {
+
+    private final WorkloadService workloadService;
+
+    @Autowired
+    public MongoWorkloadSink(WorkloadService workloadService) {
+        this.workloadService = workloadService;
+    }
+
+    @Override
+    public String getName() {
+        return "mongo";
+    }
+
+    @Override
+    public void write(WorkloadMessage message) {
+        switch (message.getMessageType()) {
+            case CREATE_UPDATE:
+                workloadService.updateWorkloadAtomic(message);
+                break;
+            case DELETE:
+                workloadService.deleteWorkload(message.getUsername(), message.getYear(), message.getMonth());
+                break;
+            default:
+                throw new UnknownMessageTypeException("Unknown message type: " + message.getMessageType());
+        }
+    }
+
+    @Override
+    public List<RuntimeException> writeAll(List<WorkloadMessage> messages) {
+        return workloadService.writeBatch(messages);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.micro.service;
+
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.exception.UnknownMessageTypeException;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.model.MonthSummary;
+import com.example.micro.model.TrainerWorkload;
+import com.example.micro.model.YearSummary;
+import com.example.micro.repository.TrainerWorkloadJpaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Optional relational projection of trainer workloads, kept in the JPA database.
+ * Enabled with workload.ingest.relational-sink.enabled=true.
+ */
+@Component
+@Order(2)
+@ConditionalOnProperty(name = "workload.ingest.relational-sink.enabled", havingValue = "true")
+public class RelationalWorkloadSink implements WorkloadSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelationalWorkloadSink.class);
+
+    private final TrainerWorkloadJpaRepository trainerWorkloadRepository;
+
+    @Autowired
+    public RelationalWorkloadSink(TrainerWorkloadJpaRepository trainerWorkloadRepository) {
+        this.trainerWorkloadRepository = trainerWorkloadRepository;
+    }
+
+    @Override
+    public String getName() {
+        return "relational";
+    }
+
+    @Override
+    @Transactional
+    public void write(WorkloadMessage message) {
+        switch (message.getMessageType()) {
+            case CREATE_UPDATE:
+                updateOrCreate(message);
+                break;
+            case DELETE:
+                delete(message);
+                break;
+            default:
+                throw new UnknownMessageTypeException("Unknown message type: " + message.getMessageType());
+        }
+    }
+
+    private void updateOrCreate(WorkloadMessage message) {
+        TrainerWorkload trainer = trainerWorkloadRepository.findById(message.getUsername())
+                .orElseGet(() -> new TrainerWorkload(message.getUsername(), message.getFirstName(),
+                        message.getLastName(), message.isActive()));
+
+        trainer.setFirstName(message.getFirstName());
+        trainer.setLastName(message.getLastName());
+        trainer.setActive(message.isActive());
+
+        // Find or create the year
+        YearSummary targetYear = findYear(trainer, message.getYear());
+        if (targetYear == null) {
+            targetYear = new YearSummary();
+            targetYear.setYear(message.getYear());
+            targetYear.setTrainerUsername(message.getUsername());
+            trainer.getYears().add(targetYear);
+        }
+
+        // Find or create the month
+        MonthSummary targetMonth = null;
+        for (MonthSummary monthSummary : targetYear.getMonths()) {
+            if (monthSummary.getMonth() == message.getMonth()) {
+                targetMonth = monthSummary;
+                break;
+            }
+        }
+        if (targetMonth == null) {
+            targetMonth = new MonthSummary();
+            targetMonth.setMonth(message.getMonth());
+            targetYear.getMonths().add(targetMonth);
+        }
+
+        // Same semantics as the MongoDB store: the message carries the month's total
+        targetMonth.setSummaryDuration(message.getTrainingDuration());
+
+        trainerWorkloadRepository.save(trainer);
+        logger.debug("JPA: Updated trainer workload: {}", trainer.getUsername());
+    }
+
+    private void delete(WorkloadMessage message) {
+        TrainerWorkload trainer = trainerWorkloadRepository.findById(message.getUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("Trainer not found: " + message.getUsername()));
+
+        YearSummary yearSummary = findYear(trainer, message.getYear());
+        if (yearSummary == null
+                || !yearSummary.getMonths().removeIf(m -> m.getMonth() == message.getMonth())) {
+            throw new ResourceNotFoundException("Workload not found for trainer: " + message.getUsername()
+                    + " for period: " + message.getYear() + "/" + message.getMonth());
+        }
+
+        // If year is now empty, remove it
+        if (yearSummary.getMonths().isEmpty()) {
+            trainer.getYears().remove(yearSummary);
+        }
+
+        trainerWorkloadRepository.save(trainer);
+        logger.debug("JPA: Deleted workload for trainer: {}, period: {}/{}",
+                message.getUsername(), message.getYear(), message.getMonth());
+    }
+
+    private YearSummary findYear(TrainerWorkload trainer, int year) {
+        for (YearSummary yearSummary : trainer.getYears()) {
+            if (yearSummary.getYear() == year) {
+                return yearSummary;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.micro.service;
+
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.messaging.WorkloadMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes each ingested workload message to every configured sink exactly once,
+ * in sink order. MongoDB is always first; further sinks are optional projections.
+ */
+@Service
+public class WorkloadIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadIngestPipeline.class);
+
+    private final List<WorkloadSink> sinks;
+
+    @Autowired
+    public WorkloadIngestPipeline(List<WorkloadSink> sinks) {
+        this.sinks = List.copyOf(sinks);
+        logger.info("Workload ingest sinks: {}", this.sinks.stream().map(WorkloadSink::getName).toList());
+    }
+
+    /**
+     * Apply a validated message to all sinks
+     *
+     * @param message The workload message
+     * @throws ResourceNotFoundException If a DELETE found nothing to delete in any sink
+     */
+    public void ingest(WorkloadMessage message) {
+        ResourceNotFoundException notFound = null;
+
+        for (WorkloadSink sink : sinks) {
+            try {
+                sink.write(message);
+            } catch (ResourceNotFoundException e) {
+                // Already gone in this store; the other stores still get their write
+                logger.warn("Sink {}: {}", sink.getName(), e.getMessage());
+                notFound = e;
+            }
+        }
+
+        if (notFound != null) {
+            throw notFound;
+        }
+    }
+
+    /**
+     * Apply a batch of validated messages to all sinks, one writeAll call per sink. As with
+     * ingest, a message that failed in a sink is not written to the sinks after it, while a
+     * DELETE that found nothing still is.
+     *
+     * @param messages The workload messages, in arrival order
+     * @return For each message, null if it was written, or the exception it failed with
+     */
+    public List<RuntimeException> ingestAll(List<WorkloadMessage> messages) {
+        List<RuntimeException> failures = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            failures.add(null);
+        }
+
+        for (WorkloadSink sink : sinks) {
+            List<Integer> pending = new ArrayList<>();
+            for (int i = 0; i < messages.size(); i++) {
+                if (failures.get(i) == null || failures.get(i) instanceof ResourceNotFoundException) {
+                    pending.add(i);
+                }
+            }
+            if (pending.isEmpty()) {
+                break;
+            }
+
+            List<RuntimeException> sinkFailures = sink.writeAll(pending.stream().map(messages::get).toList());
+            for (int j = 0; j < pending.size(); j++) {
+                RuntimeException failure = sinkFailures.get(j);
+                if (failure instanceof ResourceNotFoundException) {
+                    // Already gone in this store; the other stores still get their write
+                    logger.warn("Sink {}: {}", sink.getName(), failure.getMessage());
+                    if (failures.get(pending.get(j)) == null) {
+                        failures.set(pending.get(j), failure);
+                    }
+                } else if (failure != null) {
+                    failures.set(pending.get(j), failure);
+                }
+            }
+        }
+        return failures;
+    }
+
+    public List<WorkloadSink> getSinks() {
+        return sinks;
+    }
+}
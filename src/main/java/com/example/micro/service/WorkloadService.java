@@ -2,34 +2,67 @@ package com.example.micro.service;
 
 import com.example.micro.document.TrainerWorkloadDocument;
 import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.exception.UnknownMessageTypeException;
+import com.example.micro.messaging.WorkloadChangeEvent;
 import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.metrics.WorkloadMetrics;
 import com.example.micro.repository.TrainerWorkloadRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class WorkloadService {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkloadService.class);
 
+    // Name of the resilience4j circuit breaker guarding MongoDB writes on the ingest path
+    public static final String CIRCUIT_BREAKER = "workloadService";
+
+    // Saves of one trainer document that lose a concurrent-update race are retried this often
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+
+    private static final int DUPLICATE_KEY = 11000;
+
     private final TrainerWorkloadRepository workloadRepository;
     private final MongoTemplate mongoTemplate;
+    private final WorkloadMetrics metrics;
+
+    @Value("${workload.outbox.enabled:true}")
+    private boolean outboxEnabled;
 
     @Autowired
-    public WorkloadService(TrainerWorkloadRepository workloadRepository, MongoTemplate mongoTemplate) {
+    public WorkloadService(TrainerWorkloadRepository workloadRepository, MongoTemplate mongoTemplate,
+                           WorkloadMetrics metrics) {
         this.workloadRepository = workloadRepository;
         this.mongoTemplate = mongoTemplate;
+        this.metrics = metrics;
     }
 
     /**
@@ -37,6 +70,10 @@ public class WorkloadService {
      * @param message The workload message with trainer and training info
      */
     public void processWorkloadMessage(WorkloadMessage message) {
+        metrics.timeOperation("processWorkloadMessage", () -> doProcessWorkloadMessage(message));
+    }
+
+    private void doProcessWorkloadMessage(WorkloadMessage message) {
         String transactionId = message.getTransactionId();
         MDC.put("transactionId", transactionId);
 
@@ -46,10 +83,10 @@ public class WorkloadService {
         try {
             switch (message.getMessageType()) {
                 case CREATE_UPDATE:
-                    updateWorkloadAtomic(message);
+                    doUpdateWorkloadAtomic(message);
                     break;
                 case DELETE:
-                    deleteWorkload(message.getUsername(), message.getYear(), message.getMonth());
+                    doDeleteWorkload(message.getUsername(), message.getYear(), message.getMonth());
                     break;
                 default:
                     logger.warn("Unknown message type: {}", message.getMessageType());
@@ -69,6 +106,10 @@ public class WorkloadService {
 
     // In WorkloadService.java
     public boolean workloadExists(String username, Integer year, Integer month) {
+        return metrics.timeOperation("workloadExists", () -> doWorkloadExists(username, year, month));
+    }
+
+    private boolean doWorkloadExists(String username, Integer year, Integer month) {
         // Implement logic to check if workload exists
         // This depends on your data access layer
         try {
@@ -76,6 +117,9 @@ public class WorkloadService {
             return workloadRepository.findByUsernameAndYearAndMonth(username, year, month) != null;
         } catch (Exception e) {
             logger.error("Error checking if workload exists for trainer: {}, period: {}/{}", username, year, month, e);
+            if (e instanceof DataAccessException || e instanceof MongoException) {
+                metrics.mongoError("workloadExists", e);
+            }
             return false;
         }
     }
@@ -85,6 +129,10 @@ public class WorkloadService {
      * This method is now corrected to properly update existing month records.
      */
     public void updateWorkloadAtomic(WorkloadMessage message) {
+        metrics.timeOperation("updateWorkloadAtomic", () -> doUpdateWorkloadAtomic(message));
+    }
+
+    private void doUpdateWorkloadAtomic(WorkloadMessage message) {
         String transactionId = message.getTransactionId();
         MDC.put("transactionId", transactionId);
 
@@ -92,75 +140,89 @@ public class WorkloadService {
                 message.getUsername(), message.getYear(), message.getMonth());
 
         try {
-            // Check if trainer exists
-            boolean trainerExists = workloadRepository.existsById(message.getUsername());
+            retryOnConflict(() -> applyWorkloadUpdate(message));
+        } catch (Exception e) {
+            logger.error("MongoDB: Error processing atomic workload update: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
 
-            if (!trainerExists) {
-                // Create new trainer document
-                logger.info("MongoDB: Trainer not found, creating new record for: {}", message.getUsername());
-                createNewTrainerWorkload(message);
-                return;
-            }
+    private void applyWorkloadUpdate(WorkloadMessage message) {
+        // Check if trainer exists
+        boolean trainerExists = workloadRepository.existsById(message.getUsername());
 
-            // Fetch the entire trainer document first
-            Optional<TrainerWorkloadDocument> trainerOpt = workloadRepository.findById(message.getUsername());
+        if (!trainerExists) {
+            // Create new trainer document
+            logger.info("MongoDB: Trainer not found, creating new record for: {}", message.getUsername());
+            createNewTrainerWorkload(message);
+            return;
+        }
 
-            if (trainerOpt.isPresent()) {
-                TrainerWorkloadDocument trainer = trainerOpt.get();
+        // Fetch the entire trainer document first
+        Optional<TrainerWorkloadDocument> trainerOpt = workloadRepository.findById(message.getUsername());
+
+        if (trainerOpt.isPresent()) {
+            TrainerWorkloadDocument trainer = trainerOpt.get();
+            adoptLegacyDocument(trainer);
+            updateTrainer(trainer, message);
+
+            // Save the entire updated document
+            workloadRepository.save(trainer);
+            logger.debug("MongoDB: Updated trainer workload document: {}", trainer.getUsername());
+        } else {
+            // This shouldn't happen since we checked existsById, but just in case
+            logger.warn("MongoDB: Trainer not found after existsById check: {}", message.getUsername());
+            createNewTrainerWorkload(message);
+        }
+    }
 
-                // Update basic trainer info
-                trainer.setFirstName(message.getFirstName());
-                trainer.setLastName(message.getLastName());
-                trainer.setActive(message.isActive());
+    /**
+     * Applies a CREATE_UPDATE message to a trainer document in memory, recording its outbox event
+     */
+    private void updateTrainer(TrainerWorkloadDocument trainer, WorkloadMessage message) {
+        // Update basic trainer info
+        trainer.setFirstName(message.getFirstName());
+        trainer.setLastName(message.getLastName());
+        trainer.setActive(message.isActive());
 
-                // Find or create the year
-                TrainerWorkloadDocument.YearSummary targetYear = null;
-                for (TrainerWorkloadDocument.YearSummary yearSummary : trainer.getYears()) {
-                    if (yearSummary.getYear() == message.getYear()) {
-                        targetYear = yearSummary;
-                        break;
-                    }
-                }
+        // Find or create the year
+        TrainerWorkloadDocument.YearSummary targetYear = null;
+        for (TrainerWorkloadDocument.YearSummary yearSummary : trainer.getYears()) {
+            if (yearSummary.getYear() == message.getYear()) {
+                targetYear = yearSummary;
+                break;
+            }
+        }
 
-                // If year doesn't exist, create it
-                if (targetYear == null) {
-                    targetYear = new TrainerWorkloadDocument.YearSummary();
-                    targetYear.setYear(message.getYear());
-                    targetYear.setMonths(new ArrayList<>());
-                    trainer.getYears().add(targetYear);
-                }
+        // If year doesn't exist, create it
+        if (targetYear == null) {
+            targetYear = new TrainerWorkloadDocument.YearSummary();
+            targetYear.setYear(message.getYear());
+            targetYear.setMonths(new ArrayList<>());
+            trainer.getYears().add(targetYear);
+        }
 
-                // Find or create the month
-                TrainerWorkloadDocument.MonthSummary targetMonth = null;
-                for (TrainerWorkloadDocument.MonthSummary monthSummary : targetYear.getMonths()) {
-                    if (monthSummary.getMonth() == message.getMonth()) {
-                        targetMonth = monthSummary;
-                        break;
-                    }
-                }
+        // Find or create the month
+        TrainerWorkloadDocument.MonthSummary targetMonth = null;
+        for (TrainerWorkloadDocument.MonthSummary monthSummary : targetYear.getMonths()) {
+            if (monthSummary.getMonth() == message.getMonth()) {
+                targetMonth = monthSummary;
+                break;
+            }
+        }
 
-                // If month doesn't exist, create it
-                if (targetMonth == null) {
-                    targetMonth = new TrainerWorkloadDocument.MonthSummary();
-                    targetMonth.setMonth(message.getMonth());
-                    targetYear.getMonths().add(targetMonth);
-                }
+        // If month doesn't exist, create it
+        if (targetMonth == null) {
+            targetMonth = new TrainerWorkloadDocument.MonthSummary();
+            targetMonth.setMonth(message.getMonth());
+            targetYear.getMonths().add(targetMonth);
+        }
 
-                // Update the training duration
-                targetMonth.setTrainingsSummaryDuration(message.getTrainingDuration());
+        // Update the training duration
+        targetMonth.setTrainingsSummaryDuration(message.getTrainingDuration());
 
-                // Save the entire updated document
-                workloadRepository.save(trainer);
-                logger.debug("MongoDB: Updated trainer workload document: {}", trainer.getUsername());
-            } else {
-                // This shouldn't happen since we checked existsById, but just in case
-                logger.warn("MongoDB: Trainer not found after existsById check: {}", message.getUsername());
-                createNewTrainerWorkload(message);
-            }
-        } catch (Exception e) {
-            logger.error("MongoDB: Error processing atomic workload update: {}", e.getMessage(), e);
-            throw e;
-        }
+        recordChange(trainer, WorkloadChangeEvent.Type.WORKLOAD_UPDATED,
+                message.getYear(), message.getMonth(), message.getTrainingDuration());
     }
 
     /**
@@ -188,6 +250,9 @@ public class WorkloadService {
         // Add year to trainer
         trainer.getYears().add(yearSummary);
 
+        recordChange(trainer, WorkloadChangeEvent.Type.WORKLOAD_UPDATED,
+                message.getYear(), message.getMonth(), message.getTrainingDuration());
+
         // Save to MongoDB
         workloadRepository.save(trainer);
         logger.debug("MongoDB: Created new trainer workload document: {}", trainer.getUsername());
@@ -197,6 +262,10 @@ public class WorkloadService {
      * Delete a specific month's workload
      */
     public void deleteWorkload(String username, int year, int month) {
+        metrics.timeOperation("deleteWorkload", () -> doDeleteWorkload(username, year, month));
+    }
+
+    private void doDeleteWorkload(String username, int year, int month) {
         String transactionId = MDC.get("transactionId");
         if (transactionId == null) {
             transactionId = "no-transaction-id";
@@ -205,6 +274,10 @@ public class WorkloadService {
         logger.info("MongoDB: Deleting workload for trainer: {}, period: {}/{}",
                 username, year, month);
 
+        retryOnConflict(() -> applyWorkloadDelete(username, year, month));
+    }
+
+    private void applyWorkloadDelete(String username, int year, int month) {
         // Check if trainer exists
         boolean trainerExists = workloadRepository.existsById(username);
         if (!trainerExists) {
@@ -230,6 +303,22 @@ public class WorkloadService {
         // Find the document to remove the month
         TrainerWorkloadDocument trainer = workloadRepository.findById(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Trainer not found: " + username));
+        adoptLegacyDocument(trainer);
+        removeMonth(trainer, year, month);
+
+        // Save the updated document
+        workloadRepository.save(trainer);
+        logger.debug("MongoDB: Deleted workload for trainer: {}, period: {}/{}",
+                username, year, month);
+    }
+
+    /**
+     * Removes a month from a trainer document in memory, recording its outbox event
+     *
+     * @throws ResourceNotFoundException If the trainer has no workload for that month
+     */
+    private void removeMonth(TrainerWorkloadDocument trainer, int year, int month) {
+        String username = trainer.getUsername();
 
         // Find the year
         TrainerWorkloadDocument.YearSummary yearSummary = null;
@@ -248,23 +337,259 @@ public class WorkloadService {
         }
 
         // Find and remove the month
-        yearSummary.getMonths().removeIf(m -> m.getMonth() == month);
+        if (!yearSummary.getMonths().removeIf(m -> m.getMonth() == month)) {
+            throw new ResourceNotFoundException(
+                    "Workload not found for trainer: " + username +
+                            " for period: " + year + "/" + month);
+        }
 
         // If year is now empty, remove it
         if (yearSummary.getMonths().isEmpty()) {
             trainer.getYears().remove(yearSummary);
         }
 
-        // Save the updated document
-        workloadRepository.save(trainer);
-        logger.debug("MongoDB: Deleted workload for trainer: {}, period: {}/{}",
-                username, year, month);
+        recordChange(trainer, WorkloadChangeEvent.Type.WORKLOAD_DELETED, year, month, 0);
+    }
+
+    /**
+     * Applies a batch of workload messages with one read of the trainer documents they touch
+     * and one bulk write. Messages for the same trainer are applied to its document in order.
+     * Each document is replaced only if its version is still the one read; a trainer whose
+     * document changed or was created concurrently has its messages written again on their own.
+     *
+     * @param messages Validated messages, in arrival order
+     * @return For each message, null if it was applied or the exception it failed with,
+     *         e.g. ResourceNotFoundException for a DELETE of a missing workload
+     */
+    public List<RuntimeException> writeBatch(List<WorkloadMessage> messages) {
+        return metrics.timeOperation("writeBatch", () -> doWriteBatch(messages));
+    }
+
+    private List<RuntimeException> doWriteBatch(List<WorkloadMessage> messages) {
+        RuntimeException[] failures = new RuntimeException[messages.size()];
+
+        // Message indexes per trainer, in arrival order
+        Map<String, List<Integer>> byTrainer = new LinkedHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            byTrainer.computeIfAbsent(messages.get(i).getUsername(), username -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, TrainerWorkloadDocument> trainers = new HashMap<>();
+        for (TrainerWorkloadDocument trainer : mongoTemplate.find(
+                new Query(Criteria.where("_id").in(byTrainer.keySet())), TrainerWorkloadDocument.class)) {
+            adoptLegacyDocument(trainer);
+            trainers.put(trainer.getUsername(), trainer);
+        }
+
+        String previousTransactionId = MDC.get("transactionId");
+        List<String> changed = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrainerWorkloadDocument.class);
+        try {
+            for (Map.Entry<String, List<Integer>> entry : byTrainer.entrySet()) {
+                String username = entry.getKey();
+                TrainerWorkloadDocument trainer = trainers.get(username);
+                boolean exists = trainer != null;
+                boolean modified = false;
+
+                for (int i : entry.getValue()) {
+                    WorkloadMessage message = messages.get(i);
+                    MDC.put("transactionId", message.getTransactionId());
+                    try {
+                        if (trainer == null) {
+                            trainer = newTrainer(message);
+                        }
+                        applyInMemory(trainer, message);
+                        modified = true;
+                    } catch (RuntimeException e) {
+                        failures[i] = e;
+                    }
+                }
+
+                if (!modified) {
+                    continue;
+                }
+                changed.add(username);
+                if (exists) {
+                    long version = trainer.getVersion();
+                    trainer.setVersion(version + 1);
+                    // Upserts on a version mismatch, which fails on the _id and marks the conflict
+                    bulk.replaceOne(new Query(Criteria.where("_id").is(username).and("version").is(version)),
+                            trainer, FindAndReplaceOptions.options().upsert());
+                } else {
+                    trainer.setVersion(0L);
+                    bulk.insert(trainer);
+                }
+            }
+        } finally {
+            restoreTransactionId(previousTransactionId);
+        }
+
+        if (changed.isEmpty()) {
+            return Arrays.asList(failures);
+        }
+
+        try {
+            bulk.execute();
+        } catch (DataAccessException e) {
+            List<BulkWriteError> errors = bulkWriteErrors(e);
+            if (errors == null) {
+                throw e;
+            }
+            for (BulkWriteError error : errors) {
+                List<Integer> indexes = byTrainer.get(changed.get(error.getIndex()));
+                if (error.getCode() == DUPLICATE_KEY) {
+                    // Nothing of this trainer was written; write its messages again against the current document
+                    logger.debug("MongoDB: Concurrent update of trainer {} in a bulk write, writing its messages one by one",
+                            changed.get(error.getIndex()));
+                    for (int i : indexes) {
+                        failures[i] = writeAlone(messages.get(i));
+                    }
+                } else {
+                    MongoException failure = new MongoException(error.getCode(), error.getMessage());
+                    for (int i : indexes) {
+                        failures[i] = failure;
+                    }
+                }
+            }
+        }
+        logger.debug("MongoDB: Bulk wrote {} message(s) to {} trainer document(s)", messages.size(), changed.size());
+        return Arrays.asList(failures);
+    }
+
+    private TrainerWorkloadDocument newTrainer(WorkloadMessage message) {
+        if (message.getMessageType() == WorkloadMessage.MessageType.DELETE) {
+            throw new ResourceNotFoundException("Trainer not found: " + message.getUsername());
+        }
+        TrainerWorkloadDocument trainer = new TrainerWorkloadDocument();
+        trainer.setUsername(message.getUsername());
+        return trainer;
+    }
+
+    private void applyInMemory(TrainerWorkloadDocument trainer, WorkloadMessage message) {
+        switch (message.getMessageType()) {
+            case CREATE_UPDATE:
+                updateTrainer(trainer, message);
+                break;
+            case DELETE:
+                removeMonth(trainer, message.getYear(), message.getMonth());
+                break;
+            default:
+                throw new UnknownMessageTypeException("Unknown message type: " + message.getMessageType());
+        }
+    }
+
+    /**
+     * @return null if the message was applied, or the exception it failed with
+     */
+    private RuntimeException writeAlone(WorkloadMessage message) {
+        String previousTransactionId = MDC.get("transactionId");
+        MDC.put("transactionId", message.getTransactionId());
+        try {
+            if (message.getMessageType() == WorkloadMessage.MessageType.DELETE) {
+                doDeleteWorkload(message.getUsername(), message.getYear(), message.getMonth());
+            } else {
+                doUpdateWorkloadAtomic(message);
+            }
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        } finally {
+            restoreTransactionId(previousTransactionId);
+        }
+    }
+
+    private static void restoreTransactionId(String transactionId) {
+        if (transactionId != null) {
+            MDC.put("transactionId", transactionId);
+        } else {
+            MDC.remove("transactionId");
+        }
+    }
+
+    /**
+     * @return The per-document errors of a failed bulk write, or null if the whole write failed
+     */
+    private static List<BulkWriteError> bulkWriteErrors(DataAccessException e) {
+        if (e instanceof BulkOperationException bulkFailure) {
+            return bulkFailure.getErrors();
+        }
+        // Spring translates a bulk write with a duplicate key into DuplicateKeyException
+        if (e.getCause() instanceof MongoBulkWriteException bulkFailure) {
+            return bulkFailure.getWriteErrors();
+        }
+        return null;
+    }
+
+    /**
+     * Runs a read-modify-save of a trainer document again when the save lost a race: another
+     * consumer changed the document since it was read (version mismatch), or created it first
+     * (duplicate key). The retry reads the current document, so outbox sequences stay gap-free.
+     */
+    private void retryOnConflict(Runnable write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write.run();
+                return;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("MongoDB: Concurrent update of a trainer document, retrying (attempt {}): {}",
+                        attempt, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Documents written before the version field existed are read with a null version, which
+     * a save would treat as new and insert. Gives them version 0 so the save is a versioned update.
+     */
+    private void adoptLegacyDocument(TrainerWorkloadDocument trainer) {
+        if (trainer.getVersion() != null) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(trainer.getUsername()).and("version").exists(false)),
+                new Update().set("version", 0L),
+                TrainerWorkloadDocument.class);
+        trainer.setVersion(0L);
+    }
+
+    /**
+     * Appends a change event to the trainer's outbox. It is stored by the same
+     * document save as the change itself and published later by WorkloadOutboxRelay.
+     */
+    private void recordChange(TrainerWorkloadDocument trainer, WorkloadChangeEvent.Type type,
+                              int year, int month, int trainingDuration) {
+        if (!outboxEnabled) {
+            return;
+        }
+
+        long sequence = trainer.getOutboxSequence() + 1;
+        trainer.setOutboxSequence(sequence);
+
+        WorkloadChangeEvent event = new WorkloadChangeEvent();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setSequence(sequence);
+        event.setType(type);
+        event.setUsername(trainer.getUsername());
+        event.setYear(year);
+        event.setMonth(month);
+        event.setTrainingDuration(trainingDuration);
+        event.setActive(trainer.isActive());
+        event.setTransactionId(MDC.get("transactionId"));
+        event.setOccurredAt(Instant.now());
+        trainer.getOutbox().add(event);
     }
 
     /**
      * Get trainer workload document by username
      */
     public TrainerWorkloadDocument getTrainerWorkload(String username) {
+        return metrics.timeOperation("getTrainerWorkload", () -> doGetTrainerWorkload(username));
+    }
+
+    private TrainerWorkloadDocument doGetTrainerWorkload(String username) {
         String transactionId = MDC.get("transactionId");
         if (transactionId == null) {
             transactionId = "no-transaction-id";
@@ -280,6 +605,11 @@ public class WorkloadService {
      * Find trainers by first name and last name
      */
     public List<TrainerWorkloadDocument> findTrainersByFullName(String firstName, String lastName) {
+        return metrics.timeOperation("findTrainersByFullName",
+                () -> doFindTrainersByFullName(firstName, lastName));
+    }
+
+    private List<TrainerWorkloadDocument> doFindTrainersByFullName(String firstName, String lastName) {
         String transactionId = MDC.get("transactionId");
         if (transactionId == null) {
             transactionId = "no-transaction-id";
@@ -310,7 +640,12 @@ public class WorkloadService {
             String lastName,
             boolean active,
             int trainingDuration) {
+        metrics.timeOperation("updateOrCreateWorkload", () -> doUpdateOrCreateWorkload(
+                username, year, month, firstName, lastName, active, trainingDuration));
+    }
 
+    private void doUpdateOrCreateWorkload(String username, int year, int month, String firstName,
+                                          String lastName, boolean active, int trainingDuration) {
         logger.info("Updating or creating workload for trainer: {}, period: {}/{}",
                 username, year, month);
 
@@ -327,7 +662,7 @@ public class WorkloadService {
         message.setTransactionId(MDC.get("transactionId"));
 
         // Use the existing method for MongoDB updates
-        updateWorkloadAtomic(message);
+        doUpdateWorkloadAtomic(message);
 
 
     }
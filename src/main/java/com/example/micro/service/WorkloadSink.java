@@ -0,0 +1,44 @@
+package com.example.micro.service;
+
+import com.example.micro.messaging.WorkloadMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A store that ingested workload messages are written to.
+ * The ingest pipeline calls every sink exactly once per message.
+ */
+public interface WorkloadSink {
+
+    /**
+     * @return Short name of the sink, used in logs
+     */
+    String getName();
+
+    /**
+     * Apply a CREATE_UPDATE or DELETE message to the store
+     *
+     * @param message The validated workload message
+     */
+    void write(WorkloadMessage message);
+
+    /**
+     * Apply several messages in order. Sinks that can write them in one round trip override this.
+     *
+     * @param messages The validated workload messages
+     * @return For each message, null if it was applied or the exception it failed with
+     */
+    default List<RuntimeException> writeAll(List<WorkloadMessage> messages) {
+        List<RuntimeException> failures = new ArrayList<>(messages.size());
+        for (WorkloadMessage message : messages) {
+            try {
+                write(message);
+                failures.add(null);
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        }
+        return failures;
+    }
+}
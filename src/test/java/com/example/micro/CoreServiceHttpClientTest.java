@@ -0,0 +1,87 @@
+package com.example.micro;
+
+import com.example.micro.security.SecurityConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoreServiceHttpClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/auth/validate", exchange -> {
+            byte[] body = "{\"username\":\"john.doe\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.start();
+
+        SecurityConfig config = new SecurityConfig();
+        connectionManager = config.coreServiceConnectionManager(10, 5, 500, 200, 300, meterRegistry);
+        restTemplate = config.restTemplate(connectionManager, 200, 200, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void restTemplate_RepeatedCalls_ReuseOnePooledConnection() {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals("{\"username\":\"john.doe\"}",
+                    restTemplate.getForObject(url("/api/auth/validate"), String.class));
+        }
+
+        // Assert
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertEquals(10.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "coreService").gauge().value());
+        assertEquals(5.0, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", "coreService").gauge().value());
+    }
+
+    @Test
+    void restTemplate_SlowCoreService_FailsAfterResponseTimeout() {
+        // Act & Assert
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(url("/slow"), String.class));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 900);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+}
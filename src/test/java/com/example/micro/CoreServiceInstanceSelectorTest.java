@@ -0,0 +1,139 @@
+package com.example.micro;
+
+import com.example.micro.security.CoreServiceInstanceSelector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoreServiceInstanceSelectorTest {
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CoreServiceInstanceSelector selector;
+
+    @BeforeEach
+    void setUp() {
+        selector = new CoreServiceInstanceSelector(discoveryClient, "least-outstanding", meterRegistry);
+        ReflectionTestUtils.setField(selector, "coreServiceUrl", "http://localhost:8081");
+        ReflectionTestUtils.setField(selector, "discoveryEnabled", true);
+        ReflectionTestUtils.setField(selector, "serviceId", "spring-core");
+        ReflectionTestUtils.setField(selector, "maxFailures", 2);
+        ReflectionTestUtils.setField(selector, "ejectionMs", 60_000L);
+    }
+
+    @Test
+    void choose_LeastOutstanding_AvoidsBusyInstance() {
+        // Arrange
+        when(discoveryClient.getInstances("spring-core")).thenReturn(List.of(instance("core-1"), instance("core-2")));
+        CoreServiceInstanceSelector.Instance busy = selector.choose();
+
+        // Act
+        CoreServiceInstanceSelector.Instance next = selector.choose();
+
+        // Assert
+        assertNotEquals(busy.getBaseUrl(), next.getBaseUrl());
+        assertEquals(1, busy.getOutstanding());
+        selector.record(busy, 1_000_000, false);
+        assertEquals(0, busy.getOutstanding());
+    }
+
+    @Test
+    void choose_LatencyWeighted_PrefersFasterInstance() {
+        // Arrange
+        when(discoveryClient.getInstances("spring-core")).thenReturn(List.of(instance("core-1"), instance("core-2")));
+        CoreServiceInstanceSelector.Instance first = selector.choose();
+        CoreServiceInstanceSelector.Instance second = selector.choose();
+        CoreServiceInstanceSelector.Instance slow = first.getBaseUrl().contains("core-1") ? first : second;
+        CoreServiceInstanceSelector.Instance fast = slow == first ? second : first;
+        selector.record(slow, 500_000_000, false);
+        selector.record(fast, 5_000_000, false);
+        ReflectionTestUtils.setField(selector, "strategy", CoreServiceInstanceSelector.Strategy.LATENCY_WEIGHTED);
+
+        // Act & Assert
+        for (int i = 0; i < 20; i++) {
+            CoreServiceInstanceSelector.Instance chosen = selector.choose();
+            assertEquals(fast.getBaseUrl(), chosen.getBaseUrl());
+            selector.record(chosen, 5_000_000, false);
+        }
+    }
+
+    @Test
+    void constructor_UnknownBalancer_FailsAtStartup() {
+        // Act & Assert
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> new CoreServiceInstanceSelector(discoveryClient, "least-outstandng", meterRegistry));
+        assertTrue(failure.getMessage().contains("least-outstandng"));
+        assertEquals(CoreServiceInstanceSelector.Strategy.LATENCY_WEIGHTED, ReflectionTestUtils.getField(
+                new CoreServiceInstanceSelector(discoveryClient, " Latency-Weighted ", meterRegistry), "strategy"));
+    }
+
+    @Test
+    void record_ConsecutiveFailures_EjectsInstance() {
+        // Arrange
+        when(discoveryClient.getInstances("spring-core")).thenReturn(List.of(instance("core-1"), instance("core-2")));
+        CoreServiceInstanceSelector.Instance failing = selector.choose();
+        selector.record(failing, 1_000_000, true);
+
+        // Act
+        CoreServiceInstanceSelector.Instance again = selector.choose();
+        while (!again.getBaseUrl().equals(failing.getBaseUrl())) {
+            selector.record(again, 1_000_000, false);
+            again = selector.choose();
+        }
+        selector.record(again, 1_000_000, true);
+
+        // Assert
+        assertTrue(failing.isEjected());
+        for (int i = 0; i < 10; i++) {
+            CoreServiceInstanceSelector.Instance chosen = selector.choose();
+            assertNotEquals(failing.getBaseUrl(), chosen.getBaseUrl());
+            selector.record(chosen, 1_000_000, false);
+        }
+        assertEquals(1.0, meterRegistry.get("workload.security.core-service.ejections").counter().count());
+    }
+
+    @Test
+    void choose_NoInstanceRegistered_FallsBackToConfiguredUrl() {
+        // Arrange
+        when(discoveryClient.getInstances("spring-core")).thenReturn(List.of());
+
+        // Act
+        CoreServiceInstanceSelector.Instance chosen = selector.choose();
+
+        // Assert
+        assertEquals("http://localhost:8081", chosen.getBaseUrl());
+    }
+
+    @Test
+    void choose_DiscoveryDisabled_UsesConfiguredUrl() {
+        // Arrange
+        ReflectionTestUtils.setField(selector, "discoveryEnabled", false);
+
+        // Act
+        CoreServiceInstanceSelector.Instance chosen = selector.choose();
+
+        // Assert
+        assertEquals("http://localhost:8081", chosen.getBaseUrl());
+        verifyNoInteractions(discoveryClient);
+    }
+
+    private ServiceInstance instance(String host) {
+        return new DefaultServiceInstance(host, "spring-core", host, 8081, false);
+    }
+}
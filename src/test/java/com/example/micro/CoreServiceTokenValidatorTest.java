@@ -0,0 +1,189 @@
+package com.example.micro;
+
+import com.example.micro.security.CoreServiceInstanceSelector;
+import com.example.micro.security.CoreServiceTokenValidator;
+import com.example.micro.security.TokenValidationCache;
+import com.example.micro.security.ValidatedToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoreServiceTokenValidatorTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private CoreServiceInstanceSelector instanceSelector;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private CoreServiceTokenValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        when(instanceSelector.choose()).thenReturn(new CoreServiceInstanceSelector.Instance("http://core-service"));
+        validator = new CoreServiceTokenValidator(restTemplate, new ObjectMapper(),
+                new TokenValidationCache(true, 100, 300, 900, meterRegistry), instanceSelector,
+                CircuitBreakerRegistry.ofDefaults(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void validate_ConcurrentCallsForSameToken_ShareOneCoreServiceCall() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    release.await(2, TimeUnit.SECONDS);
+                    return ResponseEntity.ok("{\"username\":\"john.doe\",\"roles\":[\"ROLE_TRAINER\"]}");
+                });
+
+        // Act
+        List<Future<ValidatedToken>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> validator.validate("token")));
+        }
+        while (meterRegistry.get("workload.security.validation.coalesced").counter().count() < 3) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        // Assert
+        for (Future<ValidatedToken> result : results) {
+            assertEquals("john.doe", result.get(2, TimeUnit.SECONDS).getUsername());
+        }
+        verify(restTemplate, times(1))
+                .exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+        assertEquals(0, validator.getInFlight());
+    }
+
+    @Test
+    void validate_LeaderFailsWithError_JoinedCallsFailToo() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    release.await(2, TimeUnit.SECONDS);
+                    throw new NoClassDefFoundError("com/fasterxml/jackson/databind/JsonNode");
+                });
+
+        // Act
+        List<Future<ValidatedToken>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            results.add(executor.submit(() -> validator.validate("token")));
+        }
+        while (meterRegistry.get("workload.security.validation.coalesced").counter().count() < 1) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        // Assert
+        for (Future<ValidatedToken> result : results) {
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> result.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(NoClassDefFoundError.class, failure.getCause());
+        }
+        assertEquals(0, validator.getInFlight());
+    }
+
+    @Test
+    void validate_ClientErrorsAndUnreadableBodies_DoNotOpenCircuitBreaker() {
+        // Arrange: the ignore-exceptions of the default instance in application.properties
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .minimumNumberOfCalls(2)
+                .slidingWindowSize(2)
+                .ignoreExceptions(HttpClientErrorException.class, UncheckedIOException.class)
+                .build());
+        validator = new CoreServiceTokenValidator(restTemplate, new ObjectMapper(),
+                new TokenValidationCache(true, 100, 300, 900, meterRegistry), instanceSelector,
+                circuitBreakerRegistry, meterRegistry);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        HttpHeaders.EMPTY, null, null))
+                .thenReturn(ResponseEntity.ok("{not json"))
+                .thenReturn(ResponseEntity.ok("{\"username\":\"john.doe\",\"role\":\"ROLE_TRAINER\"}"));
+
+        // Act
+        assertThrows(HttpClientErrorException.class, () -> validator.validate("token"));
+        assertThrows(UncheckedIOException.class, () -> validator.validate("token"));
+
+        // Assert
+        assertEquals("john.doe", validator.validate("token").getUsername());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakerRegistry
+                .circuitBreaker(CoreServiceTokenValidator.CIRCUIT_BREAKER).getState());
+    }
+
+    @Test
+    void validate_CoreServiceUnavailable_FailureIsNotRemembered() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenReturn(ResponseEntity.ok("{\"username\":\"john.doe\",\"role\":\"ROLE_TRAINER\"}"));
+
+        // Act & Assert
+        assertThrows(ResourceAccessException.class, () -> validator.validate("token"));
+        assertEquals("john.doe", validator.validate("token").getUsername());
+        assertEquals(0, validator.getInFlight());
+    }
+
+    @Test
+    void validate_CoreServiceKeepsFailing_OpensCircuitBreaker() {
+        // Arrange
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .minimumNumberOfCalls(2)
+                .slidingWindowSize(2)
+                .build());
+        validator = new CoreServiceTokenValidator(restTemplate, new ObjectMapper(),
+                new TokenValidationCache(true, 100, 300, 900, meterRegistry), instanceSelector,
+                circuitBreakerRegistry, meterRegistry);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        // Act
+        assertThrows(ResourceAccessException.class, () -> validator.validate("token"));
+        assertThrows(ResourceAccessException.class, () -> validator.validate("token"));
+
+        // Assert
+        assertThrows(CallNotPermittedException.class, () -> validator.validate("token"));
+        verify(restTemplate, times(2))
+                .exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+    }
+}
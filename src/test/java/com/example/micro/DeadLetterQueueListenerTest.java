@@ -0,0 +1,175 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.messaging.DeadLetterQueueListener;
+import com.example.micro.messaging.IngestInFlightTracker;
+import com.example.micro.messaging.SessionBatchReceiver;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.messaging.WorkloadMessageConverter;
+import com.example.micro.service.DeadLetterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Session;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeadLetterQueueListenerTest {
+
+    @Mock
+    private DeadLetterService deadLetterService;
+
+    @Mock
+    private SessionBatchReceiver batchReceiver;
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private Session session;
+
+    @Captor
+    private ArgumentCaptor<List<DeadLetterDocument>> batchCaptor;
+
+    private final IngestInFlightTracker inFlightTracker = new IngestInFlightTracker(new SimpleMeterRegistry());
+
+    private DeadLetterQueueListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new DeadLetterQueueListener(deadLetterService, batchReceiver, messageConverter,
+                inFlightTracker);
+        ReflectionTestUtils.setField(listener, "batchSize", 10);
+        ReflectionTestUtils.setField(listener, "batchWindowMs", 100L);
+    }
+
+    @Test
+    void processDeadLetterMessage_StoresWholeBatchAtOnce() throws Exception {
+        // Arrange
+        ActiveMQTextMessage first = deadLetterMessage("Processing error: timeout", "tx-1", 1700000000000L);
+        ActiveMQTextMessage second = deadLetterMessage("Username is required", "tx-2", 1700000001000L);
+
+        when(batchReceiver.receiveMore(session, JmsConfig.WORKLOAD_DLQ, 9, 100L)).thenReturn(List.of(second));
+        when(messageConverter.fromMessage(first)).thenReturn(workloadMessage("trainer1", "tx-1"));
+        when(messageConverter.fromMessage(second)).thenReturn(workloadMessage("trainer2", "tx-2"));
+
+        // Act
+        listener.processDeadLetterMessage(first, session);
+
+        // Assert
+        verify(deadLetterService).saveBatch(batchCaptor.capture());
+        List<DeadLetterDocument> batch = batchCaptor.getValue();
+
+        assertEquals(2, batch.size());
+        assertEquals("Processing error: timeout", batch.get(0).getErrorReason());
+        assertEquals("tx-1", batch.get(0).getOriginalTransactionId());
+        assertEquals("trainer1", batch.get(0).getUsername());
+        assertEquals(Instant.ofEpochMilli(1700000000000L), batch.get(0).getErrorTimestamp());
+        assertEquals("CREATE_UPDATE", batch.get(0).getMessageType());
+        assertEquals("trainer2", batch.get(1).getUsername());
+        assertNotNull(batch.get(1).getReceivedAt());
+        assertEquals(0, inFlightTracker.getInFlightBatches());
+        assertEquals(0, inFlightTracker.getInFlightMessages());
+    }
+
+    @Test
+    void processDeadLetterMessage_UnreadablePayload_KeepsRawBody() throws Exception {
+        // Arrange
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText("{not json");
+        message.setStringProperty("dlqDeliveryFailureCause", "Delivery[4] exceeds redelivery policy limit");
+
+        when(batchReceiver.receiveMore(any(), anyString(), anyInt(), anyLong())).thenReturn(List.of());
+        when(messageConverter.fromMessage(message)).thenThrow(new MessageConversionException("bad payload"));
+
+        // Act
+        listener.processDeadLetterMessage(message, session);
+
+        // Assert
+        verify(deadLetterService).saveBatch(batchCaptor.capture());
+        DeadLetterDocument deadLetter = batchCaptor.getValue().get(0);
+
+        assertEquals("Delivery[4] exceeds redelivery policy limit", deadLetter.getErrorReason());
+        assertEquals("{not json", deadLetter.getRawPayload());
+        assertNull(deadLetter.getMessage());
+    }
+
+    @Test
+    void processDeadLetterMessage_UnreadableBytesPayload_KeepsBase64BodyAndFormat() throws Exception {
+        // Arrange
+        byte[] body = {0x3a, 0x29, 0x0a, 0x01, (byte) 0xfa};
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.writeBytes(body);
+        message.reset();
+        message.readByte();
+        message.setStringProperty(WorkloadMessageConverter.FORMAT_PROPERTY, WorkloadMessageConverter.FORMAT_SMILE);
+
+        when(batchReceiver.receiveMore(any(), anyString(), anyInt(), anyLong())).thenReturn(List.of());
+        when(messageConverter.fromMessage(message)).thenThrow(new MessageConversionException("bad payload"));
+
+        // Act
+        listener.processDeadLetterMessage(message, session);
+
+        // Assert
+        verify(deadLetterService).saveBatch(batchCaptor.capture());
+        DeadLetterDocument deadLetter = batchCaptor.getValue().get(0);
+
+        assertArrayEquals(body, Base64.getDecoder().decode(deadLetter.getRawPayload()));
+        assertEquals(DeadLetterQueueListener.RAW_PAYLOAD_BASE64, deadLetter.getRawPayloadEncoding());
+        assertEquals(WorkloadMessageConverter.FORMAT_SMILE, deadLetter.getRawPayloadFormat());
+    }
+
+    @Test
+    void processDeadLetterMessage_InFlightUntilStored() throws Exception {
+        // Arrange
+        ActiveMQTextMessage first = deadLetterMessage("Processing error: timeout", "tx-1", 1700000000000L);
+        ActiveMQTextMessage second = deadLetterMessage("Processing error: timeout", "tx-2", 1700000001000L);
+
+        when(batchReceiver.receiveMore(session, JmsConfig.WORKLOAD_DLQ, 9, 100L)).thenReturn(List.of(second));
+        when(messageConverter.fromMessage(any())).thenReturn(workloadMessage("trainer1", "tx-1"));
+        doAnswer(invocation -> {
+            assertEquals(1, inFlightTracker.getInFlightBatches());
+            assertEquals(2, inFlightTracker.getInFlightMessages());
+            throw new DataAccessResourceFailureException("Timed out");
+        }).when(deadLetterService).saveBatch(anyList());
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> listener.processDeadLetterMessage(first, session));
+        assertEquals(0, inFlightTracker.getInFlightBatches());
+        assertEquals(0, inFlightTracker.getInFlightMessages());
+    }
+
+    private ActiveMQTextMessage deadLetterMessage(String reason, String transactionId, long timestamp)
+            throws Exception {
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText("{}");
+        message.setStringProperty("error.reason", reason);
+        message.setStringProperty("original.transaction.id", transactionId);
+        message.setStringProperty("error.timestamp", String.valueOf(timestamp));
+        return message;
+    }
+
+    private WorkloadMessage workloadMessage(String username, String transactionId) {
+        return new WorkloadMessage(username, "John", "Doe", true, 2025, 5, 60,
+                WorkloadMessage.MessageType.CREATE_UPDATE, transactionId);
+    }
+}
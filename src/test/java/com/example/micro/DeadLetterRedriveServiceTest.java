@@ -0,0 +1,170 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.dto.RedriveJobResponse;
+import com.example.micro.dto.RedriveRequest;
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.service.DeadLetterRedriveService;
+import com.example.micro.service.DeadLetterService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeadLetterRedriveServiceTest {
+
+    @Mock
+    private DeadLetterService deadLetterService;
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    private DeadLetterRedriveService redriveService;
+
+    @BeforeEach
+    void setUp() {
+        redriveService = new DeadLetterRedriveService(
+                deadLetterService, jmsTemplate, CircuitBreakerRegistry.ofDefaults());
+        ReflectionTestUtils.setField(redriveService, "defaultRatePerSecond", 50);
+        ReflectionTestUtils.setField(redriveService, "maxRatePerSecond", 100);
+        ReflectionTestUtils.setField(redriveService, "pageSize", 2);
+        ReflectionTestUtils.setField(redriveService, "breakerWaitMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redriveService.shutdown();
+    }
+
+    @Test
+    void startRedrive_SendsReadableMessagesAndSkipsTheRest() throws Exception {
+        // Arrange
+        DeadLetterDocument readable = deadLetter("id-1", new WorkloadMessage("trainer1", "John", "Doe",
+                true, 2025, 5, 60, WorkloadMessage.MessageType.CREATE_UPDATE, "tx-1"));
+        DeadLetterDocument unreadable = deadLetter("id-2", null);
+
+        when(deadLetterService.countRedriveCandidates("Processing error", null, null)).thenReturn(2L);
+        when(deadLetterService.findRedriveCandidates("Processing error", null, null, null, 2))
+                .thenReturn(List.of(readable, unreadable));
+        when(deadLetterService.findRedriveCandidates("Processing error", null, null, "id-2", 2))
+                .thenReturn(List.of());
+        when(deadLetterService.markRedriven(eq("id-1"), anyString())).thenReturn(true);
+
+        // Act
+        RedriveJobResponse started = redriveService.startRedrive(
+                new RedriveRequest("Processing error", null, null, 500));
+        RedriveJobResponse finished = awaitCompletion(started.getJobId());
+
+        // Assert
+        assertEquals(100, started.getRatePerSecond());
+        assertEquals(2, started.getTotal());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertEquals(1, finished.getSent());
+        assertEquals(1, finished.getSkipped());
+        assertEquals(0, finished.getFailed());
+
+        verify(jmsTemplate).convertAndSend(eq(JmsConfig.WORKLOAD_BACKFILL_QUEUE), eq(readable.getMessage()),
+                any(MessagePostProcessor.class));
+        verify(deadLetterService).markRedriven("id-1", started.getJobId());
+        verify(deadLetterService, never()).markRedriven(eq("id-2"), anyString());
+    }
+
+    @Test
+    void startRedrive_AlreadyRedriven_IsNotSentAgain() throws Exception {
+        // Arrange
+        DeadLetterDocument deadLetter = deadLetter("id-1", workloadMessage());
+        when(deadLetterService.findRedriveCandidates(null, null, null, null, 2)).thenReturn(List.of(deadLetter));
+        when(deadLetterService.findRedriveCandidates(null, null, null, "id-1", 2)).thenReturn(List.of());
+        when(deadLetterService.markRedriven(eq("id-1"), anyString())).thenReturn(false);
+
+        // Act
+        RedriveJobResponse finished = awaitCompletion(
+                redriveService.startRedrive(new RedriveRequest(null, null, null, null)).getJobId());
+
+        // Assert
+        assertEquals(0, finished.getSent());
+        assertEquals(1, finished.getSkipped());
+        verifyNoInteractions(jmsTemplate);
+    }
+
+    @Test
+    void startRedrive_SendFails_ReleasesClaim() throws Exception {
+        // Arrange
+        DeadLetterDocument deadLetter = deadLetter("id-1", workloadMessage());
+        when(deadLetterService.findRedriveCandidates(null, null, null, null, 2)).thenReturn(List.of(deadLetter));
+        when(deadLetterService.findRedriveCandidates(null, null, null, "id-1", 2)).thenReturn(List.of());
+        when(deadLetterService.markRedriven(eq("id-1"), anyString())).thenReturn(true);
+        doThrow(new UncategorizedJmsException("Broker unavailable")).when(jmsTemplate)
+                .convertAndSend(anyString(), any(Object.class), any(MessagePostProcessor.class));
+
+        // Act
+        RedriveJobResponse started = redriveService.startRedrive(new RedriveRequest(null, null, null, null));
+        RedriveJobResponse finished = awaitCompletion(started.getJobId());
+
+        // Assert
+        assertEquals(1, finished.getFailed());
+        verify(deadLetterService).clearRedriven("id-1", started.getJobId());
+    }
+
+    @Test
+    void startRedrive_EvictsJobsFinishedBeforeRetention() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(redriveService, "finishedJobRetentionMs", 0L);
+        when(deadLetterService.findRedriveCandidates(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+        String finishedJobId = awaitCompletion(
+                redriveService.startRedrive(new RedriveRequest(null, null, null, null)).getJobId()).getJobId();
+        Thread.sleep(5);
+
+        // Act
+        redriveService.startRedrive(new RedriveRequest(null, null, null, null));
+
+        // Assert
+        assertThrows(ResourceNotFoundException.class, () -> redriveService.getJob(finishedJobId));
+    }
+
+    @Test
+    void getJob_UnknownId_ThrowsException() {
+        assertThrows(ResourceNotFoundException.class, () -> redriveService.getJob("missing"));
+    }
+
+    private RedriveJobResponse awaitCompletion(String jobId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            RedriveJobResponse job = redriveService.getJob(jobId);
+            if (job.getCompletedAt() != null) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        fail("Redrive job did not complete");
+        return null;
+    }
+
+    private WorkloadMessage workloadMessage() {
+        return new WorkloadMessage("trainer1", "John", "Doe",
+                true, 2025, 5, 60, WorkloadMessage.MessageType.CREATE_UPDATE, "tx-1");
+    }
+
+    private DeadLetterDocument deadLetter(String id, WorkloadMessage message) {
+        DeadLetterDocument deadLetter = new DeadLetterDocument();
+        deadLetter.setId(id);
+        deadLetter.setErrorReason("Processing error");
+        deadLetter.setMessage(message);
+        return deadLetter;
+    }
+}
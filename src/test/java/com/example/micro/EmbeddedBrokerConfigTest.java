@@ -0,0 +1,53 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmbeddedBrokerConfigTest {
+
+    private BrokerService broker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JmsConfig.EmbeddedBrokerConfig config = new JmsConfig.EmbeddedBrokerConfig();
+        ReflectionTestUtils.setField(config, "brokerName", "embedded-test");
+        ReflectionTestUtils.setField(config, "persistent", false);
+        ReflectionTestUtils.setField(config, "dataDirectory", "target/activemq-data");
+        ReflectionTestUtils.setField(config, "transportConnector", "");
+        broker = config.embeddedBroker();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broker.stop();
+    }
+
+    @Test
+    void embeddedBroker_SendAndReceiveOverVmTransport() throws Exception {
+        // Arrange
+        ActiveMQConnectionFactory connectionFactory =
+                new ActiveMQConnectionFactory("vm://embedded-test?create=false");
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setReceiveTimeout(5000);
+
+        // Act
+        jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_QUEUE, "hello");
+        Message received = jmsTemplate.receive(JmsConfig.WORKLOAD_QUEUE);
+
+        // Assert
+        assertTrue(broker.isStarted());
+        assertFalse(broker.isPersistent());
+        assertNotNull(received);
+        assertEquals("hello", ((TextMessage) received).getText());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.micro;
+
+import com.example.micro.messaging.IngestBackpressureController;
+import com.example.micro.service.WorkloadService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IngestBackpressureControllerTest {
+
+    @Mock
+    private JmsListenerEndpointRegistry endpointRegistry;
+
+    @Mock
+    private DefaultMessageListenerContainer container;
+
+    private CircuitBreaker circuitBreaker;
+    private IngestBackpressureController controller;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER);
+
+        controller = new IngestBackpressureController(circuitBreakerRegistry, endpointRegistry);
+        ReflectionTestUtils.setField(controller, "enabled", true);
+        ReflectionTestUtils.setField(controller, "rampUpIntervalMs", 60000L);
+        controller.registerStateListener();
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.shutdown();
+    }
+
+    @Test
+    void breakerOpens_StopsContainers() {
+        // Arrange
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+
+        // Act
+        circuitBreaker.transitionToOpenState();
+
+        // Assert
+        assertTrue(controller.isPaused());
+        verify(container).stop();
+    }
+
+    @Test
+    void breakerHalfOpens_RestartsWithSingleConsumer() {
+        // Arrange
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true, false);
+        circuitBreaker.transitionToOpenState();
+
+        // Act
+        circuitBreaker.transitionToHalfOpenState();
+
+        // Assert
+        assertFalse(controller.isPaused());
+        verify(container).setConcurrentConsumers(1);
+        verify(container).setMaxConcurrentConsumers(1);
+        verify(container).start();
+    }
+
+    @Test
+    void breakerClosedWithoutPause_LeavesContainersAlone() {
+        // Act
+        circuitBreaker.transitionToDisabledState();
+        circuitBreaker.transitionToClosedState();
+
+        // Assert
+        assertFalse(controller.isPaused());
+        verify(container, never()).stop();
+        verify(container, never()).start();
+    }
+
+    @Test
+    void journalEnabled_BreakerOpens_KeepsConsuming() {
+        // Arrange
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        IngestBackpressureController journalController =
+                new IngestBackpressureController(circuitBreakerRegistry, endpointRegistry);
+        ReflectionTestUtils.setField(journalController, "enabled", true);
+        ReflectionTestUtils.setField(journalController, "journalEnabled", true);
+        journalController.registerStateListener();
+
+        // Act
+        circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER).transitionToOpenState();
+
+        // Assert
+        assertFalse(journalController.isPaused());
+        verify(container, never()).stop();
+        journalController.shutdown();
+    }
+
+    @Test
+    void pauseForReplay_ThenReplayFinished_StopsAndRestartsContainers() {
+        // Arrange
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true, false);
+
+        // Act
+        controller.pauseForReplay();
+        boolean pausedWhileReplaying = controller.isPaused();
+        controller.replayFinished();
+
+        // Assert
+        assertTrue(pausedWhileReplaying);
+        assertFalse(controller.isPaused());
+        verify(container).stop();
+        verify(container).start();
+    }
+
+    @Test
+    void replayFinished_WithoutPauseForReplay_LeavesBreakerPauseInPlace() {
+        // Arrange
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+        circuitBreaker.transitionToOpenState();
+
+        // Act
+        controller.replayFinished();
+
+        // Assert
+        assertTrue(controller.isPaused());
+        verify(container, never()).start();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.messaging.IngestBackpressureController;
+import com.example.micro.messaging.IngestDrainCoordinator;
+import com.example.micro.messaging.IngestInFlightTracker;
+import com.example.micro.messaging.WorkloadOutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.netflix.eureka.serviceregistry.EurekaAutoServiceRegistration;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IngestDrainCoordinatorTest {
+
+    @Mock
+    private JmsListenerEndpointRegistry endpointRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @Mock
+    private IngestBackpressureController backpressureController;
+
+    @Mock
+    private ObjectProvider<WorkloadOutboxRelay> outboxRelayProvider;
+
+    @Mock
+    private ObjectProvider<EurekaAutoServiceRegistration> eurekaProvider;
+
+    @Mock
+    private WorkloadOutboxRelay outboxRelay;
+
+    @Mock
+    private EurekaAutoServiceRegistration eurekaRegistration;
+
+    private final IngestInFlightTracker inFlightTracker = new IngestInFlightTracker(new SimpleMeterRegistry());
+
+    private IngestDrainCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new IngestDrainCoordinator(endpointRegistry, inFlightTracker, backpressureController,
+                outboxRelayProvider, eurekaProvider);
+        ReflectionTestUtils.setField(coordinator, "drainTimeoutMs", 2_000L);
+        ReflectionTestUtils.setField(coordinator, "outboxFlushTimeoutMs", 1_000L);
+        coordinator.start();
+
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+        when(outboxRelayProvider.getIfAvailable()).thenReturn(outboxRelay);
+        when(eurekaProvider.getIfAvailable()).thenReturn(eurekaRegistration);
+        when(eurekaRegistration.isRunning()).thenReturn(true);
+    }
+
+    @Test
+    void stop_BatchInFlight_WaitsForCommitThenFlushesAndDeregisters() throws Exception {
+        // Arrange
+        inFlightTracker.batchStarted();
+        inFlightTracker.messagesAdded(2);
+        CompletableFuture<Void> listener = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlightTracker.batchFinished(3);
+        });
+
+        // Act
+        coordinator.stop();
+
+        // Assert
+        assertTrue(listener.isDone());
+        assertEquals(IngestDrainCoordinator.State.DRAINED, coordinator.getState());
+        assertEquals(0, inFlightTracker.getInFlightMessages());
+        assertFalse(coordinator.isRunning());
+
+        InOrder order = inOrder(backpressureController, container, outboxRelay, eurekaRegistration);
+        order.verify(backpressureController).disable();
+        order.verify(container).stop();
+        order.verify(outboxRelay).flush(1_000L);
+        order.verify(eurekaRegistration).stop();
+
+        // Stopped in the phase before the endpoint registry stops the containers
+        assertTrue(coordinator.getPhase() > JmsConfig.LISTENER_CONTAINER_PHASE);
+    }
+
+    @Test
+    void stop_BatchNeverFinishes_TimesOutAndStillDeregisters() {
+        // Arrange
+        ReflectionTestUtils.setField(coordinator, "drainTimeoutMs", 100L);
+        inFlightTracker.batchStarted();
+
+        // Act
+        coordinator.stop();
+
+        // Assert
+        assertEquals(IngestDrainCoordinator.State.DRAIN_TIMED_OUT, coordinator.getState());
+        verify(outboxRelay).flush(anyLong());
+        verify(eurekaRegistration).stop();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.exception.InvalidMessageException;
+import com.example.micro.messaging.IngestBackpressureController;
+import com.example.micro.messaging.IngestJournal;
+import com.example.micro.messaging.IngestJournalReplayer;
+import com.example.micro.messaging.MessageFailureClassifier;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.metrics.WorkloadMetrics;
+import com.example.micro.service.WorkloadIngestPipeline;
+import com.example.micro.service.WorkloadService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IngestJournalReplayerTest {
+
+    @Mock
+    private IngestJournal journal;
+
+    @Mock
+    private WorkloadIngestPipeline ingestPipeline;
+
+    @Mock
+    private IngestBackpressureController backpressure;
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void replay_MongoAvailable_WritesParkedMessagesInOrder() {
+        // Arrange
+        WorkloadMessage first = createMessage("tx-1");
+        WorkloadMessage second = createMessage("tx-2");
+        when(journal.isEmpty()).thenReturn(false, true);
+        when(journal.peek()).thenReturn(first, second, null);
+        IngestJournalReplayer replayer = createReplayer();
+
+        // Act
+        int replayed = replayer.replay();
+
+        // Assert
+        assertEquals(2, replayed);
+        InOrder order = inOrder(backpressure, ingestPipeline, journal);
+        order.verify(backpressure).pauseForReplay();
+        order.verify(ingestPipeline).ingest(first);
+        order.verify(journal).advance();
+        order.verify(ingestPipeline).ingest(second);
+        order.verify(journal).advance();
+        order.verify(backpressure).replayFinished();
+    }
+
+    @Test
+    void replay_MongoStillFailing_KeepsMessageInJournal() {
+        // Arrange
+        WorkloadMessage parked = createMessage("tx-1");
+        when(journal.peek()).thenReturn(parked);
+        doThrow(new DataAccessResourceFailureException("Timed out waiting for a server"))
+                .when(ingestPipeline).ingest(parked);
+        IngestJournalReplayer replayer = createReplayer();
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, replayer::replay);
+        verify(journal, never()).advance();
+        verify(backpressure).pauseForReplay();
+        verify(backpressure, never()).replayFinished();
+    }
+
+    @Test
+    void replay_PermanentFailure_SendsMessageToDeadLetterQueue() {
+        // Arrange
+        WorkloadMessage parked = createMessage("tx-1");
+        when(journal.isEmpty()).thenReturn(false, true);
+        when(journal.peek()).thenReturn(parked, (WorkloadMessage) null);
+        doThrow(new InvalidMessageException("Working hours must be positive"))
+                .when(ingestPipeline).ingest(parked);
+        IngestJournalReplayer replayer = createReplayer();
+
+        // Act
+        int replayed = replayer.replay();
+
+        // Assert
+        assertEquals(1, replayed);
+        InOrder order = inOrder(jmsTemplate, journal);
+        order.verify(jmsTemplate).convertAndSend(eq(JmsConfig.WORKLOAD_DLQ), eq(parked), any(MessagePostProcessor.class));
+        order.verify(journal).advance();
+        assertEquals(1.0, meterRegistry.get("workload.dlq.sends")
+                .tag("reason", "VALIDATION_FAILED").counter().count());
+    }
+
+    @Test
+    void replay_CircuitBreakerOpen_DoesNotTouchJournal() {
+        // Arrange
+        circuitBreakerRegistry.circuitBreaker(WorkloadService.CIRCUIT_BREAKER).transitionToOpenState();
+        IngestJournalReplayer replayer = createReplayer();
+
+        // Act
+        int replayed = replayer.replay();
+
+        // Assert
+        assertEquals(0, replayed);
+        verifyNoInteractions(journal, backpressure);
+        verify(ingestPipeline, never()).ingest(any());
+    }
+
+    private IngestJournalReplayer createReplayer() {
+        return new IngestJournalReplayer(journal, ingestPipeline, new MessageFailureClassifier(),
+                circuitBreakerRegistry, backpressure, jmsTemplate, new WorkloadMetrics(meterRegistry));
+    }
+
+    private WorkloadMessage createMessage(String transactionId) {
+        return new WorkloadMessage("john.doe", "John", "Doe", true, 2025, 5, 60,
+                WorkloadMessage.MessageType.CREATE_UPDATE, transactionId);
+    }
+}
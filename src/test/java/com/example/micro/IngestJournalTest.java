@@ -0,0 +1,154 @@
+package com.example.micro;
+
+import com.example.micro.messaging.IngestJournal;
+import com.example.micro.messaging.WorkloadMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private IngestJournal journal;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void appendAndAdvance_ReturnsMessagesInOrderAndResetsWhenDrained() {
+        // Arrange
+        journal = openJournal(1);
+        long emptySize = journal.getUsedBytes();
+
+        // Act
+        assertTrue(journal.append(createMessage("tx-1")));
+        assertTrue(journal.append(createMessage("tx-2")));
+
+        // Assert
+        assertEquals(2, journal.getPending());
+        assertEquals("tx-1", journal.peek().getTransactionId());
+        journal.advance();
+        assertEquals("tx-2", journal.peek().getTransactionId());
+        journal.advance();
+        assertTrue(journal.isEmpty());
+        assertNull(journal.peek());
+        assertEquals(emptySize, journal.getUsedBytes());
+    }
+
+    @Test
+    void open_ExistingJournal_RecoversPendingMessagesAfterReplayPosition() throws Exception {
+        // Arrange
+        journal = openJournal(1);
+        journal.append(createMessage("tx-1"));
+        journal.append(createMessage("tx-2"));
+        journal.append(createMessage("tx-3"));
+        journal.advance();
+        journal.close();
+
+        // Act
+        journal = openJournal(1);
+
+        // Assert
+        assertEquals(2, journal.getPending());
+        WorkloadMessage next = journal.peek();
+        assertEquals("tx-2", next.getTransactionId());
+        assertEquals("john.doe", next.getUsername());
+        assertEquals(WorkloadMessage.MessageType.CREATE_UPDATE, next.getMessageType());
+    }
+
+    @Test
+    void open_TornRecord_DropsItAndKeepsEarlierMessages() throws Exception {
+        // Arrange
+        journal = openJournal(1);
+        journal.append(createMessage("tx-1"));
+        // The file starts with the replay position
+        long tornOffset = Long.BYTES + journal.getUsedBytes();
+        journal.append(createMessage("tx-2"));
+        journal.close();
+
+        // Corrupt the payload of the second record, as if it was only partly written
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("ingest.journal").toFile(), "rw")) {
+            file.seek(tornOffset + 12);
+            file.writeLong(0xDEADBEEFL);
+        }
+
+        // Act
+        journal = openJournal(1);
+
+        // Assert
+        assertEquals(1, journal.getPending());
+        assertEquals("tx-1", journal.peek().getTransactionId());
+        assertTrue(journal.append(createMessage("tx-3")));
+        journal.advance();
+        assertEquals("tx-3", journal.peek().getTransactionId());
+    }
+
+    @Test
+    void append_JournalFull_ReturnsFalse() {
+        // Arrange
+        journal = openJournal(1);
+        int appended = 0;
+
+        // Act
+        while (journal.append(createMessage("tx-" + appended))) {
+            appended++;
+        }
+
+        // Assert
+        assertTrue(appended > 1000);
+        assertEquals(appended, journal.getPending());
+    }
+
+    @Test
+    void append_AfterReplayFreesSpace_WrapsToStartAndKeepsOrder() throws Exception {
+        // Arrange
+        journal = openJournal(1);
+        int appended = 0;
+        while (journal.append(createMessage("tx-" + appended))) {
+            appended++;
+        }
+        for (int i = 0; i < 100; i++) {
+            journal.advance();
+        }
+
+        // Act
+        assertTrue(journal.append(createMessage("tx-wrapped")));
+        journal.close();
+        journal = openJournal(1);
+
+        // Assert
+        assertEquals(appended - 100 + 1, journal.getPending());
+        for (int i = 100; i < appended; i++) {
+            assertEquals("tx-" + i, journal.peek().getTransactionId());
+            journal.advance();
+        }
+        assertEquals("tx-wrapped", journal.peek().getTransactionId());
+        journal.advance();
+        assertTrue(journal.isEmpty());
+    }
+
+    private IngestJournal openJournal(int sizeMb) {
+        IngestJournal opened = new IngestJournal(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "sizeMb", sizeMb);
+        opened.open();
+        return opened;
+    }
+
+    private WorkloadMessage createMessage(String transactionId) {
+        return new WorkloadMessage("john.doe", "John", "Doe", true, 2025, 5, 60,
+                WorkloadMessage.MessageType.CREATE_UPDATE, transactionId);
+    }
+}
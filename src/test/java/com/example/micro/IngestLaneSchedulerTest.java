@@ -0,0 +1,107 @@
+package com.example.micro;
+
+import com.example.micro.messaging.IngestLaneScheduler;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestLaneSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private IngestLaneScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new IngestLaneScheduler(meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "maxYieldMs", 5_000L);
+        ReflectionTestUtils.setField(scheduler, "maxRatePerSecond", 0);
+        scheduler.init();
+    }
+
+    @Test
+    void awaitBackfillTurn_LiveLaneIdle_ProceedsImmediately() {
+        // Act
+        long start = System.nanoTime();
+        scheduler.awaitBackfillTurn();
+
+        // Assert
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertEquals(1, meterRegistry.get("workload.ingest.backfill.yield").timer().count());
+    }
+
+    @Test
+    void awaitBackfillTurn_LiveMessageInFlight_WaitsUntilLiveFinishes() throws Exception {
+        // Arrange
+        scheduler.liveStarted();
+
+        // Act
+        CompletableFuture<Void> backfill = CompletableFuture.runAsync(scheduler::awaitBackfillTurn);
+        Thread.sleep(200);
+        boolean doneWhileLive = backfill.isDone();
+        scheduler.liveFinished();
+        backfill.get(2, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(doneWhileLive);
+        assertEquals(0, scheduler.getLiveInFlight());
+        Timer yield = meterRegistry.get("workload.ingest.backfill.yield").timer();
+        assertTrue(yield.totalTime(TimeUnit.MILLISECONDS) >= 200);
+    }
+
+    @Test
+    void awaitBackfillTurn_LiveLaneStaysBusy_ProceedsAfterMaxYield() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduler, "maxYieldMs", 100L);
+        scheduler.liveStarted();
+
+        // Act
+        long start = System.nanoTime();
+        scheduler.awaitBackfillTurn();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(waitedMs >= 100);
+        assertTrue(waitedMs < 2_000);
+        assertEquals(1, scheduler.getLiveInFlight());
+    }
+
+    @Test
+    void awaitBackfillTurn_RateLimited_CapsBackfillThroughput() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduler, "maxRatePerSecond", 2);
+        scheduler.init();
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            scheduler.awaitBackfillTurn();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert: the third message has to wait for the next one-second period
+        assertTrue(elapsedMs >= 200, "elapsed " + elapsedMs);
+    }
+
+    @Test
+    void awaitBackfillPermits_DrainedBatchLargerThanRate_WaitsForEveryMessage() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduler, "maxRatePerSecond", 2);
+        scheduler.init();
+
+        // Act
+        long start = System.nanoTime();
+        scheduler.awaitBackfillPermits(5);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert: five messages at two per second span three one-second periods
+        assertTrue(elapsedMs >= 1_000, "elapsed " + elapsedMs);
+    }
+}
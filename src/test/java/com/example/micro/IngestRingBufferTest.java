@@ -0,0 +1,81 @@
+package com.example.micro;
+
+import com.example.micro.messaging.IngestRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestRingBufferTest {
+
+    @Test
+    void offerAndPoll_FifoOrderAndBounded() {
+        // Arrange
+        IngestRingBuffer<Integer> ring = new IngestRingBuffer<>(3);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        boolean offeredWhenFull = ring.offer(99);
+
+        // Assert
+        assertEquals(4, ring.capacity());
+        assertFalse(offeredWhenFull);
+        assertEquals(4, ring.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_DeliverEveryElementOnce() throws Exception {
+        // Arrange
+        IngestRingBuffer<Integer> ring = new IngestRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 5_000;
+        int total = producers * perProducer;
+        ConcurrentHashMap<Integer, Boolean> received = new ConcurrentHashMap<>();
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 3);
+
+        // Act
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < 3; c++) {
+            executor.submit(() -> {
+                while (consumed.get() < total) {
+                    Integer value = ring.poll();
+                    if (value != null) {
+                        assertNull(received.put(value, Boolean.TRUE));
+                        if (consumed.incrementAndGet() == total) {
+                            done.countDown();
+                        }
+                    }
+                }
+            });
+        }
+
+        // Assert
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+        assertEquals(total, received.size());
+    }
+}
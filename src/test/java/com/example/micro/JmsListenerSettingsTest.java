@@ -0,0 +1,82 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsListenerSettings;
+import jakarta.jms.Session;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.jms.listener.SimpleMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JmsListenerSettingsTest {
+
+    @Test
+    void createFactory_DefaultContainer_AppliesCacheLevelTimeoutAndConcurrency() {
+        // Arrange
+        JmsListenerSettings settings = new JmsListenerSettings()
+                .setContainerType("default")
+                .setAckMode("client")
+                .setCacheLevelName("consumer")
+                .setReceiveTimeoutMs(250)
+                .setConcurrency("2-5");
+
+        // Act
+        MessageListenerContainer container = createContainer(settings);
+
+        // Assert
+        DefaultMessageListenerContainer dmlc = assertInstanceOf(DefaultMessageListenerContainer.class, container);
+        assertEquals(DefaultMessageListenerContainer.CACHE_CONSUMER, dmlc.getCacheLevel());
+        assertEquals(2, dmlc.getConcurrentConsumers());
+        assertEquals(5, dmlc.getMaxConcurrentConsumers());
+        assertEquals(250L, ReflectionTestUtils.getField(dmlc, "receiveTimeout"));
+        assertFalse(dmlc.isSessionTransacted());
+        assertEquals(Session.CLIENT_ACKNOWLEDGE, dmlc.getSessionAcknowledgeMode());
+    }
+
+    @Test
+    void createFactory_SimpleContainer_UsesUpperConcurrencyBoundAndTransactions() {
+        // Arrange
+        JmsListenerSettings settings = new JmsListenerSettings()
+                .setContainerType("simple")
+                .setAckMode("transacted")
+                .setConcurrency("2-5");
+
+        // Act
+        MessageListenerContainer container = createContainer(settings);
+
+        // Assert
+        SimpleMessageListenerContainer smlc = assertInstanceOf(SimpleMessageListenerContainer.class, container);
+        assertEquals(5, ReflectionTestUtils.getField(smlc, "concurrentConsumers"));
+        assertTrue(smlc.isSessionTransacted());
+    }
+
+    @Test
+    void supportsBatchDrain_OnlyPollingContainerWithTransactions() {
+        // Act & Assert
+        assertTrue(new JmsListenerSettings().supportsBatchDrain());
+        assertFalse(new JmsListenerSettings().setContainerType("simple").supportsBatchDrain());
+        assertFalse(new JmsListenerSettings().setAckMode("auto").supportsBatchDrain());
+        assertFalse(new JmsListenerSettings().setAckMode("dups-ok").supportsBatchDrain());
+        assertFalse(new JmsListenerSettings().setAckMode("client").supportsBatchDrain());
+    }
+
+    @Test
+    void setAckMode_UnknownMode_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new JmsListenerSettings().setAckMode("xa"));
+    }
+
+    private MessageListenerContainer createContainer(JmsListenerSettings settings) {
+        var factory = settings.createFactory();
+        factory.setConnectionFactory(new ActiveMQConnectionFactory("vm://settings-test?create=false"));
+        SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint();
+        endpoint.setId("settings-test");
+        endpoint.setDestination("settings-test");
+        endpoint.setMessageListener(message -> { });
+        return factory.createListenerContainer(endpoint);
+    }
+}
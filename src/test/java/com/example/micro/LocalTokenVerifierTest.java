@@ -0,0 +1,91 @@
+package com.example.micro;
+
+import com.example.micro.security.LocalTokenVerifier;
+import com.example.micro.security.ValidatedToken;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalTokenVerifierTest {
+
+    private static final String SECRET = "7dJpxYxnzOdZsrDZrGhK3uQtyGdOJWvdMLXF8YRpfM3g6s9olJ";
+
+    private final LocalTokenVerifier verifier = new LocalTokenVerifier("local", SECRET, false, 0);
+
+    @Test
+    void verify_ValidToken_ReturnsUsernameRolesAndExpiry() {
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        String token = Jwts.builder()
+                .setSubject("john.doe")
+                .claim("roles", List.of("ROLE_TRAINER"))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // Act
+        ValidatedToken validated = verifier.verify(token);
+
+        // Assert
+        assertTrue(verifier.isEnabled());
+        assertEquals("john.doe", validated.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_TRAINER")), validated.getAuthorities());
+        assertEquals(expiresAt.getEpochSecond(), validated.getExpiresAt().getEpochSecond());
+    }
+
+    @Test
+    void verify_ExpiredToken_Throws() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("john.doe")
+                .setExpiration(Date.from(Instant.now().minusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_SignedWithOtherKey_Throws() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("john.doe")
+                .setExpiration(Date.from(Instant.now().plusSeconds(600)))
+                .signWith(Keys.hmacShaKeyFor("another-secret-that-is-long-enough-for-hmac-sha".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_NoExpiry_Throws() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("john.doe")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void constructor_RemoteMode_IsDisabled() {
+        // Act
+        LocalTokenVerifier remote = new LocalTokenVerifier("remote", "short", false, 30);
+
+        // Assert
+        assertFalse(remote.isEnabled());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.micro;
+
+import com.example.micro.config.MongoIndexInitializer;
+import com.example.micro.document.DeadLetterDocument;
+import com.example.micro.document.TrainerWorkloadDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations trainerIndexOps;
+
+    @Mock
+    private IndexOperations deadLetterIndexOps;
+
+    private MongoIndexInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        when(mongoTemplate.indexOps(TrainerWorkloadDocument.class)).thenReturn(trainerIndexOps);
+        when(mongoTemplate.indexOps(DeadLetterDocument.class)).thenReturn(deadLetterIndexOps);
+        initializer = new MongoIndexInitializer(mongoTemplate);
+    }
+
+    @Test
+    void ensureIndexes_CreatesAnnotatedIndexes() {
+        // Act
+        initializer.ensureIndexes();
+
+        // Assert
+        List<IndexDefinition> trainerIndexes = captured(trainerIndexOps);
+        assertEquals(List.of("fullname_idx", "outbox_pending_idx", "relay_lock_idx"), names(trainerIndexes));
+        assertEquals(new Document("outbox.sequence", 1), trainerIndexes.get(1).getIndexKeys());
+        assertEquals(true, trainerIndexes.get(1).getIndexOptions().get("sparse"));
+
+        List<IndexDefinition> deadLetterIndexes = captured(deadLetterIndexOps);
+        List<Document> keys = deadLetterIndexes.stream().map(IndexDefinition::getIndexKeys).collect(Collectors.toList());
+        assertTrue(keys.contains(new Document("errorReason", 1).append("receivedAt", -1)));
+        assertTrue(keys.contains(new Document("username", 1).append("receivedAt", -1)));
+        assertTrue(keys.contains(new Document("originalTransactionId", 1)));
+        assertTrue(keys.contains(new Document("receivedAt", 1)));
+    }
+
+    @Test
+    void ensureIndexes_MongoUnavailable_ContinuesWithNextCollection() {
+        // Arrange
+        when(trainerIndexOps.ensureIndex(any())).thenThrow(new DataAccessResourceFailureException("Timed out"));
+
+        // Act
+        initializer.ensureIndexes();
+
+        // Assert
+        verify(deadLetterIndexOps, atLeastOnce()).ensureIndex(any());
+    }
+
+    private List<IndexDefinition> captured(IndexOperations indexOps) {
+        ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, atLeastOnce()).ensureIndex(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private List<Object> names(List<IndexDefinition> indexes) {
+        return indexes.stream().map(index -> index.getIndexOptions().get("name")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.micro;
+
+import com.example.micro.metrics.MongoPoolWaitListener;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MongoPoolWaitListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MongoPoolWaitListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new MongoPoolWaitListener(meterRegistry);
+    }
+
+    @Test
+    void connectionCheckedOut_AfterCheckOutStarted_RecordsWait() {
+        // Arrange
+        listener.connectionCheckOutStarted(mock(ConnectionCheckOutStartedEvent.class));
+
+        // Act
+        listener.connectionCheckedOut(mock(ConnectionCheckedOutEvent.class));
+
+        // Assert
+        Timer wait = meterRegistry.get("workload.mongo.pool.wait").timer();
+        assertEquals(1, wait.count());
+    }
+
+    @Test
+    void connectionCheckOutFailed_WaitQueueTimeout_CountsFailureAndRecordsWait() {
+        // Arrange
+        ConnectionCheckOutFailedEvent failed = mock(ConnectionCheckOutFailedEvent.class);
+        when(failed.getReason()).thenReturn(ConnectionCheckOutFailedEvent.Reason.TIMEOUT);
+        listener.connectionCheckOutStarted(mock(ConnectionCheckOutStartedEvent.class));
+
+        // Act
+        listener.connectionCheckOutFailed(failed);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("workload.mongo.pool.checkout.failures")
+                .tag("reason", "TIMEOUT").counter().count());
+        assertEquals(1, meterRegistry.get("workload.mongo.pool.wait").timer().count());
+    }
+
+    @Test
+    void connectionCheckedOut_WithoutCheckOutStarted_RecordsNothing() {
+        // Act
+        listener.connectionCheckedOut(mock(ConnectionCheckedOutEvent.class));
+
+        // Assert
+        assertEquals(0, meterRegistry.get("workload.mongo.pool.wait").timer().count());
+    }
+}
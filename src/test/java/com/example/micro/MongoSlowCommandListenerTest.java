@@ -0,0 +1,107 @@
+package com.example.micro;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.micro.metrics.MongoSlowCommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MongoSlowCommandListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(MongoSlowCommandListener.class);
+
+    private MongoSlowCommandListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new MongoSlowCommandListener(meterRegistry);
+        ReflectionTestUtils.setField(listener, "thresholdMs", 100L);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void commandSucceeded_SlowUpdate_LogsFilterShapeWithoutValues() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{update: 'trainer_workloads', updates: [{q: "
+                + "{_id: 'john.doe', 'years.year': {$in: [2024, 2025]}}, u: {$set: {active: true}}}]}");
+        listener.commandStarted(started(7, "update", command));
+
+        // Act
+        listener.commandSucceeded(succeeded(7, "update", 250));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("workload.mongo.slow.commands")
+                .tags("command", "update", "collection", "trainer_workloads").counter().count());
+        assertEquals(1, appender.list.size());
+        String logged = appender.list.get(0).getFormattedMessage();
+        assertTrue(logged.contains("filter={_id: ?, years.year: {$in: [?x2]}}"), logged);
+        assertFalse(logged.contains("john.doe"), logged);
+        assertFalse(logged.contains("2025"), logged);
+    }
+
+    @Test
+    void commandSucceeded_FastCommand_IsNotLogged() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{find: 'trainer_workloads', filter: {_id: 'john.doe'}}");
+        listener.commandStarted(started(8, "find", command));
+
+        // Act
+        listener.commandSucceeded(succeeded(8, "find", 5));
+
+        // Assert
+        assertNull(meterRegistry.find("workload.mongo.slow.commands").counter());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void commandStarted_ThresholdZero_DisablesLogging() {
+        // Arrange
+        ReflectionTestUtils.setField(listener, "thresholdMs", 0L);
+        BsonDocument command = BsonDocument.parse("{find: 'trainer_workloads', filter: {_id: 'john.doe'}}");
+        listener.commandStarted(started(9, "find", command));
+
+        // Act
+        listener.commandSucceeded(succeeded(9, "find", 5_000));
+
+        // Assert
+        assertNull(meterRegistry.find("workload.mongo.slow.commands").counter());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    private CommandStartedEvent started(int requestId, String commandName, BsonDocument command) {
+        CommandStartedEvent event = mock(CommandStartedEvent.class);
+        when(event.getRequestId()).thenReturn(requestId);
+        when(event.getCommandName()).thenReturn(commandName);
+        when(event.getCommand()).thenReturn(command);
+        return event;
+    }
+
+    private CommandSucceededEvent succeeded(int requestId, String commandName, long elapsedMs) {
+        CommandSucceededEvent event = mock(CommandSucceededEvent.class);
+        when(event.getRequestId()).thenReturn(requestId);
+        when(event.getCommandName()).thenReturn(commandName);
+        when(event.getElapsedTime(TimeUnit.MILLISECONDS)).thenReturn(elapsedMs);
+        return event;
+    }
+}
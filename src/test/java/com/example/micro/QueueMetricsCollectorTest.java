@@ -0,0 +1,167 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.messaging.QueueMetricsCollector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerPlugin;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.plugin.StatisticsBrokerPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueueMetricsCollectorTest {
+
+    private BrokerService broker;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broker.stop();
+    }
+
+    @Test
+    void collect_WithStatisticsPlugin_ReportsDepthAndOldestAge() throws Exception {
+        // Arrange
+        startBroker(true);
+        JmsTemplate jmsTemplate = jmsTemplate();
+        for (int i = 0; i < 3; i++) {
+            jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_QUEUE, "message-" + i);
+        }
+        Thread.sleep(50);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueueMetricsCollector collector = collector(jmsTemplate, meterRegistry);
+
+        // Act
+        collector.collect();
+
+        // Assert
+        assertEquals(3.0, depth(meterRegistry, JmsConfig.WORKLOAD_QUEUE));
+        assertEquals(0.0, depth(meterRegistry, JmsConfig.WORKLOAD_BACKFILL_QUEUE));
+        assertEquals(0.0, depth(meterRegistry, JmsConfig.WORKLOAD_DLQ));
+        assertTrue(meterRegistry.get("workload.jms.queue.oldest.age")
+                .tag("queue", JmsConfig.WORKLOAD_QUEUE).gauge().value() > 0);
+    }
+
+    @Test
+    void collect_WithoutStatisticsPlugin_StopsRequestingAndPeeksOldestAge() throws Exception {
+        // Arrange
+        startBroker(false);
+        JmsTemplate jmsTemplate = jmsTemplate();
+        jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_DLQ, "dead");
+        jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_DLQ, "dead");
+        Thread.sleep(50);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueueMetricsCollector collector = collector(jmsTemplate, meterRegistry);
+
+        // Act
+        collector.collect();
+        collector.collect();
+
+        // Assert: the probe request expired instead of waiting for a consumer that never comes
+        assertTrue(Double.isNaN(depth(meterRegistry, JmsConfig.WORKLOAD_DLQ)));
+        assertTrue(meterRegistry.get("workload.jms.queue.oldest.age")
+                .tag("queue", JmsConfig.WORKLOAD_DLQ).gauge().value() > 0);
+        Thread.sleep(600);
+        Integer pending = jmsTemplate.browse("ActiveMQ.Statistics.Destination." + JmsConfig.WORKLOAD_QUEUE,
+                (session, browser) -> Collections.list(browser.getEnumeration()).size());
+        assertEquals(0, pending);
+    }
+
+    @Test
+    void collect_PluginAddedAfterRestart_IsFoundByReprobe() throws Exception {
+        // Arrange
+        startBroker(false);
+        JmsTemplate jmsTemplate = jmsTemplate();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueueMetricsCollector collector = collector(jmsTemplate, meterRegistry);
+        ReflectionTestUtils.setField(collector, "statisticsReprobeIntervalMs", 0L);
+        collector.collect();
+        assertTrue(Double.isNaN(depth(meterRegistry, JmsConfig.WORKLOAD_BACKFILL_QUEUE)));
+
+        broker.stop();
+        broker.waitUntilStopped();
+        startBroker(true);
+        jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_BACKFILL_QUEUE, "historical");
+        Thread.sleep(50);
+
+        // Act
+        collector.collect();
+
+        // Assert
+        assertEquals(1.0, depth(meterRegistry, JmsConfig.WORKLOAD_BACKFILL_QUEUE));
+    }
+
+    @Test
+    void collect_WithJmxUrl_ReadsQueueMBeans() throws Exception {
+        // Arrange
+        broker = new BrokerService();
+        broker.setBrokerName("metrics-test");
+        broker.setPersistent(false);
+        broker.setUseJmx(true);
+        broker.getManagementContext().setCreateConnector(false);
+        broker.start();
+        broker.waitUntilStarted();
+        JMXConnectorServer jmxServer = JMXConnectorServerFactory.newJMXConnectorServer(
+                new JMXServiceURL("service:jmx:rmi://"), null, ManagementFactory.getPlatformMBeanServer());
+        jmxServer.start();
+
+        JmsTemplate jmsTemplate = jmsTemplate();
+        for (int i = 0; i < 4; i++) {
+            jmsTemplate.convertAndSend(JmsConfig.WORKLOAD_QUEUE, "message-" + i);
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueueMetricsCollector collector = collector(jmsTemplate, meterRegistry);
+        ReflectionTestUtils.setField(collector, "jmxUrl", jmxServer.getAddress().toString());
+        ReflectionTestUtils.setField(collector, "brokerName", "metrics-test");
+
+        try {
+            // Act
+            collector.collect();
+
+            // Assert
+            assertEquals(4.0, depth(meterRegistry, JmsConfig.WORKLOAD_QUEUE));
+            assertEquals(0.0, depth(meterRegistry, JmsConfig.WORKLOAD_DLQ));
+        } finally {
+            collector.shutdown();
+            jmxServer.stop();
+        }
+    }
+
+    private void startBroker(boolean statisticsPlugin) throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName("metrics-test");
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        if (statisticsPlugin) {
+            broker.setPlugins(new BrokerPlugin[]{new StatisticsBrokerPlugin()});
+        }
+        broker.start();
+        broker.waitUntilStarted();
+    }
+
+    private JmsTemplate jmsTemplate() {
+        JmsTemplate jmsTemplate = new JmsTemplate(new ActiveMQConnectionFactory("vm://metrics-test?create=false"));
+        jmsTemplate.setSessionTransacted(true);
+        return jmsTemplate;
+    }
+
+    private QueueMetricsCollector collector(JmsTemplate jmsTemplate, SimpleMeterRegistry meterRegistry) {
+        QueueMetricsCollector collector = new QueueMetricsCollector(jmsTemplate, meterRegistry);
+        ReflectionTestUtils.setField(collector, "statisticsTimeoutMs", 500L);
+        return collector;
+    }
+
+    private double depth(SimpleMeterRegistry meterRegistry, String queue) {
+        return meterRegistry.get("workload.jms.queue.depth").tag("queue", queue).gauge().value();
+    }
+}
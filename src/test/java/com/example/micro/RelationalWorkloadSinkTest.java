@@ -0,0 +1,70 @@
+package com.example.micro;
+
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.model.TrainerWorkload;
+import com.example.micro.repository.TrainerWorkloadJpaRepository;
+import com.example.micro.service.RelationalWorkloadSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the relational ingest sink against the JPA repositories
+ */
+@DataJpaTest
+@Import(RelationalWorkloadSink.class)
+@TestPropertySource(properties = "workload.ingest.relational-sink.enabled=true")
+public class RelationalWorkloadSinkTest {
+
+    @Autowired
+    private RelationalWorkloadSink sink;
+
+    @Autowired
+    private TrainerWorkloadJpaRepository trainerWorkloadRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void write_CreateUpdateTwice_KeepsSingleMonthWithLatestDuration() {
+        // Arrange
+        WorkloadMessage first = createMessage(WorkloadMessage.MessageType.CREATE_UPDATE, 60);
+        WorkloadMessage second = createMessage(WorkloadMessage.MessageType.CREATE_UPDATE, 90);
+
+        // Act
+        sink.write(first);
+        sink.write(second);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        TrainerWorkload trainer = trainerWorkloadRepository.findById("john.doe").orElseThrow();
+        assertEquals(1, trainer.getYears().size());
+        assertEquals(1, trainer.getYears().get(0).getMonths().size());
+        assertEquals(90, trainer.getYears().get(0).getMonths().get(0).getSummaryDuration());
+    }
+
+    @Test
+    void write_Delete_RemovesMonthAndEmptyYear() {
+        // Arrange
+        sink.write(createMessage(WorkloadMessage.MessageType.CREATE_UPDATE, 60));
+
+        // Act
+        sink.write(createMessage(WorkloadMessage.MessageType.DELETE, 0));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        TrainerWorkload trainer = trainerWorkloadRepository.findById("john.doe").orElseThrow();
+        assertTrue(trainer.getYears().isEmpty());
+    }
+
+    private WorkloadMessage createMessage(WorkloadMessage.MessageType type, int duration) {
+        return new WorkloadMessage("john.doe", "John", "Doe", true, 2025, 5, duration, type, "tx-1");
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.messaging.SessionBatchReceiver;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionBatchReceiverTest {
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Queue queue;
+
+    @Mock
+    private MessageConsumer consumer;
+
+    private final SessionBatchReceiver receiver = new SessionBatchReceiver();
+
+    @Test
+    void receiveMore_ClosesConsumerAfterDraining() throws JMSException {
+        // Arrange
+        Message first = mock(Message.class);
+        when(session.createQueue(JmsConfig.WORKLOAD_QUEUE + "?consumer.prefetchSize=9")).thenReturn(queue);
+        when(session.createConsumer(queue)).thenReturn(consumer);
+        when(consumer.receive(anyLong())).thenReturn(first, (Message) null);
+
+        // Act
+        List<Message> messages = receiver.receiveMore(session, JmsConfig.WORKLOAD_QUEUE, 9, 100L);
+
+        // Assert
+        assertEquals(List.of(first), messages);
+        verify(consumer).close();
+    }
+
+    @Test
+    void receiveMore_ReceiveFails_StillClosesConsumer() throws JMSException {
+        // Arrange
+        when(session.createQueue(JmsConfig.WORKLOAD_QUEUE + "?consumer.prefetchSize=9")).thenReturn(queue);
+        when(session.createConsumer(queue)).thenReturn(consumer);
+        when(consumer.receive(anyLong())).thenThrow(new JMSException("Session closed"));
+
+        // Act & Assert
+        assertThrows(JMSException.class, () -> receiver.receiveMore(session, JmsConfig.WORKLOAD_QUEUE, 9, 100L));
+        verify(consumer).close();
+    }
+
+    @Test
+    void receiveMore_NothingRequested_CreatesNoConsumer() throws JMSException {
+        // Act
+        List<Message> messages = receiver.receiveMore(session, JmsConfig.WORKLOAD_QUEUE, 0, 100L);
+
+        // Assert
+        assertTrue(messages.isEmpty());
+        verifyNoInteractions(session);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.micro;
+
+import com.example.micro.messaging.IngestItem;
+import com.example.micro.messaging.MessageFailureClassifier;
+import com.example.micro.messaging.MessageValidator;
+import com.example.micro.messaging.StagedIngestPipeline;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.service.WorkloadIngestPipeline;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Message;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StagedIngestPipelineTest {
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private MessageValidator messageValidator;
+
+    @Mock
+    private WorkloadIngestPipeline ingestPipeline;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StagedIngestPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new StagedIngestPipeline(messageConverter, messageValidator, new MessageFailureClassifier(),
+                ingestPipeline, CircuitBreakerRegistry.ofDefaults(), meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "ringCapacity", 64);
+        ReflectionTestUtils.setField(pipeline, "decodeThreads", 2);
+        ReflectionTestUtils.setField(pipeline, "validateThreads", 2);
+        ReflectionTestUtils.setField(pipeline, "writeThreads", 2);
+        ReflectionTestUtils.setField(pipeline, "writeBatchSize", 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void submit_ValidAndInvalidMessages_CompletesEachWithItsOutcome() throws Exception {
+        // Arrange
+        pipeline.start();
+        Message valid = new ActiveMQTextMessage();
+        Message invalid = new ActiveMQTextMessage();
+        WorkloadMessage validMessage = createMessage(5, 60);
+        WorkloadMessage invalidMessage = createMessage(13, 60);
+        when(messageConverter.fromMessage(valid)).thenReturn(validMessage);
+        when(messageConverter.fromMessage(invalid)).thenReturn(invalidMessage);
+        when(messageValidator.validateWorkloadMessage(validMessage)).thenReturn(List.of());
+        when(messageValidator.validateWorkloadMessage(invalidMessage)).thenReturn(List.of("Month must be between 1 and 12"));
+        stubWritesSucceed();
+
+        // Act
+        List<IngestItem> items = pipeline.submit(List.of(valid, invalid));
+
+        // Assert
+        assertEquals(IngestItem.Status.WRITTEN, items.get(0).getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(IngestItem.Status.FAILED_PERMANENTLY, items.get(1).getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(MessageFailureClassifier.FailureReason.VALIDATION_FAILED, items.get(1).getFailureReason());
+        verify(ingestPipeline).ingestAll(List.of(validMessage));
+        verify(ingestPipeline, never()).ingest(any());
+
+        for (String stage : List.of("decode", "validate", "coalesce", "write")) {
+            assertTrue(meterRegistry.get("workload.ingest.stage.process").tag("stage", stage).timer().count() > 0);
+            assertNotNull(meterRegistry.get("workload.ingest.stage.occupancy").tag("stage", stage).gauge());
+        }
+    }
+
+    @Test
+    void submit_WriteFailsTransiently_FailsItemForRedelivery() throws Exception {
+        // Arrange
+        pipeline.start();
+        Message jmsMessage = new ActiveMQTextMessage();
+        WorkloadMessage message = createMessage(5, 60);
+        when(messageConverter.fromMessage(jmsMessage)).thenReturn(message);
+        when(messageValidator.validateWorkloadMessage(message)).thenReturn(List.of());
+        when(ingestPipeline.ingestAll(List.of(message))).thenThrow(new DataAccessResourceFailureException("Timed out"));
+
+        // Act
+        List<IngestItem> items = pipeline.submit(List.of(jmsMessage));
+
+        // Assert
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> items.get(0).getResult().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataAccessResourceFailureException.class, failure.getCause());
+    }
+
+    @Test
+    void submit_Coalescing_NeverWritesOlderMessageAfterNewer() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(pipeline, "coalescingEnabled", true);
+        pipeline.start();
+        Message older = new ActiveMQTextMessage();
+        Message newer = new ActiveMQTextMessage();
+        WorkloadMessage olderMessage = createMessage(5, 60);
+        WorkloadMessage newerMessage = createMessage(5, 90);
+        when(messageConverter.fromMessage(older)).thenReturn(olderMessage);
+        when(messageConverter.fromMessage(newer)).thenReturn(newerMessage);
+        when(messageValidator.validateWorkloadMessage(any())).thenReturn(List.of());
+        List<WorkloadMessage> written = Collections.synchronizedList(new ArrayList<>());
+        when(ingestPipeline.ingestAll(anyList())).thenAnswer(invocation -> {
+            List<WorkloadMessage> messages = invocation.getArgument(0);
+            written.addAll(messages);
+            return Collections.nCopies(messages.size(), null);
+        });
+
+        // Act
+        List<IngestItem> items = pipeline.submit(List.of(older, newer));
+
+        // Assert
+        IngestItem.Status olderStatus = items.get(0).getResult().get(5, TimeUnit.SECONDS);
+        assertEquals(IngestItem.Status.WRITTEN, items.get(1).getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(written.contains(newerMessage));
+        if (olderStatus == IngestItem.Status.WRITTEN) {
+            // Only possible if the older one was written before the newer arrived
+            assertEquals(List.of(olderMessage, newerMessage), written);
+        } else {
+            assertEquals(IngestItem.Status.SUPERSEDED, olderStatus);
+            assertEquals(List.of(newerMessage), written);
+        }
+    }
+
+    @Test
+    void submit_ItemCancelledBeforeWrite_IsNeverWritten() throws Exception {
+        // Arrange
+        pipeline.start();
+        Message jmsMessage = new ActiveMQTextMessage();
+        WorkloadMessage message = createMessage(5, 60);
+        CountDownLatch decoding = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(messageConverter.fromMessage(jmsMessage)).thenAnswer(invocation -> {
+            decoding.countDown();
+            cancelled.await(5, TimeUnit.SECONDS);
+            return message;
+        });
+        when(messageValidator.validateWorkloadMessage(message)).thenReturn(List.of());
+
+        // Act
+        IngestItem item = pipeline.submit(List.of(jmsMessage)).get(0);
+        assertTrue(decoding.await(5, TimeUnit.SECONDS));
+        boolean cancelledBeforeWrite = item.cancel();
+        cancelled.countDown();
+
+        // Assert
+        assertTrue(cancelledBeforeWrite);
+        assertTrue(item.getResult().isCancelled());
+        verify(messageValidator, timeout(5_000)).validateWorkloadMessage(message);
+        Thread.sleep(200);
+        verify(ingestPipeline, never()).ingestAll(anyList());
+    }
+
+    private void stubWritesSucceed() {
+        when(ingestPipeline.ingestAll(anyList()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<List<?>>getArgument(0).size(), null));
+    }
+
+    private WorkloadMessage createMessage(int month, int duration) {
+        return new WorkloadMessage("john.doe", "John", "Doe", true, 2025, month, duration,
+                WorkloadMessage.MessageType.CREATE_UPDATE, "tx-" + month + "-" + duration);
+    }
+}
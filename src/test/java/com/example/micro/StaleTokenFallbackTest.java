@@ -0,0 +1,107 @@
+package com.example.micro;
+
+import com.example.micro.security.CoreServiceTokenValidator;
+import com.example.micro.security.StaleTokenFallback;
+import com.example.micro.security.TokenValidationCache;
+import com.example.micro.security.ValidatedToken;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StaleTokenFallbackTest {
+
+    @Mock
+    private CoreServiceTokenValidator coreServiceValidator;
+
+    @Mock
+    private TokenValidationCache tokenCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StaleTokenFallback fallback;
+
+    @BeforeEach
+    void setUp() {
+        fallback = new StaleTokenFallback(coreServiceValidator, tokenCache, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fallback.shutdown();
+    }
+
+    @Test
+    void serveStale_RecentlyValidated_ReturnsStaleAndRefreshesInBackground() {
+        // Arrange
+        ValidatedToken stale = validated();
+        ValidatedToken refreshed = validated();
+        when(tokenCache.getStale("token")).thenReturn(stale);
+        when(coreServiceValidator.validate("token")).thenReturn(refreshed);
+
+        // Act
+        ValidatedToken served = fallback.serveStale("token");
+
+        // Assert
+        assertSame(stale, served);
+        verify(tokenCache, timeout(2000)).put("token", refreshed);
+        assertEquals(1.0, meterRegistry.get("workload.security.validation.stale").counter().count());
+    }
+
+    @Test
+    void serveStale_RefreshRejectsToken_EvictsIt() {
+        // Arrange
+        when(tokenCache.getStale("token")).thenReturn(validated());
+        when(coreServiceValidator.validate("token")).thenReturn(null);
+
+        // Act
+        fallback.serveStale("token");
+
+        // Assert
+        verify(tokenCache, timeout(2000)).invalidate("token");
+        verify(tokenCache, never()).put(eq("token"), any());
+    }
+
+    @Test
+    void serveStale_CircuitStillOpen_KeepsStaleEntry() {
+        // Arrange
+        when(tokenCache.getStale("token")).thenReturn(validated());
+        when(coreServiceValidator.validate("token")).thenThrow(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("default")));
+
+        // Act
+        fallback.serveStale("token");
+
+        // Assert
+        verify(coreServiceValidator, timeout(2000)).validate("token");
+        fallback.shutdown();
+        verify(tokenCache, never()).invalidate("token");
+        verify(tokenCache, never()).put(eq("token"), any());
+    }
+
+    @Test
+    void serveStale_NothingWithinStaleWindow_ReturnsNull() {
+        // Arrange
+        when(tokenCache.getStale("token")).thenReturn(null);
+
+        // Act & Assert
+        assertNull(fallback.serveStale("token"));
+        verifyNoInteractions(coreServiceValidator);
+    }
+
+    private ValidatedToken validated() {
+        return new ValidatedToken("john.doe", List.of(new SimpleGrantedAuthority("ROLE_TRAINER")), null);
+    }
+}
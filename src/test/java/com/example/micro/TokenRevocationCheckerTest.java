@@ -0,0 +1,127 @@
+package com.example.micro;
+
+import com.example.micro.security.CoreServiceTokenValidator;
+import com.example.micro.security.TokenRevocationChecker;
+import com.example.micro.security.TokenValidationCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationCheckerTest {
+
+    @Mock
+    private CoreServiceTokenValidator coreServiceValidator;
+
+    @Mock
+    private TokenValidationCache tokenCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TokenRevocationChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new TokenRevocationChecker(coreServiceValidator, tokenCache, 30, 3600, meterRegistry);
+        ReflectionTestUtils.setField(checker, "sampleRate", 1.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        checker.shutdown();
+    }
+
+    @Test
+    void maybeCheck_CoreServiceRejectsToken_MarksRevokedAndEvictsFromCache() throws Exception {
+        // Arrange
+        when(coreServiceValidator.validate("revoked-token")).thenReturn(null);
+
+        // Act
+        checker.maybeCheck("revoked-token");
+
+        // Assert
+        verify(tokenCache, timeout(2000)).invalidate("revoked-token");
+        assertTrue(checker.isRevoked("revoked-token"));
+        assertFalse(checker.isRevoked("other-token"));
+        assertEquals(1.0, meterRegistry.get("workload.security.revocation.revoked").counter().count());
+    }
+
+    @Test
+    void maybeCheck_RevokedToken_RememberedUntilItsExpiry() {
+        // Arrange
+        when(coreServiceValidator.validate("long-lived-token")).thenReturn(null);
+        when(tokenCache.readExpiry("long-lived-token")).thenReturn(Instant.now().plus(Duration.ofHours(8)));
+
+        // Act
+        checker.maybeCheck("long-lived-token");
+
+        // Assert
+        verify(tokenCache, timeout(2000)).invalidate("long-lived-token");
+        long expiresAfterSeconds = expiresAfterSeconds();
+        assertTrue(expiresAfterSeconds > Duration.ofHours(8).minusMinutes(1).toSeconds(), "" + expiresAfterSeconds);
+        assertTrue(expiresAfterSeconds <= Duration.ofHours(8).plusSeconds(30).toSeconds(), "" + expiresAfterSeconds);
+    }
+
+    @Test
+    void maybeCheck_RevokedTokenWithoutExpiry_RememberedForFallbackTtl() {
+        // Arrange
+        when(coreServiceValidator.validate("no-exp-token")).thenReturn(null);
+        when(tokenCache.readExpiry("no-exp-token")).thenReturn(null);
+
+        // Act
+        checker.maybeCheck("no-exp-token");
+
+        // Assert
+        verify(tokenCache, timeout(2000)).invalidate("no-exp-token");
+        long expiresAfterSeconds = expiresAfterSeconds();
+        assertTrue(expiresAfterSeconds > 3500 && expiresAfterSeconds <= 3600, "" + expiresAfterSeconds);
+    }
+
+    @Test
+    void maybeCheck_CoreServiceUnavailable_KeepsAcceptingToken() {
+        // Arrange
+        when(coreServiceValidator.validate("token")).thenThrow(new ResourceAccessException("Connection refused"));
+
+        // Act
+        checker.maybeCheck("token");
+
+        // Assert
+        verify(coreServiceValidator, timeout(2000)).validate("token");
+        checker.shutdown();
+        assertFalse(checker.isRevoked("token"));
+        verifyNoInteractions(tokenCache);
+    }
+
+    @Test
+    void maybeCheck_SamplingDisabled_NeverCallsCoreService() {
+        // Arrange
+        ReflectionTestUtils.setField(checker, "sampleRate", 0.0);
+
+        // Act
+        checker.maybeCheck("token");
+
+        // Assert
+        verifyNoInteractions(coreServiceValidator);
+    }
+
+    private long expiresAfterSeconds() {
+        @SuppressWarnings("unchecked")
+        Cache<String, Instant> revoked = (Cache<String, Instant>) ReflectionTestUtils.getField(checker, "revoked");
+        String key = revoked.asMap().keySet().iterator().next();
+        return revoked.policy().expireVariably().orElseThrow().getExpiresAfter(key, TimeUnit.SECONDS).orElseThrow();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.micro;
+
+import com.example.micro.security.TokenValidationCache;
+import com.example.micro.security.ValidatedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenValidationCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void get_AfterPut_ReturnsCachedAuthentication() {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(true, 100, 300, 900, meterRegistry);
+        String token = jwt(Instant.now().plusSeconds(600));
+
+        // Act
+        cache.put(token, validated(cache.readExpiry(token)));
+        ValidatedToken cached = cache.get(token);
+
+        // Assert
+        assertNotNull(cached);
+        assertEquals("john.doe", cached.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_TRAINER")), cached.getAuthorities());
+        assertNull(cache.get(jwt(Instant.now().plusSeconds(601))));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtValidation").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void get_TokenExpired_NotReturned() throws Exception {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(true, 100, 300, 900, meterRegistry);
+        String token = jwt(Instant.now().plusSeconds(1));
+
+        // Act
+        cache.put(token, validated(cache.readExpiry(token)));
+        Thread.sleep(1100);
+
+        // Assert
+        assertNull(cache.get(token));
+    }
+
+    @Test
+    void put_AlreadyExpiredToken_NotCached() {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(true, 100, 300, 900, meterRegistry);
+        String token = jwt(Instant.now().minusSeconds(5));
+
+        // Act
+        cache.put(token, validated(cache.readExpiry(token)));
+
+        // Assert
+        assertNull(cache.get(token));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void readExpiry_OpaqueToken_ReturnsNullAndFallsBackToMaxTtl() {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(true, 100, 300, 900, meterRegistry);
+
+        // Act
+        Instant expiry = cache.readExpiry("opaque-token");
+        cache.put("opaque-token", validated(expiry));
+
+        // Assert
+        assertNull(expiry);
+        assertNotNull(cache.get("opaque-token"));
+    }
+
+    @Test
+    void getStale_AfterFreshEntryExpired_ReturnsLastKnownGoodUntilInvalidated() throws Exception {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(true, 100, 1, 900, meterRegistry);
+        String token = jwt(Instant.now().plusSeconds(600));
+
+        // Act
+        cache.put(token, validated(cache.readExpiry(token)));
+        Thread.sleep(1100);
+
+        // Assert
+        assertNull(cache.get(token));
+        assertEquals("john.doe", cache.getStale(token).getUsername());
+        cache.invalidate(token);
+        assertNull(cache.getStale(token));
+    }
+
+    @Test
+    void getStale_TokenExpired_NotReturned() throws Exception {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(true, 100, 300, 900, meterRegistry);
+        String token = jwt(Instant.now().plusSeconds(1));
+
+        // Act
+        cache.put(token, validated(cache.readExpiry(token)));
+        Thread.sleep(1100);
+
+        // Assert
+        assertNull(cache.getStale(token));
+    }
+
+    @Test
+    void get_CacheDisabled_AlwaysMisses() {
+        // Arrange
+        TokenValidationCache cache = new TokenValidationCache(false, 100, 300, 900, meterRegistry);
+        String token = jwt(Instant.now().plusSeconds(600));
+
+        // Act
+        cache.put(token, validated(null));
+
+        // Assert
+        assertNull(cache.get(token));
+    }
+
+    private ValidatedToken validated(Instant expiresAt) {
+        return new ValidatedToken("john.doe", List.of(new SimpleGrantedAuthority("ROLE_TRAINER")), expiresAt);
+    }
+
+    private String jwt(Instant expiresAt) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(("{\"sub\":\"john.doe\",\"exp\":" + expiresAt.getEpochSecond() + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + claims + ".signature";
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.micro;
+
+import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.service.WorkloadIngestPipeline;
+import com.example.micro.service.WorkloadSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadIngestPipelineTest {
+
+    @Mock
+    private WorkloadSink mongoSink;
+
+    @Mock
+    private WorkloadSink relationalSink;
+
+    @Test
+    void ingest_WritesToEachSinkExactlyOnce() {
+        // Arrange
+        WorkloadIngestPipeline pipeline = new WorkloadIngestPipeline(List.of(mongoSink, relationalSink));
+        WorkloadMessage message = createMessage(WorkloadMessage.MessageType.CREATE_UPDATE);
+
+        // Act
+        pipeline.ingest(message);
+
+        // Assert
+        verify(mongoSink, times(1)).write(message);
+        verify(relationalSink, times(1)).write(message);
+    }
+
+    @Test
+    void ingest_DeleteMissingInOneSink_StillWritesOtherSinks() {
+        // Arrange
+        WorkloadIngestPipeline pipeline = new WorkloadIngestPipeline(List.of(mongoSink, relationalSink));
+        WorkloadMessage message = createMessage(WorkloadMessage.MessageType.DELETE);
+        when(mongoSink.getName()).thenReturn("mongo");
+        doThrow(new ResourceNotFoundException("Trainer not found: john.doe")).when(mongoSink).write(message);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> pipeline.ingest(message));
+        verify(relationalSink, times(1)).write(message);
+    }
+
+    @Test
+    void ingestAll_WritesBatchToEachSinkOnceAndSkipsMessagesThatFailed() {
+        // Arrange
+        WorkloadIngestPipeline pipeline = new WorkloadIngestPipeline(List.of(mongoSink, relationalSink));
+        WorkloadMessage written = createMessage(WorkloadMessage.MessageType.CREATE_UPDATE);
+        WorkloadMessage missing = createMessage(WorkloadMessage.MessageType.DELETE);
+        WorkloadMessage failing = new WorkloadMessage("jane.doe", "Jane", "Doe", true, 2025, 5, 30,
+                WorkloadMessage.MessageType.CREATE_UPDATE, "tx-2");
+        ResourceNotFoundException notFound = new ResourceNotFoundException("Trainer not found: john.doe");
+        DataAccessResourceFailureException timeout = new DataAccessResourceFailureException("Timed out");
+        when(mongoSink.getName()).thenReturn("mongo");
+        when(mongoSink.writeAll(List.of(written, missing, failing))).thenReturn(Arrays.asList(null, notFound, timeout));
+        when(relationalSink.writeAll(List.of(written, missing))).thenReturn(Arrays.asList(null, null));
+
+        // Act
+        List<RuntimeException> failures = pipeline.ingestAll(List.of(written, missing, failing));
+
+        // Assert
+        assertEquals(Arrays.asList(null, notFound, timeout), failures);
+        verify(mongoSink, never()).write(any());
+        verify(relationalSink, never()).write(any());
+    }
+
+    private WorkloadMessage createMessage(WorkloadMessage.MessageType type) {
+        return new WorkloadMessage("john.doe", "John", "Doe", true, 2025, 5, 60, type, "tx-1");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.micro;
+
+import com.example.micro.messaging.WorkloadEnvelope;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.messaging.WorkloadMessageCoalescer;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadMessageCoalescerTest {
+
+    private final WorkloadMessageCoalescer coalescer = new WorkloadMessageCoalescer();
+
+    @Test
+    void coalesce_InterleavedKeys_KeepsOrderOfLastArrival() {
+        // Arrange
+        WorkloadEnvelope first = envelope("Old", 5, 60);
+        WorkloadEnvelope otherMonth = envelope("Middle", 6, 30);
+        WorkloadEnvelope latest = envelope("New", 5, 90);
+
+        // Act
+        List<WorkloadEnvelope> result = coalescer.coalesce(List.of(first, otherMonth, latest));
+
+        // Assert
+        assertEquals(List.of(otherMonth, latest), result);
+        assertEquals("New", result.get(result.size() - 1).getMessage().getFirstName());
+    }
+
+    @Test
+    void coalesce_DistinctKeys_KeepsAllInArrivalOrder() {
+        // Arrange
+        WorkloadEnvelope may = envelope("John", 5, 60);
+        WorkloadEnvelope june = envelope("John", 6, 30);
+
+        // Act
+        List<WorkloadEnvelope> result = coalescer.coalesce(List.of(may, june));
+
+        // Assert
+        assertEquals(List.of(may, june), result);
+    }
+
+    private WorkloadEnvelope envelope(String firstName, int month, int duration) {
+        WorkloadMessage message = new WorkloadMessage("trainer1", firstName, "Doe",
+                true, 2025, month, duration, WorkloadMessage.MessageType.CREATE_UPDATE, "tx-" + month);
+        return new WorkloadEnvelope(new ActiveMQTextMessage(), message);
+    }
+}
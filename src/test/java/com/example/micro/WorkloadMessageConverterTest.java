@@ -0,0 +1,167 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.messaging.PayloadMappers;
+import com.example.micro.messaging.WorkloadChangeEvent;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.messaging.WorkloadMessageConverter;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadMessageConverterTest {
+
+    @Mock
+    private Session session;
+
+    private final WorkloadMessage workloadMessage = new WorkloadMessage("trainer1", "John", "Doe",
+            true, 2025, 5, 60, WorkloadMessage.MessageType.CREATE_UPDATE, "tx-1");
+
+    @Test
+    void smileFormat_RoundTripsAsBytesMessage() throws Exception {
+        // Arrange
+        WorkloadMessageConverter converter = converter("smile");
+        when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+
+        // Act
+        Message message = converter.toMessage(workloadMessage, session);
+        ((ActiveMQBytesMessage) message).reset();
+        WorkloadMessage result = (WorkloadMessage) converter.fromMessage(message);
+
+        // Assert
+        assertEquals(WorkloadMessageConverter.FORMAT_SMILE,
+                message.getStringProperty(WorkloadMessageConverter.FORMAT_PROPERTY));
+        assertEquals("trainer1", result.getUsername());
+        assertEquals(60, result.getTrainingDuration());
+        assertTrue(result.isActive());
+        assertEquals(WorkloadMessage.MessageType.CREATE_UPDATE, result.getMessageType());
+        assertEquals("tx-1", result.getTransactionId());
+    }
+
+    @Test
+    void jsonFormat_ReadsGymCrmTextMessage() throws Exception {
+        // Arrange
+        WorkloadMessageConverter converter = converter("smile");
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText("{\"username\":\"trainer1\",\"firstName\":\"John\",\"lastName\":\"Doe\","
+                + "\"active\":true,\"year\":2025,\"month\":5,\"trainingDuration\":60,"
+                + "\"messageType\":\"CREATE_UPDATE\",\"transactionId\":\"tx-1\"}");
+        message.setStringProperty(JmsConfig.TYPE_ID_PROPERTY, "com.zura.gymCRM.messaging.WorkloadMessage");
+
+        // Act
+        WorkloadMessage result = (WorkloadMessage) converter.fromMessage(message);
+
+        // Assert
+        assertEquals("trainer1", result.getUsername());
+        assertEquals(5, result.getMonth());
+    }
+
+    @Test
+    void smileFormat_UnknownProperty_IsIgnored() throws Exception {
+        // Arrange
+        WorkloadMessageConverter converter = converter("json");
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("username", "trainer1");
+        payload.put("month", 5);
+        payload.put("addedByNewerProducer", "ignored");
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.writeBytes(PayloadMappers.smile().writeValueAsBytes(payload));
+        message.reset();
+        message.setStringProperty(WorkloadMessageConverter.FORMAT_PROPERTY, WorkloadMessageConverter.FORMAT_SMILE);
+        message.setStringProperty(JmsConfig.TYPE_ID_PROPERTY, "com.zura.gymCRM.messaging.WorkloadMessage");
+
+        // Act
+        WorkloadMessage result = (WorkloadMessage) converter.fromMessage(message);
+
+        // Assert
+        assertEquals("trainer1", result.getUsername());
+        assertEquals(5, result.getMonth());
+    }
+
+    @Test
+    void smileFormat_UnknownTypeId_ThrowsException() throws Exception {
+        // Arrange
+        WorkloadMessageConverter converter = converter("json");
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.setStringProperty(WorkloadMessageConverter.FORMAT_PROPERTY, WorkloadMessageConverter.FORMAT_SMILE);
+        message.setStringProperty(JmsConfig.TYPE_ID_PROPERTY, "java.lang.Runtime");
+
+        // Act & Assert
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+    }
+
+    @Test
+    void jsonFormat_WritesChangeEventWithInstant() throws Exception {
+        // Arrange
+        WorkloadMessageConverter converter = converter("json");
+        when(session.createTextMessage(anyString())).thenAnswer(invocation -> {
+            ActiveMQTextMessage message = new ActiveMQTextMessage();
+            message.setText(invocation.getArgument(0));
+            return message;
+        });
+        WorkloadChangeEvent event = changeEvent();
+
+        // Act
+        Message message = converter.toMessage(event, session);
+        WorkloadChangeEvent result = (WorkloadChangeEvent) converter.fromMessage(message);
+
+        // Assert
+        assertTrue(((ActiveMQTextMessage) message).getText().contains("\"2025-05-01T10:15:30Z\""));
+        assertEquals(event.getOccurredAt(), result.getOccurredAt());
+        assertEquals(7L, result.getSequence());
+    }
+
+    @Test
+    void smileFormat_WritesChangeEventWithInstant() throws Exception {
+        // Arrange
+        WorkloadMessageConverter converter = converter("smile");
+        when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+        WorkloadChangeEvent event = changeEvent();
+
+        // Act
+        ActiveMQBytesMessage message = (ActiveMQBytesMessage) converter.toMessage(event, session);
+        message.reset();
+        byte[] bytes = new byte[(int) message.getBodyLength()];
+        message.readBytes(bytes);
+        WorkloadChangeEvent result = PayloadMappers.smile().readValue(bytes, WorkloadChangeEvent.class);
+
+        // Assert
+        assertEquals(event.getOccurredAt(), result.getOccurredAt());
+        assertEquals(WorkloadChangeEvent.Type.WORKLOAD_UPDATED, result.getType());
+    }
+
+    private WorkloadChangeEvent changeEvent() {
+        WorkloadChangeEvent event = new WorkloadChangeEvent();
+        event.setEventId("event-1");
+        event.setSequence(7L);
+        event.setType(WorkloadChangeEvent.Type.WORKLOAD_UPDATED);
+        event.setUsername("trainer1");
+        event.setYear(2025);
+        event.setMonth(5);
+        event.setTrainingDuration(60);
+        event.setActive(true);
+        event.setOccurredAt(Instant.parse("2025-05-01T10:15:30Z"));
+        return event;
+    }
+
+    private WorkloadMessageConverter converter(String format) {
+        JmsConfig jmsConfig = new JmsConfig();
+        ReflectionTestUtils.setField(jmsConfig, "messageFormat", format);
+        return (WorkloadMessageConverter) jmsConfig.jacksonJmsMessageConverter();
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.micro;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.exception.MessageProcessingException;
+import com.example.micro.messaging.IngestItem;
+import com.example.micro.messaging.IngestInFlightTracker;
+import com.example.micro.messaging.IngestJournal;
+import com.example.micro.messaging.IngestLaneScheduler;
+import com.example.micro.messaging.MessageFailureClassifier;
+import com.example.micro.messaging.MessageValidator;
+import com.example.micro.messaging.SessionBatchReceiver;
+import com.example.micro.messaging.StagedIngestPipeline;
+import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.messaging.WorkloadMessageCoalescer;
+import com.example.micro.messaging.WorkloadMessageListener;
+import com.example.micro.metrics.WorkloadMetrics;
+import com.example.micro.service.WorkloadIngestPipeline;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadMessageListenerTest {
+
+    @Mock
+    private WorkloadIngestPipeline ingestPipeline;
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private MessageValidator messageValidator;
+
+    @Mock
+    private SessionBatchReceiver batchReceiver;
+
+    @Mock
+    private StagedIngestPipeline stagedPipeline;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Queue deadLetterQueue;
+
+    @Mock
+    private MessageProducer producer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WorkloadMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new WorkloadMessageListener(ingestPipeline, messageConverter,
+                messageValidator, new MessageFailureClassifier(), batchReceiver, new WorkloadMessageCoalescer(), stagedPipeline,
+                new IngestLaneScheduler(meterRegistry), new IngestInFlightTracker(meterRegistry),
+                new IngestJournal(meterRegistry),
+                CircuitBreakerRegistry.ofDefaults(), new WorkloadMetrics(meterRegistry), meterRegistry);
+    }
+
+    @Test
+    void processWorkloadMessage_InvalidMessage_SendsToDlqWithoutRetry() throws Exception {
+        // Arrange
+        ActiveMQTextMessage jmsMessage = new ActiveMQTextMessage();
+        WorkloadMessage message = createMessage();
+        ActiveMQTextMessage deadLetter = new ActiveMQTextMessage();
+        when(messageConverter.fromMessage(jmsMessage)).thenReturn(message);
+        when(messageValidator.validateWorkloadMessage(message)).thenReturn(List.of("Month must be between 1 and 12"));
+        when(messageConverter.toMessage(message, session)).thenReturn(deadLetter);
+        stubDeadLetterProducer();
+
+        // Act
+        listener.processWorkloadMessage(jmsMessage, session);
+
+        // Assert
+        verify(producer).send(deadLetter);
+        assertEquals("VALIDATION_FAILED", deadLetter.getStringProperty("error.code"));
+        assertEquals("Month must be between 1 and 12", deadLetter.getStringProperty("error.reason"));
+        assertEquals("tx-1", deadLetter.getStringProperty("original.transaction.id"));
+        verifyNoInteractions(ingestPipeline);
+        assertEquals(1.0, meterRegistry.get("workload.dlq.sends")
+                .tag("reason", "VALIDATION_FAILED").counter().count());
+        assertEquals(1, meterRegistry.get("workload.listener.message")
+                .tags("type", "CREATE_UPDATE", "outcome", "dead_lettered").timer().count());
+    }
+
+    @Test
+    void processWorkloadMessage_MalformedPayload_SendsRawBodyToDlq() throws Exception {
+        // Arrange
+        ActiveMQTextMessage jmsMessage = new ActiveMQTextMessage();
+        jmsMessage.setText("{not json");
+        ActiveMQTextMessage deadLetter = new ActiveMQTextMessage();
+        when(messageConverter.fromMessage(jmsMessage))
+                .thenThrow(new MessageConversionException("Failed to convert JSON message content"));
+        when(session.createTextMessage("{not json")).thenReturn(deadLetter);
+        stubDeadLetterProducer();
+
+        // Act
+        listener.processWorkloadMessage(jmsMessage, session);
+
+        // Assert
+        verify(producer).send(deadLetter);
+        assertEquals("MALFORMED_PAYLOAD", deadLetter.getStringProperty("error.code"));
+        assertNull(deadLetter.getStringProperty("original.transaction.id"));
+    }
+
+    @Test
+    void processWorkloadMessage_MongoFailure_RethrowsForRedelivery() throws Exception {
+        // Arrange
+        ActiveMQTextMessage jmsMessage = new ActiveMQTextMessage();
+        WorkloadMessage message = createMessage();
+        when(messageConverter.fromMessage(jmsMessage)).thenReturn(message);
+        when(messageValidator.validateWorkloadMessage(message)).thenReturn(List.of());
+        doThrow(new DataAccessResourceFailureException("Timed out waiting for a server"))
+                .when(ingestPipeline).ingest(message);
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> listener.processWorkloadMessage(jmsMessage, session));
+        verify(session, never()).createProducer(any());
+    }
+
+    @Test
+    void processWorkloadMessage_Coalescing_WritesLatestPerTrainerMonthOnly() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(listener, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(listener, "coalescingMaxBatch", 10);
+        ReflectionTestUtils.setField(listener, "coalescingWindowMs", 100L);
+
+        ActiveMQTextMessage first = new ActiveMQTextMessage();
+        ActiveMQTextMessage second = new ActiveMQTextMessage();
+        ActiveMQTextMessage third = new ActiveMQTextMessage();
+        first.setJMSTimestamp(System.currentTimeMillis() - 1000);
+        second.setJMSTimestamp(System.currentTimeMillis() - 1000);
+        third.setJMSTimestamp(System.currentTimeMillis() - 1000);
+        WorkloadMessage mayFirst = createMessage(5, 60, "tx-1");
+        WorkloadMessage juneOnly = createMessage(6, 30, "tx-2");
+        WorkloadMessage mayLatest = createMessage(5, 90, "tx-3");
+
+        when(batchReceiver.receiveMore(session, JmsConfig.WORKLOAD_QUEUE, 9, 100L))
+                .thenReturn(List.of(second, third));
+        when(messageConverter.fromMessage(first)).thenReturn(mayFirst);
+        when(messageConverter.fromMessage(second)).thenReturn(juneOnly);
+        when(messageConverter.fromMessage(third)).thenReturn(mayLatest);
+        when(messageValidator.validateWorkloadMessage(any())).thenReturn(List.of());
+
+        // Act
+        listener.processWorkloadMessage(first, session);
+
+        // Assert
+        verify(ingestPipeline).ingest(mayLatest);
+        verify(ingestPipeline).ingest(juneOnly);
+        verify(ingestPipeline, never()).ingest(mayFirst);
+
+        Timer endToEnd = meterRegistry.get("workload.ingest.end.to.end").timer();
+        assertEquals(2, endToEnd.count());
+        assertTrue(endToEnd.max(TimeUnit.MILLISECONDS) >= 1000);
+        assertEquals(2, meterRegistry.get("workload.listener.message")
+                .tags("type", "CREATE_UPDATE", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("workload.listener.message")
+                .tags("type", "CREATE_UPDATE", "outcome", "superseded").timer().count());
+    }
+
+    @Test
+    void processBackfillMessage_Coalescing_DrainsFromBackfillQueue() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(listener, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(listener, "coalescingMaxBatch", 10);
+        ReflectionTestUtils.setField(listener, "coalescingWindowMs", 100L);
+
+        ActiveMQTextMessage first = new ActiveMQTextMessage();
+        ActiveMQTextMessage second = new ActiveMQTextMessage();
+        WorkloadMessage may = createMessage(5, 60, "tx-1");
+        WorkloadMessage june = createMessage(6, 30, "tx-2");
+
+        when(batchReceiver.receiveMore(session, JmsConfig.WORKLOAD_BACKFILL_QUEUE, 9, 100L))
+                .thenReturn(List.of(second));
+        when(messageConverter.fromMessage(first)).thenReturn(may);
+        when(messageConverter.fromMessage(second)).thenReturn(june);
+        when(messageValidator.validateWorkloadMessage(any())).thenReturn(List.of());
+
+        // Act
+        listener.processBackfillMessage(first, session);
+
+        // Assert
+        verify(ingestPipeline).ingest(may);
+        verify(ingestPipeline).ingest(june);
+        verify(batchReceiver, never()).receiveMore(any(), eq(JmsConfig.WORKLOAD_QUEUE), anyInt(), anyLong());
+    }
+
+    @Test
+    void processBackfillMessage_LiveLaneBusy_DoesNotDrainBackfillBatch() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(listener, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(listener, "coalescingMaxBatch", 10);
+        IngestLaneScheduler laneScheduler = (IngestLaneScheduler) ReflectionTestUtils.getField(listener, "laneScheduler");
+        laneScheduler.liveStarted();
+
+        ActiveMQTextMessage first = new ActiveMQTextMessage();
+        WorkloadMessage may = createMessage(5, 60, "tx-1");
+        when(messageConverter.fromMessage(first)).thenReturn(may);
+        when(messageValidator.validateWorkloadMessage(any())).thenReturn(List.of());
+
+        // Act
+        listener.processBackfillMessage(first, session);
+
+        // Assert
+        verify(ingestPipeline).ingest(may);
+        verify(batchReceiver, never()).receiveMore(any(), anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void processWorkloadMessage_StagedTimeout_CancelsPendingItemBeforeRollingBack() {
+        // Arrange
+        ReflectionTestUtils.setField(listener, "stagedBatchSize", 1);
+        ReflectionTestUtils.setField(listener, "stagedCompletionTimeoutMs", 50L);
+        ActiveMQTextMessage jmsMessage = new ActiveMQTextMessage();
+        IngestItem pending = new IngestItem(1, jmsMessage);
+        when(stagedPipeline.isRunning()).thenReturn(true);
+        when(stagedPipeline.submit(List.of(jmsMessage))).thenReturn(List.of(pending));
+
+        // Act & Assert
+        assertThrows(MessageProcessingException.class, () -> listener.processWorkloadMessage(jmsMessage, session));
+        assertTrue(pending.getResult().isCancelled());
+    }
+
+    @Test
+    void processWorkloadMessage_MongoFailureWithJournal_ParksMessageInsteadOfRollingBack(@TempDir Path journalDir)
+            throws Exception {
+        // Arrange
+        IngestJournal journal = new IngestJournal(meterRegistry);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", journalDir.toString());
+        ReflectionTestUtils.setField(journal, "sizeMb", 1);
+        journal.open();
+        ReflectionTestUtils.setField(listener, "journal", journal);
+
+        ActiveMQTextMessage first = new ActiveMQTextMessage();
+        ActiveMQTextMessage second = new ActiveMQTextMessage();
+        WorkloadMessage failed = createMessage(5, 60, "tx-1");
+        WorkloadMessage next = createMessage(6, 30, "tx-2");
+        when(messageConverter.fromMessage(first)).thenReturn(failed);
+        when(messageConverter.fromMessage(second)).thenReturn(next);
+        when(messageValidator.validateWorkloadMessage(any())).thenReturn(List.of());
+        doThrow(new DataAccessResourceFailureException("Timed out waiting for a server"))
+                .when(ingestPipeline).ingest(failed);
+
+        // Act
+        listener.processWorkloadMessage(first, session);
+        listener.processWorkloadMessage(second, session);
+
+        // Assert: the second message is parked behind the first to keep the order
+        verify(ingestPipeline, never()).ingest(next);
+        assertEquals(2, journal.getPending());
+        assertEquals("tx-1", journal.peek().getTransactionId());
+        journal.close();
+    }
+
+    private void stubDeadLetterProducer() throws Exception {
+        when(session.createQueue(anyString())).thenReturn(deadLetterQueue);
+        when(session.createProducer(deadLetterQueue)).thenReturn(producer);
+    }
+
+    private WorkloadMessage createMessage() {
+        return createMessage(13, 60, "tx-1");
+    }
+
+    private WorkloadMessage createMessage(int month, int duration, String transactionId) {
+        return new WorkloadMessage("john.doe", "John", "Doe", true, 2025, month, duration,
+                WorkloadMessage.MessageType.CREATE_UPDATE, transactionId);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.micro;
+
+import com.example.micro.document.TrainerWorkloadDocument;
+import com.example.micro.messaging.WorkloadChangeEvent;
+import com.example.micro.messaging.WorkloadOutboxRelay;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.Topic;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadOutboxRelayTest {
+
+    private static final String COLLECTION = "trainer_workloads";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Topic topic;
+
+    @Mock
+    private MessageProducer producer;
+
+    private WorkloadOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new WorkloadOutboxRelay(mongoTemplate, jmsTemplate, messageConverter);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "leaseMs", 30000L);
+    }
+
+    @Test
+    void relayBatch_PublishesInSequenceOrderThenRemovesPublishedEvents() throws Exception {
+        // Arrange
+        leasedTrainer(event(8), event(7));
+        stubPublishing();
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        ArgumentCaptor<jakarta.jms.Message> sent = ArgumentCaptor.forClass(jakarta.jms.Message.class);
+        ArgumentCaptor<Update> lease = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        int relayed = relay.relayBatch();
+
+        // Assert
+        assertEquals(1, relayed);
+        InOrder inOrder = inOrder(producer, session, mongoTemplate);
+        inOrder.verify(mongoTemplate).updateMulti(any(Query.class), lease.capture(), eq(COLLECTION));
+        inOrder.verify(producer, times(2)).send(sent.capture());
+        inOrder.verify(session).commit();
+        inOrder.verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(COLLECTION));
+
+        assertEquals(7L, sent.getAllValues().get(0).getLongProperty(WorkloadOutboxRelay.SEQUENCE_PROPERTY));
+        assertEquals(8L, sent.getAllValues().get(1).getLongProperty(WorkloadOutboxRelay.SEQUENCE_PROPERTY));
+        assertNotNull(((Document) lease.getValue().getUpdateObject().get("$set")).get("relayLockedUntil"));
+        Document removal = update.getValue().getUpdateObject();
+        assertTrue(removal.toJson().contains("\"$lte\": 8"));
+        assertTrue(((Document) removal.get("$unset")).containsKey("relayLockOwner"));
+        // The version stays, so versioned replaces in WorkloadService are not failed by the relay
+        assertNull(removal.get("$inc"));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadDocument.class));
+    }
+
+    @Test
+    void relayBatch_LeaseTakenOver_StillRemovesPublishedEvents() throws Exception {
+        // Arrange
+        leasedTrainer(event(3));
+        stubPublishing();
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        relay.relayBatch();
+
+        // Assert
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), update.capture(), eq(COLLECTION));
+        Document removal = update.getAllValues().get(1).getUpdateObject();
+        assertTrue(removal.toJson().contains("\"$lte\": 3"));
+        assertNull(removal.get("$unset"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_PublishFails_ReleasesLeaseWithoutRemovingEvents() {
+        // Arrange
+        leasedTrainer(event(3));
+        when(jmsTemplate.execute(any(SessionCallback.class), eq(true)))
+                .thenThrow(new UncategorizedJmsException("broker down"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        // Act & Assert
+        assertThrows(UncategorizedJmsException.class, () -> relay.relayBatch());
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), update.capture(), eq(COLLECTION));
+        assertTrue(((Document) update.getAllValues().get(1).getUpdateObject().get("$unset")).containsKey("relayLockedUntil"));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+
+    private void leasedTrainer(WorkloadChangeEvent... events) {
+        TrainerWorkloadDocument candidate = new TrainerWorkloadDocument();
+        candidate.setUsername("john.doe");
+        TrainerWorkloadDocument trainer = new TrainerWorkloadDocument();
+        trainer.setUsername("john.doe");
+        trainer.setOutbox(new ArrayList<>(List.of(events)));
+        when(mongoTemplate.getCollectionName(TrainerWorkloadDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.find(any(Query.class), eq(TrainerWorkloadDocument.class)))
+                .thenReturn(List.of(candidate), List.of(trainer));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPublishing() throws Exception {
+        when(jmsTemplate.execute(any(SessionCallback.class), eq(true)))
+                .thenAnswer(invocation -> ((SessionCallback<Integer>) invocation.getArgument(0)).doInJms(session));
+        when(session.createTopic("workload-events")).thenReturn(topic);
+        when(session.createProducer(topic)).thenReturn(producer);
+        when(messageConverter.toMessage(any(), eq(session))).thenAnswer(invocation -> new ActiveMQTextMessage());
+    }
+
+    private WorkloadChangeEvent event(long sequence) {
+        WorkloadChangeEvent event = new WorkloadChangeEvent();
+        event.setSequence(sequence);
+        event.setType(WorkloadChangeEvent.Type.WORKLOAD_UPDATED);
+        event.setUsername("john.doe");
+        event.setYear(2025);
+        event.setMonth(5);
+        event.setTrainingDuration(60);
+        return event;
+    }
+}
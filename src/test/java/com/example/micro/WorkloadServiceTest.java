@@ -2,9 +2,17 @@ package com.example.micro;
 
 import com.example.micro.document.TrainerWorkloadDocument;
 import com.example.micro.exception.ResourceNotFoundException;
+import com.example.micro.messaging.WorkloadChangeEvent;
 import com.example.micro.messaging.WorkloadMessage;
+import com.example.micro.metrics.WorkloadMetrics;
 import com.example.micro.repository.TrainerWorkloadRepository;
 import com.example.micro.service.WorkloadService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,16 +20,26 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -36,6 +54,11 @@ public class WorkloadServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private WorkloadMetrics metrics = new WorkloadMetrics(meterRegistry);
+
     @InjectMocks
     private WorkloadService workloadService;
 
@@ -100,6 +123,10 @@ public class WorkloadServiceTest {
         });
 
         verify(workloadRepository).findById("nonexistent");
+        assertEquals(1.0, meterRegistry.get("workload.not.found")
+                .tag("operation", "getTrainerWorkload").counter().count());
+        assertEquals(1, meterRegistry.get("workload.service.operation")
+                .tags("operation", "getTrainerWorkload", "outcome", "not_found").timer().count());
     }
 
     @Test
@@ -121,6 +148,75 @@ public class WorkloadServiceTest {
         verify(workloadRepository).findByFirstNameAndLastName("John", "Doe");
     }
 
+    @Test
+    void updateWorkloadAtomic_ExistingTrainer_RecordsOutboxEventInSameSave() {
+        // Arrange
+        ReflectionTestUtils.setField(workloadService, "outboxEnabled", true);
+        trainerDocument.setOutboxSequence(4);
+        when(workloadRepository.existsById("trainer1")).thenReturn(true);
+        when(workloadRepository.findById("trainer1")).thenReturn(Optional.of(trainerDocument));
+
+        // Act
+        workloadService.updateWorkloadAtomic(workloadMessage);
+
+        // Assert
+        verify(workloadRepository).save(trainerCaptor.capture());
+        TrainerWorkloadDocument savedTrainer = trainerCaptor.getValue();
+        assertEquals(5, savedTrainer.getOutboxSequence());
+        assertEquals(1, savedTrainer.getOutbox().size());
+
+        WorkloadChangeEvent event = savedTrainer.getOutbox().get(0);
+        assertEquals(5, event.getSequence());
+        assertEquals(WorkloadChangeEvent.Type.WORKLOAD_UPDATED, event.getType());
+        assertEquals(2025, event.getYear());
+        assertEquals(5, event.getMonth());
+        assertEquals(60, event.getTrainingDuration());
+    }
+
+    @Test
+    void updateWorkloadAtomic_ConcurrentSave_RetriesWithCurrentDocument() {
+        // Arrange
+        ReflectionTestUtils.setField(workloadService, "outboxEnabled", true);
+        TrainerWorkloadDocument stale = new TrainerWorkloadDocument();
+        stale.setUsername("trainer1");
+        stale.setOutboxSequence(4);
+        stale.setVersion(3L);
+        TrainerWorkloadDocument current = new TrainerWorkloadDocument();
+        current.setUsername("trainer1");
+        current.setOutboxSequence(5);
+        current.setVersion(4L);
+        when(workloadRepository.existsById("trainer1")).thenReturn(true);
+        when(workloadRepository.findById("trainer1")).thenReturn(Optional.of(stale), Optional.of(current));
+        when(workloadRepository.save(any(TrainerWorkloadDocument.class)))
+                .thenThrow(new OptimisticLockingFailureException("version mismatch"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        workloadService.updateWorkloadAtomic(workloadMessage);
+
+        // Assert: the retry takes the next sequence after the concurrent writer's
+        verify(workloadRepository, times(2)).save(trainerCaptor.capture());
+        TrainerWorkloadDocument saved = trainerCaptor.getAllValues().get(1);
+        assertSame(current, saved);
+        assertEquals(6, saved.getOutboxSequence());
+        assertEquals(6, saved.getOutbox().get(0).getSequence());
+    }
+
+    @Test
+    void updateWorkloadAtomic_DocumentWithoutVersion_SetsVersionBeforeSave() {
+        // Arrange
+        when(workloadRepository.existsById("trainer1")).thenReturn(true);
+        when(workloadRepository.findById("trainer1")).thenReturn(Optional.of(trainerDocument));
+
+        // Act
+        workloadService.updateWorkloadAtomic(workloadMessage);
+
+        // Assert
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadDocument.class));
+        verify(workloadRepository).save(trainerCaptor.capture());
+        assertEquals(0L, trainerCaptor.getValue().getVersion());
+    }
+
     @Test
     void updateWorkloadAtomic_NewTrainer_CreatesTrainer() {
         // Arrange
@@ -147,6 +243,58 @@ public class WorkloadServiceTest {
 
 
 
+    @Test
+    void writeBatch_ExistingAndNewTrainer_WritesWithOneBulkOperation() {
+        // Arrange
+        trainerDocument.setVersion(2L);
+        WorkloadMessage newTrainerMessage = new WorkloadMessage("trainer2", "Jane", "Roe", true, 2025, 6, 30,
+                WorkloadMessage.MessageType.CREATE_UPDATE, "tx-2");
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.find(any(Query.class), eq(TrainerWorkloadDocument.class))).thenReturn(List.of(trainerDocument));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrainerWorkloadDocument.class)).thenReturn(bulk);
+
+        // Act
+        List<RuntimeException> failures = workloadService.writeBatch(List.of(workloadMessage, newTrainerMessage));
+
+        // Assert
+        assertEquals(Arrays.asList(null, null), failures);
+        verify(bulk).replaceOne(eq(new Query(Criteria.where("_id").is("trainer1").and("version").is(2L))),
+                same(trainerDocument), any(FindAndReplaceOptions.class));
+        verify(bulk).insert(trainerCaptor.capture());
+        verify(bulk).execute();
+        verify(workloadRepository, never()).save(any(TrainerWorkloadDocument.class));
+        assertEquals(3L, trainerDocument.getVersion());
+        assertEquals(60, trainerDocument.getYears().get(0).getMonths().get(0).getTrainingsSummaryDuration());
+        assertEquals("trainer2", trainerCaptor.getValue().getUsername());
+        assertEquals(0L, trainerCaptor.getValue().getVersion());
+    }
+
+    @Test
+    void writeBatch_ConcurrentUpdate_WritesThatTrainerOnItsOwn() {
+        // Arrange
+        trainerDocument.setVersion(2L);
+        TrainerWorkloadDocument current = new TrainerWorkloadDocument();
+        current.setUsername("trainer1");
+        current.setVersion(3L);
+        BulkOperations bulk = mock(BulkOperations.class);
+        BulkWriteError conflict = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0);
+        when(mongoTemplate.find(any(Query.class), eq(TrainerWorkloadDocument.class))).thenReturn(List.of(trainerDocument));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrainerWorkloadDocument.class)).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new BulkOperationException("E11000 duplicate key error",
+                new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(conflict), null,
+                        new ServerAddress(), Set.of())));
+        when(workloadRepository.existsById("trainer1")).thenReturn(true);
+        when(workloadRepository.findById("trainer1")).thenReturn(Optional.of(current));
+
+        // Act
+        List<RuntimeException> failures = workloadService.writeBatch(List.of(workloadMessage));
+
+        // Assert
+        assertEquals(Collections.singletonList(null), failures);
+        verify(workloadRepository).save(trainerCaptor.capture());
+        assertSame(current, trainerCaptor.getValue());
+    }
+
     @Test
     void processWorkloadMessage_CreateUpdateType_UpdatesWorkload() {
         // Arrange
@@ -157,6 +305,28 @@ public class WorkloadServiceTest {
         // Assert
         // Verify that updateWorkloadAtomic was called with the correct message
         verify(workloadRepository).existsById("trainer1");
+        // Timed once, not again for the updateWorkloadAtomic call inside it
+        assertEquals(1, meterRegistry.get("workload.service.operation")
+                .tags("operation", "processWorkloadMessage", "outcome", "success").timer().count());
+        assertNull(meterRegistry.find("workload.service.operation")
+                .tag("operation", "updateWorkloadAtomic").timer());
+    }
+
+    @Test
+    void findTrainersByFullName_MongoError_CountsError() {
+        // Arrange
+        when(workloadRepository.findByFirstNameAndLastName("John", "Doe"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> workloadService.findTrainersByFullName("John", "Doe"));
+        assertEquals(1.0, meterRegistry.get("workload.mongo.errors")
+                .tags("operation", "findTrainersByFullName",
+                        "exception", "DataAccessResourceFailureException")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("workload.service.operation")
+                .tags("operation", "findTrainersByFullName", "outcome", "error").timer().count());
     }
 
     @Test
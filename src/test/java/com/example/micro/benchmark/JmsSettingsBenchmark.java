@@ -0,0 +1,239 @@
+package com.example.micro.benchmark;
+
+import com.example.micro.config.JmsConfig;
+import com.example.micro.config.JmsListenerSettings;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQPrefetchPolicy;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+import org.springframework.jms.listener.AbstractMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every combination of listener container type, ack mode, cache level and prefetch
+ * against the embedded broker and reports throughput and p50/p99 latency (send to
+ * listener completion). The listener simulates the MongoDB write with a fixed delay.
+ *
+ * Run with: mvn -Pbenchmark test
+ * Matrix and load are set with system properties, e.g.
+ * -Dbenchmark.containers=default,simple -Dbenchmark.ack-modes=transacted,client
+ * -Dbenchmark.cache-levels=consumer,none -Dbenchmark.prefetch=1,100,1000
+ * -Dbenchmark.concurrency=4 -Dbenchmark.messages=5000 -Dbenchmark.write-latency-us=1000
+ * Results are also written to target/benchmark/jms-settings.csv.
+ */
+public class JmsSettingsBenchmark {
+
+    private static final String BROKER_NAME = "workload-benchmark";
+
+    // A workload message as gymCRM sends it
+    private static final String PAYLOAD = "{\"username\":\"john.doe\",\"firstName\":\"John\",\"lastName\":\"Doe\","
+            + "\"active\":true,\"year\":2025,\"month\":5,\"trainingDuration\":60,"
+            + "\"messageType\":\"CREATE_UPDATE\",\"transactionId\":\"tx-%d\"}";
+
+    private static BrokerService broker;
+
+    private final int messages = Integer.getInteger("benchmark.messages", 5000);
+    private final long writeLatencyNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("benchmark.write-latency-us", 1000));
+    private final String concurrency = System.getProperty("benchmark.concurrency", "4");
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        JmsConfig.EmbeddedBrokerConfig config = new JmsConfig.EmbeddedBrokerConfig();
+        ReflectionTestUtils.setField(config, "brokerName", BROKER_NAME);
+        ReflectionTestUtils.setField(config, "persistent", Boolean.getBoolean("benchmark.persistent"));
+        ReflectionTestUtils.setField(config, "dataDirectory", "target/benchmark/activemq-data");
+        ReflectionTestUtils.setField(config, "transportConnector", "");
+        broker = config.embeddedBroker();
+    }
+
+    @AfterAll
+    static void stopBroker() throws Exception {
+        broker.stop();
+    }
+
+    @Test
+    void listenerSettingsMatrix() throws Exception {
+        List<Result> results = new ArrayList<>();
+
+        for (String containerType : list("benchmark.containers", "default,simple")) {
+            for (String ackMode : list("benchmark.ack-modes", "transacted,client")) {
+                // The push-based container has no cache level
+                List<String> cacheLevels = containerType.equals("simple")
+                        ? List.of("auto")
+                        : list("benchmark.cache-levels", "consumer,none");
+                for (String cacheLevel : cacheLevels) {
+                    for (String prefetch : list("benchmark.prefetch", "1,100,1000")) {
+                        JmsListenerSettings settings = new JmsListenerSettings()
+                                .setContainerType(containerType)
+                                .setAckMode(ackMode)
+                                .setCacheLevelName(cacheLevel)
+                                .setConcurrency(concurrency);
+                        results.add(run(settings, Integer.parseInt(prefetch)));
+                    }
+                }
+            }
+        }
+
+        report(results);
+        assertTrue(results.stream().allMatch(result -> result.received == messages),
+                "Every run must consume all messages");
+    }
+
+    private Result run(JmsListenerSettings settings, int prefetch) throws Exception {
+        String queue = "benchmark-" + runs.incrementAndGet();
+        ActiveMQConnectionFactory connectionFactory =
+                new ActiveMQConnectionFactory("vm://" + BROKER_NAME + "?create=false");
+        ActiveMQPrefetchPolicy prefetchPolicy = new ActiveMQPrefetchPolicy();
+        prefetchPolicy.setQueuePrefetch(prefetch);
+        connectionFactory.setPrefetchPolicy(prefetchPolicy);
+
+        Timer latency = Timer.builder("benchmark.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(new SimpleMeterRegistry());
+        CountDownLatch done = new CountDownLatch(messages);
+
+        SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint();
+        endpoint.setId(queue);
+        endpoint.setDestination(queue);
+        boolean clientAcknowledge = settings.getAckMode() == JmsListenerSettings.AckMode.CLIENT;
+        endpoint.setMessageListener(message -> {
+            // Stands in for the MongoDB write
+            LockSupport.parkNanos(writeLatencyNanos);
+            try {
+                latency.record(System.nanoTime() - message.getLongProperty("sent.nanos"), TimeUnit.NANOSECONDS);
+                if (clientAcknowledge) {
+                    message.acknowledge();
+                }
+            } catch (JMSException e) {
+                throw new IllegalStateException(e);
+            }
+            done.countDown();
+        });
+
+        var factory = settings.createFactory();
+        factory.setConnectionFactory(connectionFactory);
+        AbstractMessageListenerContainer container = (AbstractMessageListenerContainer) factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+        container.start();
+
+        long start = System.nanoTime();
+        try (Connection connection = connectionFactory.createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageProducer producer = session.createProducer(session.createQueue(queue));
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+            for (int i = 0; i < messages; i++) {
+                TextMessage message = session.createTextMessage(String.format(PAYLOAD, i));
+                message.setLongProperty("sent.nanos", System.nanoTime());
+                producer.send(message);
+            }
+        }
+
+        done.await(Math.max(60, messages / 10), TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+        container.stop();
+        container.destroy();
+
+        Result result = new Result(settings, prefetch, (int) (messages - done.getCount()), elapsedNanos, latency);
+        System.out.println("[benchmark] " + result.toLine());
+        return result;
+    }
+
+    private void report(List<Result> results) throws IOException {
+        StringBuilder table = new StringBuilder(String.format("%n%-8s %-11s %-17s %8s %12s %10s %10s%n",
+                "container", "ack", "cache", "prefetch", "msgs/s", "p50 ms", "p99 ms"));
+        StringBuilder csv = new StringBuilder("container,ack_mode,cache_level,prefetch,concurrency,messages,"
+                + "throughput_per_s,p50_ms,p99_ms\n");
+
+        for (Result result : results) {
+            table.append(result.toLine()).append('\n');
+            csv.append(result.toCsv()).append('\n');
+        }
+        System.out.println(table);
+
+        Path output = Paths.get("target", "benchmark", "jms-settings.csv");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, csv);
+        System.out.println("[benchmark] Results written to " + output.toAbsolutePath());
+    }
+
+    private static List<String> list(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    private static final class Result {
+
+        private final JmsListenerSettings settings;
+        private final int prefetch;
+        private final int received;
+        private final double throughput;
+        private final double p50Ms;
+        private final double p99Ms;
+
+        Result(JmsListenerSettings settings, int prefetch, int received, long elapsedNanos, Timer latency) {
+            this.settings = settings;
+            this.prefetch = prefetch;
+            this.received = received;
+            this.throughput = received / (elapsedNanos / 1e9);
+
+            double p50 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == 0.5) {
+                    p50 = value.value(TimeUnit.MILLISECONDS);
+                } else if (value.percentile() == 0.99) {
+                    p99 = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            this.p50Ms = p50;
+            this.p99Ms = p99;
+        }
+
+        String toLine() {
+            return String.format("%-8s %-11s %-17s %8d %12.0f %10.2f %10.2f",
+                    settings.getContainerType(), settings.getAckMode(), cacheLevel(),
+                    prefetch, throughput, p50Ms, p99Ms);
+        }
+
+        String toCsv() {
+            return String.format(java.util.Locale.ROOT, "%s,%s,%s,%d,%s,%d,%.1f,%.3f,%.3f",
+                    settings.getContainerType(), settings.getAckMode(), cacheLevel(), prefetch,
+                    settings.getConcurrency(), received, throughput, p50Ms, p99Ms);
+        }
+
+        private String cacheLevel() {
+            return settings.getContainerType() == JmsListenerSettings.ContainerType.SIMPLE
+                    ? "-" : settings.getCacheLevelName();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.micro.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.example.micro.logging.TransactionLoggingFilter;
+import com.example.micro.security.CoreServiceInstanceSelector;
+import com.example.micro.security.CoreServiceTokenValidator;
+import com.example.micro.security.JwtAuthenticationFilter;
+import com.example.micro.security.LocalTokenVerifier;
+import com.example.micro.security.SecurityConfig;
+import com.example.micro.security.StaleTokenFallback;
+import com.example.micro.security.TokenRevocationChecker;
+import com.example.micro.security.TokenValidationCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * JMH micro-benchmarks for what authentication costs per request: JwtAuthenticationFilter
+ * in each validation mode, TransactionLoggingFilter and a @PreAuthorize method security
+ * check, each next to a baseline that does the same work without the component under test.
+ * The core service's validate endpoint is a local WireMock stub.
+ * <ul>
+ *   <li>cached: remote validation, served from the token cache after the first call</li>
+ *   <li>remote: token cache disabled, every call goes to the stub over the pooled client</li>
+ *   <li>local: token cache disabled, every call verifies the signature with jjwt</li>
+ * </ul>
+ *
+ * Run with: mvn -Pbenchmark clean test -Dtest=SecurityFilterBenchmark
+ * (the benchmark profile compiles out the test stand-in for JwtAuthenticationFilter)
+ * Tuned with system properties, e.g. -Dbenchmark.jmh.modes=cached,remote
+ * -Dbenchmark.jmh.core-latency-ms=0,5 -Dbenchmark.jmh.threads=4 -Dbenchmark.jmh.forks=1
+ * -Dbenchmark.log-level=INFO (default WARN, so request logging is level-checked but not written).
+ * Results are also written to target/benchmark/security-filters.csv.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecurityFilterBenchmark {
+
+    private static final String SECRET = "7dJpxYxnzOdZsrDZrGhK3uQtyGdOJWvdMLXF8YRpfM3g6s9olJ";
+    private static final String VALIDATE_ENDPOINT = "/api/auth/validate";
+
+    // Stands in for the servlet and the rest of the chain
+    private static final FilterChain END_OF_CHAIN = (request, response) -> { };
+
+    @Test
+    void securityFilters() throws Exception {
+        Path output = Paths.get("target", "benchmark", "security-filters.csv");
+        Files.createDirectories(output.getParent());
+
+        Options options = new OptionsBuilder()
+                .include(SecurityFilterBenchmark.class.getName() + "\\.")
+                .param("mode", array("benchmark.jmh.modes", "cached,remote,local"))
+                .param("coreLatencyMs", array("benchmark.jmh.core-latency-ms", "0"))
+                .threads(Integer.getInteger("benchmark.jmh.threads", 1))
+                .forks(Integer.getInteger("benchmark.jmh.forks", 1))
+                .warmupIterations(Integer.getInteger("benchmark.jmh.warmup-iterations", 3))
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(Integer.getInteger("benchmark.jmh.iterations", 5))
+                .measurementTime(TimeValue.seconds(2))
+                .jvmArgsAppend("-Dbenchmark.log-level=" + System.getProperty("benchmark.log-level", "WARN"))
+                .resultFormat(ResultFormatType.CSV)
+                .result(output.toString())
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+        System.out.println("[benchmark] Results written to " + output.toAbsolutePath());
+        assertFalse(results.isEmpty(), "JMH must run at least one benchmark");
+    }
+
+    @Benchmark
+    public int baseline(Requests requests) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        END_OF_CHAIN.doFilter(requests.authenticated(), response);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int jwtAuthenticationFilter(FilterState filters, Requests requests) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filters.jwtFilter.doFilter(requests.authenticated(), response, END_OF_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int transactionLoggingFilter(FilterState filters, Requests requests) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filters.loggingFilter.doFilter(requests.authenticated(), response, END_OF_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int methodDirect(MethodSecurityState methods, Authenticated authenticated) {
+        return methods.target.isAuthenticated(authenticated.value);
+    }
+
+    @Benchmark
+    public int preAuthorizeIsAuthenticated(MethodSecurityState methods, Authenticated authenticated) {
+        return methods.proxy.isAuthenticated(authenticated.value);
+    }
+
+    @Benchmark
+    public int preAuthorizeHasRole(MethodSecurityState methods, Authenticated authenticated) {
+        return methods.proxy.hasAdminRole(authenticated.value);
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilterState {
+
+        @Param({"cached"})
+        public String mode;
+
+        @Param({"0"})
+        public int coreLatencyMs;
+
+        JwtAuthenticationFilter jwtFilter;
+        TransactionLoggingFilter loggingFilter;
+        String token;
+
+        private WireMockServer coreService;
+        private PoolingHttpClientConnectionManager connectionManager;
+        private TokenRevocationChecker revocationChecker;
+        private StaleTokenFallback staleFallback;
+
+        @Setup
+        public void setUp() {
+            setLogLevel(System.getProperty("benchmark.log-level", "WARN"));
+
+            coreService = new WireMockServer(options().dynamicPort().disableRequestJournal());
+            coreService.start();
+            coreService.stubFor(get(urlEqualTo(VALIDATE_ENDPOINT)).willReturn(
+                    okJson("{\"username\":\"john.doe\",\"roles\":[\"ROLE_TRAINER\"]}").withFixedDelay(coreLatencyMs)));
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            SecurityConfig securityConfig = new SecurityConfig();
+            connectionManager = securityConfig.coreServiceConnectionManager(50, 20, 1000, 2000, 300, meterRegistry);
+
+            CoreServiceInstanceSelector instanceSelector = new CoreServiceInstanceSelector(
+                    new SimpleDiscoveryClient(new SimpleDiscoveryProperties()), "least-outstanding", meterRegistry);
+            ReflectionTestUtils.setField(instanceSelector, "coreServiceUrl", coreService.baseUrl());
+            ReflectionTestUtils.setField(instanceSelector, "discoveryEnabled", false);
+
+            TokenValidationCache tokenCache = new TokenValidationCache(mode.equals("cached"), 10_000, 300, 900,
+                    meterRegistry);
+            CoreServiceTokenValidator coreServiceValidator = new CoreServiceTokenValidator(
+                    securityConfig.restTemplate(connectionManager, 500, 2000, 30), new ObjectMapper(), tokenCache,
+                    instanceSelector, CircuitBreakerRegistry.ofDefaults(), meterRegistry);
+            ReflectionTestUtils.setField(coreServiceValidator, "validateTokenEndpoint", VALIDATE_ENDPOINT);
+
+            LocalTokenVerifier localVerifier = new LocalTokenVerifier(mode.equals("local") ? "local" : "remote",
+                    SECRET, false, 30);
+            revocationChecker = new TokenRevocationChecker(coreServiceValidator, tokenCache, 30, 86400, meterRegistry);
+            ReflectionTestUtils.setField(revocationChecker, "sampleRate", 0.0);
+            staleFallback = new StaleTokenFallback(coreServiceValidator, tokenCache, meterRegistry);
+
+            jwtFilter = new JwtAuthenticationFilter(new MockEnvironment(), coreServiceValidator, localVerifier,
+                    revocationChecker, tokenCache, staleFallback);
+            ReflectionTestUtils.setField(jwtFilter, "jwtEnabled", true);
+            loggingFilter = new TransactionLoggingFilter();
+
+            token = Jwts.builder()
+                    .setSubject("john.doe")
+                    .claim("roles", List.of("ROLE_TRAINER"))
+                    .setExpiration(Date.from(Instant.now().plusSeconds(3600)))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+        }
+
+        @TearDown
+        public void tearDown() {
+            revocationChecker.shutdown();
+            staleFallback.shutdown();
+            connectionManager.close();
+            coreService.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        private String authorization;
+
+        @Setup
+        public void setUp(FilterState filters) {
+            authorization = "Bearer " + filters.token;
+        }
+
+        // A new request per call, as OncePerRequestFilter marks the request it has seen
+        MockHttpServletRequest authenticated() {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/trainers/john.doe/workloads");
+            request.addHeader("Authorization", authorization);
+            return request;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MethodSecurityState {
+
+        SecuredTarget target;
+        SecuredTarget proxy;
+
+        @Setup
+        public void setUp() {
+            target = new SecuredTarget();
+            ProxyFactory proxyFactory = new ProxyFactory(target);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+            proxy = (SecuredTarget) proxyFactory.getProxy();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Authenticated {
+
+        // Varies per thread, so the JIT cannot fold the call away
+        int value;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            // The security context is thread-bound, so each benchmark thread sets its own
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "john.doe", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+            value = (int) Thread.currentThread().getId();
+        }
+    }
+
+    public static class SecuredTarget {
+
+        @PreAuthorize("isAuthenticated()")
+        public int isAuthenticated(int value) {
+            return value + 1;
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        public int hasAdminRole(int value) {
+            return value + 1;
+        }
+    }
+
+    private static void setLogLevel(String level) {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            ch.qos.logback.classic.Level logbackLevel =
+                    ch.qos.logback.classic.Level.toLevel(level, ch.qos.logback.classic.Level.WARN);
+            loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).setLevel(logbackLevel);
+            loggerContext.getLogger("com.example.micro").setLevel(logbackLevel);
+        }
+    }
+
+    private static String[] array(String property, String defaults) {
+        return System.getProperty(property, defaults).split("\\s*,\\s*");
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.micro.benchmark;
+
+import com.example.micro.logging.TransactionLoggingFilter;
+import com.example.micro.security.SecurityConfig;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a minimal web application (the real security configuration, TransactionLoggingFilter
+ * and one @PreAuthorize endpoint) over HTTP and reports requests per second and p50/p90/p99
+ * latency with authentication disabled and in each validation mode:
+ * <ul>
+ *   <li>disabled: no security filter chain and no method security</li>
+ *   <li>cached: remote validation against a WireMock core service, token cache on</li>
+ *   <li>remote: token cache off, every request validated by the core-service stub</li>
+ *   <li>local: token cache off, every request verified with jjwt</li>
+ * </ul>
+ *
+ * Run with: mvn -Pbenchmark clean test -Dtest=SecurityHttpBenchmark
+ * Tuned with system properties, e.g. -Dbenchmark.http.modes=disabled,cached
+ * -Dbenchmark.http.threads=16 -Dbenchmark.http.seconds=10 -Dbenchmark.http.warmup-seconds=3
+ * -Dbenchmark.http.core-latency-ms=2 -Dbenchmark.log-level=INFO (default WARN).
+ * Results are also written to target/benchmark/security-http.csv.
+ */
+public class SecurityHttpBenchmark {
+
+    private static final String SECRET = "7dJpxYxnzOdZsrDZrGhK3uQtyGdOJWvdMLXF8YRpfM3g6s9olJ";
+
+    private static WireMockServer coreService;
+
+    private final int threads = Integer.getInteger("benchmark.http.threads", 16);
+    private final long seconds = Long.getLong("benchmark.http.seconds", 10);
+    private final long warmupSeconds = Long.getLong("benchmark.http.warmup-seconds", 3);
+    private final String logLevel = System.getProperty("benchmark.log-level", "WARN");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @BeforeAll
+    static void startCoreService() {
+        coreService = new WireMockServer(options().dynamicPort().disableRequestJournal());
+        coreService.start();
+        coreService.stubFor(get(urlEqualTo("/api/auth/validate")).willReturn(
+                okJson("{\"username\":\"john.doe\",\"roles\":[\"ROLE_TRAINER\"]}")
+                        .withFixedDelay(Integer.getInteger("benchmark.http.core-latency-ms", 0))));
+    }
+
+    @AfterAll
+    static void stopCoreService() {
+        coreService.stop();
+    }
+
+    @Test
+    void authenticationModes() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (String mode : list("benchmark.http.modes", "disabled,cached,remote,local")) {
+            results.add(run(mode));
+        }
+
+        report(results);
+        assertTrue(results.stream().allMatch(result -> result.errors == 0),
+                "Every request must be authenticated and answered");
+    }
+
+    private Result run(String mode) throws Exception {
+        List<Class<?>> sources = new ArrayList<>(List.of(WebApp.class));
+        if (!mode.equals("disabled")) {
+            sources.add(Security.class);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(sources.toArray(Class[]::new))
+                .web(WebApplicationType.SERVLET)
+                // Command-line arguments, so they win over application.properties
+                .run("--server.port=0",
+                        "--server.shutdown=immediate",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=" + logLevel,
+                        "--logging.level.com.example.micro=" + logLevel,
+                        "--spring.security.jwt.enabled=true",
+                        "--spring.core.service.url=" + coreService.baseUrl(),
+                        "--workload.security.core-service.discovery.enabled=false",
+                        "--workload.security.validation-mode=" + (mode.equals("local") ? "local" : "remote"),
+                        "--workload.security.token-cache.enabled=" + mode.equals("cached"),
+                        "--workload.security.revocation.sample-rate=0")) {
+
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/benchmark/ping");
+            String token = Jwts.builder()
+                    .setSubject("john.doe")
+                    .claim("roles", List.of("ROLE_TRAINER"))
+                    .setExpiration(Date.from(Instant.now().plusSeconds(3600)))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+
+            drive(request, warmupSeconds, null, new AtomicLong(), new AtomicLong());
+
+            Timer latency = Timer.builder("benchmark.latency")
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .register(new SimpleMeterRegistry());
+            AtomicLong completed = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            long elapsedNanos = drive(request, seconds, latency, completed, errors);
+
+            Result result = new Result(mode, threads, completed.get(), errors.get(), elapsedNanos, latency);
+            System.out.println("[benchmark] " + result.toLine());
+            return result;
+        }
+    }
+
+    /**
+     * Sends requests from all threads, each waiting for its response before the next, for the given time
+     *
+     * @return The elapsed time in nanoseconds
+     */
+    private long drive(HttpRequest request, long durationSeconds, Timer latency,
+                       AtomicLong completed, AtomicLong errors) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (latency != null) {
+                        latency.record(System.nanoTime() - sent, TimeUnit.NANOSECONDS);
+                    }
+                    completed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    private void report(List<Result> results) throws IOException {
+        StringBuilder table = new StringBuilder(String.format("%n%-9s %7s %10s %10s %8s %8s %8s %7s%n",
+                "mode", "threads", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "errors"));
+        StringBuilder csv = new StringBuilder("mode,threads,requests,errors,throughput_per_s,p50_ms,p90_ms,p99_ms\n");
+
+        for (Result result : results) {
+            table.append(result.toLine()).append('\n');
+            csv.append(result.toCsv()).append('\n');
+        }
+        System.out.println(table);
+
+        Path output = Paths.get("target", "benchmark", "security-http.csv");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, csv);
+        System.out.println("[benchmark] Results written to " + output.toAbsolutePath());
+    }
+
+    private static List<String> list(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    // Not a @SpringBootConfiguration, so @SpringBootTest classes still find MicroApplication
+    @TestConfiguration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            PropertyPlaceholderAutoConfiguration.class,
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import({TransactionLoggingFilter.class, PingController.class})
+    static class WebApp {
+    }
+
+    // The application's security package as is, with the beans it expects from the rest of the context
+    @TestConfiguration(proxyBeanMethods = false)
+    @ComponentScan(basePackageClasses = SecurityConfig.class)
+    @ImportAutoConfiguration({SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class})
+    static class Security {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        CircuitBreakerRegistry circuitBreakerRegistry() {
+            return CircuitBreakerRegistry.ofDefaults();
+        }
+
+        @Bean
+        DiscoveryClient discoveryClient() {
+            return new SimpleDiscoveryClient(new SimpleDiscoveryProperties());
+        }
+    }
+
+    @RestController
+    public static class PingController {
+
+        @GetMapping("/benchmark/ping")
+        @PreAuthorize("isAuthenticated()")
+        public String ping() {
+            return "pong";
+        }
+    }
+
+    private static final class Result {
+
+        private final String mode;
+        private final int threads;
+        private final long requests;
+        private final long errors;
+        private final double throughput;
+        private final double p50Ms;
+        private final double p90Ms;
+        private final double p99Ms;
+
+        Result(String mode, int threads, long requests, long errors, long elapsedNanos, Timer latency) {
+            this.mode = mode;
+            this.threads = threads;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = requests / (elapsedNanos / 1e9);
+
+            double p50 = 0;
+            double p90 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == 0.5) {
+                    p50 = value.value(TimeUnit.MILLISECONDS);
+                } else if (value.percentile() == 0.9) {
+                    p90 = value.value(TimeUnit.MILLISECONDS);
+                } else if (value.percentile() == 0.99) {
+                    p99 = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            this.p50Ms = p50;
+            this.p90Ms = p90;
+            this.p99Ms = p99;
+        }
+
+        String toLine() {
+            return String.format("%-9s %7d %10d %10.0f %8.2f %8.2f %8.2f %7d",
+                    mode, threads, requests, throughput, p50Ms, p90Ms, p99Ms, errors);
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f",
+                    mode, threads, requests, errors, throughput, p50Ms, p90Ms, p99Ms);
+        }
+    }
+}
@@ -13,8 +13,12 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.example.micro.security.CoreServiceTokenValidator;
 import com.example.micro.security.JwtAuthenticationFilter;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.micro.security.LocalTokenVerifier;
+import com.example.micro.security.StaleTokenFallback;
+import com.example.micro.security.TokenRevocationChecker;
+import com.example.micro.security.TokenValidationCache;
 
 import java.util.Arrays;
 
@@ -24,13 +28,21 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final Environment environment;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final CoreServiceTokenValidator coreServiceValidator;
+    private final LocalTokenVerifier localVerifier;
+    private final TokenRevocationChecker revocationChecker;
+    private final TokenValidationCache tokenCache;
+    private final StaleTokenFallback staleFallback;
 
-    public SecurityConfig(Environment environment, RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public SecurityConfig(Environment environment, CoreServiceTokenValidator coreServiceValidator,
+                          LocalTokenVerifier localVerifier, TokenRevocationChecker revocationChecker,
+                          TokenValidationCache tokenCache, StaleTokenFallback staleFallback) {
         this.environment = environment;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+        this.coreServiceValidator = coreServiceValidator;
+        this.localVerifier = localVerifier;
+        this.revocationChecker = revocationChecker;
+        this.tokenCache = tokenCache;
+        this.staleFallback = staleFallback;
     }
 
     @Bean
@@ -46,7 +58,8 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(environment, restTemplate, objectMapper);
+        return new JwtAuthenticationFilter(environment, coreServiceValidator, localVerifier,
+                revocationChecker, tokenCache, staleFallback);
     }
 
     @Bean
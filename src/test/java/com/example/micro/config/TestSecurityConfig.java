@@ -15,7 +15,12 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.example.micro.security.CoreServiceTokenValidator;
 import com.example.micro.security.JwtAuthenticationFilter;
+import com.example.micro.security.LocalTokenVerifier;
+import com.example.micro.security.StaleTokenFallback;
+import com.example.micro.security.TokenRevocationChecker;
+import com.example.micro.security.TokenValidationCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.Arrays;
@@ -46,10 +51,14 @@ public class TestSecurityConfig {
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         // Create a mock of the real JwtAuthenticationFilter
         Environment environment = Mockito.mock(Environment.class);
-        RestTemplate restTemplate = Mockito.mock(RestTemplate.class);
-        ObjectMapper objectMapper = Mockito.mock(ObjectMapper.class);
+        CoreServiceTokenValidator coreServiceValidator = Mockito.mock(CoreServiceTokenValidator.class);
+        LocalTokenVerifier localVerifier = Mockito.mock(LocalTokenVerifier.class);
+        TokenRevocationChecker revocationChecker = Mockito.mock(TokenRevocationChecker.class);
+        TokenValidationCache tokenCache = Mockito.mock(TokenValidationCache.class);
+        StaleTokenFallback staleFallback = Mockito.mock(StaleTokenFallback.class);
 
-        return new JwtAuthenticationFilter(environment, restTemplate, objectMapper);
+        return new JwtAuthenticationFilter(environment, coreServiceValidator, localVerifier,
+                revocationChecker, tokenCache, staleFallback);
     }
 
     @Bean
@@ -13,21 +13,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final Environment environment;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
 
-    public JwtAuthenticationFilter(Environment environment, RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public JwtAuthenticationFilter(Environment environment, CoreServiceTokenValidator coreServiceValidator,
+                                   LocalTokenVerifier localVerifier, TokenRevocationChecker revocationChecker,
+                                   TokenValidationCache tokenCache, StaleTokenFallback staleFallback) {
         this.environment = environment;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
     }
 
     @Override